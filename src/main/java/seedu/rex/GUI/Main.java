@@ -31,4 +31,10 @@ public class Main extends Application {
             e.printStackTrace();
         }
     }
+
+    /** Waits for pending changes to be saved when the window is closed without {@code bye}. */
+    @Override
+    public void stop() {
+        rex.flush();
+    }
 }
@@ -1,5 +1,6 @@
 package seedu.rex.GUI;
 
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
 import javafx.scene.control.ScrollPane;
@@ -32,21 +33,24 @@ public class MainWindow extends AnchorPane {
         scrollPane.vvalueProperty().bind(dialogContainer.heightProperty());
     }
 
-    /** Injects the Duke instance */
+    /** Injects the Duke instance and shows its reminders as they come up */
     public void setRex(Rex d) {
         rex = d;
         dialogContainer.getChildren().add(
                 DialogBox.getRexDialog(rex.getWelcomeMessage(), rexImage)
         );
+        rex.onReminder(reminder -> Platform.runLater(() ->
+                dialogContainer.getChildren().add(DialogBox.getRexDialog(reminder, rexImage))));
     }
 
     /**
      * Creates two dialog boxes, one echoing user input and the other containing Duke's reply and then appends them to
-     * the dialog container. Clears the user input after processing.
+     * the dialog container. Clears the user input after processing. Sending nothing after a page of the list fetches
+     * the next page.
      */
     @FXML
     private void handleUserInput() {
-        String input = userInput.getText();
+        String input = userInput.getText().isBlank() ? "more" : userInput.getText();
         String response = rex.getResponse(input);
         dialogContainer.getChildren().addAll(
                 DialogBox.getUserDialog(input, userImage),
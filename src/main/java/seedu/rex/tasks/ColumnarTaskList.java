@@ -0,0 +1,318 @@
+package seedu.rex.tasks;
+
+import seedu.rex.utils.DateTimeUtil;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A list of tasks stored column by column in primitive arrays.
+ * <p>
+ * Done flags live in a {@link BitSet}, types in a {@code byte[]}, ids and
+ * dates in {@code long[]} columns (dates as epoch minutes, a deadline's due
+ * date sharing the column of an event's start), and descriptions as UTF-8 in
+ * one byte arena.
+ * A task costs a few dozen bytes instead of several objects. {@link #get}
+ * returns a {@link Task} built from the columns; changes to it are not seen by
+ * the list until it is written back with {@link #set}. The views built last
+ * are kept in a small cache keyed by id, so reading the same rows again, as
+ * paging through a list does, neither re-interns their descriptions nor
+ * renders them again. Dates are kept to the minute, like the binary storage
+ * format.
+ */
+public final class ColumnarTaskList extends AbstractList<Task> implements RandomAccess {
+    private static final byte TODO = 0;
+    private static final byte DEADLINE = 1;
+    private static final byte EVENT = 2;
+    /** Arena garbage below this many bytes is never worth compacting. */
+    private static final int MIN_COMPACT_BYTES = 64 * 1024;
+    /** Slots in the view cache, a power of two; each holds the last view of one id. */
+    private static final int VIEW_SLOTS = 256;
+
+    private final BitSet done = new BitSet();
+    private byte[] types;
+    private long[] ids;
+    private long[] fromOrBy;
+    private long[] to;
+    private int[] descStart;
+    private int[] descLength;
+    private byte[] arena;
+    private int arenaUsed;
+    private int arenaGarbage;
+    private int size;
+    /**
+     * Recently built views, direct-mapped by id. Atomic because readers
+     * sharing a read lock fill it concurrently; writers forget the views of
+     * the rows they change.
+     */
+    private final AtomicReferenceArray<Task> views = new AtomicReferenceArray<>(VIEW_SLOTS);
+
+    public ColumnarTaskList() {
+        this(16);
+    }
+
+    /**
+     * Creates an empty list with room for {@code capacity} tasks before its columns grow.
+     *
+     * @param capacity the expected number of tasks
+     */
+    public ColumnarTaskList(int capacity) {
+        int n = Math.max(1, capacity);
+        types = new byte[n];
+        ids = new long[n];
+        fromOrBy = new long[n];
+        to = new long[n];
+        descStart = new int[n];
+        descLength = new int[n];
+        arena = new byte[n * 16];
+    }
+
+    /**
+     * Returns a view of the task at {@code index}. A view is a copy: marking
+     * it, or changing it in any other way, does not change the list, so status
+     * is changed through {@link TaskList#mark}, which writes the view back with
+     * {@link #set}. A view whose status no longer matches the list is not
+     * handed out again.
+     *
+     * @param index the position
+     * @return a view of the task, possibly one handed out before
+     */
+    @Override
+    public Task get(int index) {
+        Objects.checkIndex(index, size);
+        long id = ids[index];
+        int slot = viewSlot(id);
+        if (id != 0) {
+            Task cached = views.get(slot);
+            if (cached != null && cached.getId() == id && cached.isDone() == done.get(index)) return cached;
+        }
+        String description = description(index);
+        Task t;
+        switch (types[index]) {
+        case DEADLINE:
+            t = new Deadline(description, DateTimeUtil.fromEpochMinute(fromOrBy[index]));
+            break;
+        case EVENT:
+            t = new Event(description, DateTimeUtil.fromEpochMinute(fromOrBy[index]), DateTimeUtil.fromEpochMinute(to[index]));
+            break;
+        default:
+            t = new Todo(description);
+            break;
+        }
+        if (done.get(index)) t.markDone();
+        t.setId(id);
+        if (id != 0) views.set(slot, t);
+        return t;
+    }
+
+    /** @return the id of the task at {@code index}, read without building a view of the task */
+    public long idAt(int index) {
+        Objects.checkIndex(index, size);
+        return ids[index];
+    }
+
+    /** @return the description at {@code index}, decoded from the arena */
+    public String description(int index) {
+        Objects.checkIndex(index, size);
+        return new String(arena, descStart[index], descLength[index], StandardCharsets.UTF_8);
+    }
+
+    /** @return whether the task at {@code index} is done, without building a view */
+    public boolean isDone(int index) {
+        Objects.checkIndex(index, size);
+        return done.get(index);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void add(int index, Task t) {
+        Objects.checkIndex(index, size + 1);
+        ensureCapacity(size + 1);
+        int tail = size - index;
+        System.arraycopy(types, index, types, index + 1, tail);
+        System.arraycopy(ids, index, ids, index + 1, tail);
+        System.arraycopy(fromOrBy, index, fromOrBy, index + 1, tail);
+        System.arraycopy(to, index, to, index + 1, tail);
+        System.arraycopy(descStart, index, descStart, index + 1, tail);
+        System.arraycopy(descLength, index, descLength, index + 1, tail);
+        for (int i = size; i > index; i--) done.set(i, done.get(i - 1));
+        size++;
+        descLength[index] = 0;
+        write(index, t);
+        modCount++;
+    }
+
+    /**
+     * Stores {@code t} at {@code index}. Writing back a view whose description
+     * is unchanged, as a mark or unmark does, leaves the arena untouched.
+     */
+    @Override
+    public Task set(int index, Task t) {
+        Task old = get(index);
+        write(index, t);
+        return old;
+    }
+
+    @Override
+    public Task remove(int index) {
+        Task old = get(index);
+        forgetView(ids[index]);
+        arenaGarbage += descLength[index];
+        int tail = size - index - 1;
+        System.arraycopy(types, index + 1, types, index, tail);
+        System.arraycopy(ids, index + 1, ids, index, tail);
+        System.arraycopy(fromOrBy, index + 1, fromOrBy, index, tail);
+        System.arraycopy(to, index + 1, to, index, tail);
+        System.arraycopy(descStart, index + 1, descStart, index, tail);
+        System.arraycopy(descLength, index + 1, descLength, index, tail);
+        for (int i = index; i < size - 1; i++) done.set(i, done.get(i + 1));
+        size--;
+        done.clear(size);
+        modCount++;
+        compactIfWasteful();
+        return old;
+    }
+
+    /** Removes a range in one shift of each column, as when a full segment is split. */
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        Objects.checkFromToIndex(fromIndex, toIndex, size);
+        for (int i = fromIndex; i < toIndex; i++) {
+            arenaGarbage += descLength[i];
+            forgetView(ids[i]);
+        }
+        int removed = toIndex - fromIndex;
+        int tail = size - toIndex;
+        System.arraycopy(types, toIndex, types, fromIndex, tail);
+        System.arraycopy(ids, toIndex, ids, fromIndex, tail);
+        System.arraycopy(fromOrBy, toIndex, fromOrBy, fromIndex, tail);
+        System.arraycopy(to, toIndex, to, fromIndex, tail);
+        System.arraycopy(descStart, toIndex, descStart, fromIndex, tail);
+        System.arraycopy(descLength, toIndex, descLength, fromIndex, tail);
+        for (int i = fromIndex; i < size - removed; i++) done.set(i, done.get(i + removed));
+        done.clear(size - removed, size);
+        size -= removed;
+        modCount++;
+        compactIfWasteful();
+    }
+
+    /**
+     * Removes the tasks at several indexes in one sweep over the columns.
+     *
+     * @param indexes the indexes to remove, ascending and without repeats
+     * @param count   how many of {@code indexes} to use
+     */
+    public void removeSorted(int[] indexes, int count) {
+        if (count == 0) return;
+        int w = indexes[0];
+        int k = 0;
+        for (int r = indexes[0]; r < size; r++) {
+            if (k < count && r == indexes[k]) {
+                arenaGarbage += descLength[r];
+                forgetView(ids[r]);
+                k++;
+                continue;
+            }
+            types[w] = types[r];
+            ids[w] = ids[r];
+            fromOrBy[w] = fromOrBy[r];
+            to[w] = to[r];
+            descStart[w] = descStart[r];
+            descLength[w] = descLength[r];
+            done.set(w, done.get(r));
+            w++;
+        }
+        done.clear(w, size);
+        size = w;
+        modCount++;
+        compactIfWasteful();
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < VIEW_SLOTS; i++) views.set(i, null);
+        done.clear();
+        size = 0;
+        arenaUsed = 0;
+        arenaGarbage = 0;
+        modCount++;
+    }
+
+    private void write(int index, Task t) {
+        if (t instanceof Deadline) {
+            types[index] = DEADLINE;
+            fromOrBy[index] = DateTimeUtil.toEpochMinute(((Deadline) t).getBy());
+        } else if (t instanceof Event) {
+            types[index] = EVENT;
+            fromOrBy[index] = DateTimeUtil.toEpochMinute(((Event) t).getFrom());
+            to[index] = DateTimeUtil.toEpochMinute(((Event) t).getTo());
+        } else {
+            types[index] = TODO;
+        }
+        forgetView(ids[index]);
+        forgetView(t.getId());
+        done.set(index, t.isDone());
+        ids[index] = t.getId();
+
+        byte[] bytes = t.getDescription().getBytes(StandardCharsets.UTF_8);
+        int start = descStart[index];
+        int length = descLength[index];
+        if (length == bytes.length && Arrays.equals(arena, start, start + length, bytes, 0, length)) return;
+        arenaGarbage += length;
+        if (arenaUsed + bytes.length > arena.length) {
+            arena = Arrays.copyOf(arena, Math.max(arena.length * 2, arenaUsed + bytes.length));
+        }
+        System.arraycopy(bytes, 0, arena, arenaUsed, bytes.length);
+        descStart[index] = arenaUsed;
+        descLength[index] = bytes.length;
+        arenaUsed += bytes.length;
+    }
+
+    private static int viewSlot(long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & (VIEW_SLOTS - 1);
+    }
+
+    /** Drops the cached view of a task whose row is changed or removed. */
+    private void forgetView(long id) {
+        if (id == 0) return;
+        int slot = viewSlot(id);
+        Task cached = views.get(slot);
+        if (cached != null && cached.getId() == id) views.set(slot, null);
+    }
+
+    /** Rewrites the arena without the descriptions of removed or replaced tasks once they dominate it. */
+    private void compactIfWasteful() {
+        if (arenaGarbage < MIN_COMPACT_BYTES || arenaGarbage < arenaUsed / 2) return;
+        byte[] compacted = new byte[Math.max(16, arenaUsed - arenaGarbage)];
+        int used = 0;
+        for (int i = 0; i < size; i++) {
+            System.arraycopy(arena, descStart[i], compacted, used, descLength[i]);
+            descStart[i] = used;
+            used += descLength[i];
+        }
+        arena = compacted;
+        arenaUsed = used;
+        arenaGarbage = 0;
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed <= types.length) return;
+        int n = Math.max(needed, types.length * 2);
+        types = Arrays.copyOf(types, n);
+        ids = Arrays.copyOf(ids, n);
+        fromOrBy = Arrays.copyOf(fromOrBy, n);
+        to = Arrays.copyOf(to, n);
+        descStart = Arrays.copyOf(descStart, n);
+        descLength = Arrays.copyOf(descLength, n);
+    }
+}
@@ -28,7 +28,7 @@ public class Deadline extends Task {
     public String getByIso() { return by.toString(); }
 
     @Override
-    public String toString() {
+    protected String render() {
         return "[" + type.name().charAt(0) + "]" + status() + " " + description
                 + " (by: " + DateTimeUtil.readable(by) + ")";
     }
@@ -0,0 +1,109 @@
+package seedu.rex.tasks;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded pool that lets tasks with equal descriptions share one {@code String}.
+ * <p>
+ * Task data tends to repeat the same descriptions many times over, and every
+ * loaded line or typed command would otherwise keep its own copy. Unlike
+ * {@link String#intern()} the pool is bounded: it is split into independently
+ * locked stripes, each evicting its least recently used entry when full, so
+ * parallel loaders do not contend on one lock and one-off descriptions do not
+ * accumulate. Long descriptions are rarely repeated and are not pooled.
+ */
+public final class DescriptionPool {
+    public static final int DEFAULT_CAPACITY = 8192;
+    /** Descriptions longer than this are returned as given. */
+    static final int MAX_POOLED_LENGTH = 256;
+    /** Approximate heap cost of a {@code String} besides its characters: object and array headers. */
+    private static final int STRING_OVERHEAD_BYTES = 40;
+    private static final int STRIPES = 16;
+    private static final DescriptionPool SHARED = new DescriptionPool(DEFAULT_CAPACITY);
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder bytesSaved = new LongAdder();
+
+    /**
+     * Creates a pool holding about {@code capacity} distinct descriptions.
+     *
+     * @param capacity the most descriptions to keep; must be positive
+     */
+    public DescriptionPool(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("capacity must be positive");
+        int perStripe = Math.max(1, capacity / STRIPES);
+        for (int i = 0; i < STRIPES; i++) stripes[i] = new Stripe(perStripe);
+    }
+
+    /** @return the pool used by every {@link Task} constructor */
+    public static DescriptionPool shared() {
+        return SHARED;
+    }
+
+    /**
+     * Returns the pooled copy of a description, adding it if it is not pooled yet.
+     *
+     * @param description the description, possibly {@code null}
+     * @return an equal string, shared with earlier callers where possible
+     */
+    public String intern(String description) {
+        if (description == null || description.length() > MAX_POOLED_LENGTH) return description;
+        Stripe stripe = stripes[(description.hashCode() & 0x7fffffff) % STRIPES];
+        String pooled;
+        synchronized (stripe) {
+            pooled = stripe.putIfAbsent(description, description);
+        }
+        if (pooled == null) return description;
+        if (pooled != description) {
+            hits.increment();
+            bytesSaved.add(STRING_OVERHEAD_BYTES + description.length());
+        }
+        return pooled;
+    }
+
+    /** @return how many descriptions were replaced by a pooled copy */
+    public long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * Estimates the heap saved by sharing descriptions, counting each replaced
+     * copy as its headers plus one byte per character.
+     *
+     * @return the estimated bytes saved so far
+     */
+    public long bytesSaved() {
+        return bytesSaved.sum();
+    }
+
+    /** @return the number of descriptions currently pooled */
+    public int size() {
+        int n = 0;
+        for (Stripe s : stripes) {
+            synchronized (s) {
+                n += s.size();
+            }
+        }
+        return n;
+    }
+
+    /** A least-recently-used map for one slice of the hash space. */
+    private static final class Stripe extends LinkedHashMap<String, String> {
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+
+        Stripe(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > capacity;
+        }
+    }
+}
@@ -36,7 +36,7 @@ public class Event extends Task {
     public String getToIso() { return to.toString(); }
 
     @Override
-    public String toString() {
+    protected String render() {
         return "[" + type.name().charAt(0) + "]" + status() + " " + description
                 + " (from: " + DateTimeUtil.readable(from)
                 + " to: " + DateTimeUtil.readable(to) + ")";
@@ -0,0 +1,179 @@
+package seedu.rex.tasks;
+
+import java.util.function.LongConsumer;
+
+/**
+ * A dynamic interval tree over task ids, keyed by each interval's start.
+ * <p>
+ * The tree is a treap ordered by start and then id, and each node keeps the
+ * latest end in its subtree. A query skips every subtree whose latest end is
+ * before the range and everything to the right of a node that starts after
+ * it, so only the part of the tree near the matches is visited. A node's
+ * priority is a hash of its id, which balances the tree without a random
+ * number generator. A deadline is an interval that starts and ends at once.
+ * Each node also counts the nodes under it, so the intervals starting before
+ * a given point are counted in O(log n).
+ */
+final class IntervalIndex {
+    private Node root;
+    private int size;
+
+    /**
+     * Adds an interval.
+     *
+     * @param start the start, inclusive
+     * @param end   the end, inclusive, not before {@code start}
+     * @param id    the id of the task the interval belongs to
+     */
+    void add(long start, long end, long id) {
+        root = insert(root, new Node(start, Math.max(start, end), id));
+        size++;
+    }
+
+    /**
+     * Removes the interval added with the given start and id, if there is one.
+     *
+     * @return true if an interval was removed
+     */
+    boolean remove(long start, long id) {
+        int before = size;
+        root = delete(root, start, id);
+        return size < before;
+    }
+
+    /**
+     * Reports the ids of every interval that shares a point with
+     * {@code [lo, hi]}, in order of start.
+     *
+     * @param lo  the start of the range, inclusive
+     * @param hi  the end of the range, inclusive
+     * @param out receives each matching id
+     */
+    void overlapping(long lo, long hi, LongConsumer out) {
+        collect(root, lo, hi, out);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /** @return the number of intervals that start strictly before {@code point} */
+    int countStartingBefore(long point) {
+        int count = 0;
+        Node n = root;
+        while (n != null) {
+            if (n.start < point) {
+                count += Node.count(n.left) + 1;
+                n = n.right;
+            } else {
+                n = n.left;
+            }
+        }
+        return count;
+    }
+
+    private static void collect(Node n, long lo, long hi, LongConsumer out) {
+        while (n != null && n.maxEnd >= lo) {
+            collect(n.left, lo, hi, out);
+            if (n.start > hi) return;
+            if (n.end >= lo) out.accept(n.id);
+            n = n.right;
+        }
+    }
+
+    private static Node insert(Node n, Node x) {
+        if (n == null) return x;
+        if (compare(x.start, x.id, n) < 0) {
+            n.left = insert(n.left, x);
+            if (n.left.priority > n.priority) n = rotateRight(n);
+        } else {
+            n.right = insert(n.right, x);
+            if (n.right.priority > n.priority) n = rotateLeft(n);
+        }
+        n.update();
+        return n;
+    }
+
+    private Node delete(Node n, long start, long id) {
+        if (n == null) return null;
+        int c = compare(start, id, n);
+        if (c == 0) {
+            size--;
+            return merge(n.left, n.right);
+        }
+        if (c < 0) {
+            n.left = delete(n.left, start, id);
+        } else {
+            n.right = delete(n.right, start, id);
+        }
+        n.update();
+        return n;
+    }
+
+    /** Joins two treaps where every key in {@code a} is before every key in {@code b}. */
+    private static Node merge(Node a, Node b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            a.update();
+            return a;
+        }
+        b.left = merge(a, b.left);
+        b.update();
+        return b;
+    }
+
+    private static Node rotateRight(Node n) {
+        Node l = n.left;
+        n.left = l.right;
+        n.update();
+        l.right = n;
+        return l;
+    }
+
+    private static Node rotateLeft(Node n) {
+        Node r = n.right;
+        n.right = r.left;
+        n.update();
+        r.left = n;
+        return r;
+    }
+
+    private static int compare(long start, long id, Node n) {
+        int c = Long.compare(start, n.start);
+        return c != 0 ? c : Long.compare(id, n.id);
+    }
+
+    private static final class Node {
+        final long start;
+        final long end;
+        final long id;
+        final long priority;
+        long maxEnd;
+        int count = 1;
+        Node left;
+        Node right;
+
+        Node(long start, long end, long id) {
+            this.start = start;
+            this.end = end;
+            this.id = id;
+            long h = id * 0x9E3779B97F4A7C15L;
+            this.priority = h ^ (h >>> 29);
+            this.maxEnd = end;
+        }
+
+        void update() {
+            long m = end;
+            if (left != null && left.maxEnd > m) m = left.maxEnd;
+            if (right != null && right.maxEnd > m) m = right.maxEnd;
+            maxEnd = m;
+            count = count(left) + count(right) + 1;
+        }
+
+        static int count(Node n) {
+            return n == null ? 0 : n.count;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package seedu.rex.tasks;
+
+/**
+ * An open-addressing hash map from non-zero {@code long} keys to non-negative
+ * {@code int} values, for a segment's id-to-offset lookups.
+ * <p>
+ * It is laid out like {@link LongObjectMap} but keeps its values in an
+ * {@code int[]}, so neither keys nor values are boxed. Entries are never
+ * removed one by one; the map is dropped and rebuilt when its values go stale.
+ */
+final class LongIntMap {
+    private static final long EMPTY = 0;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    /**
+     * @param expected how many entries the map should hold without growing
+     */
+    LongIntMap(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(16, expected * 3 / 2) - 1) << 1;
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    /** @return the value stored under {@code key}, or -1 if there is none */
+    int get(long key) {
+        for (int i = slot(key); ; i = (i + 1) & mask) {
+            if (keys[i] == key) return values[i];
+            if (keys[i] == EMPTY) return -1;
+        }
+    }
+
+    /**
+     * Stores a value, replacing any value already under the key.
+     *
+     * @param key   a key other than 0
+     * @param value the value
+     */
+    void put(long key, int value) {
+        if (key == EMPTY) throw new IllegalArgumentException("Key 0 is reserved");
+        int i = slot(key);
+        while (keys[i] != EMPTY && keys[i] != key) i = (i + 1) & mask;
+        values[i] = value;
+        if (keys[i] == EMPTY) {
+            keys[i] = key;
+            if (++size * 3 > keys.length * 2) grow();
+        }
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new int[keys.length];
+        mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] == EMPTY) continue;
+            int i = slot(oldKeys[j]);
+            while (keys[i] != EMPTY) i = (i + 1) & mask;
+            keys[i] = oldKeys[j];
+            values[i] = oldValues[j];
+        }
+    }
+}
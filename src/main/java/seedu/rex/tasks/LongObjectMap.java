@@ -0,0 +1,109 @@
+package seedu.rex.tasks;
+
+import java.util.Arrays;
+
+/**
+ * An open-addressing hash map from non-zero {@code long} keys to objects.
+ * <p>
+ * Keys are stored in a plain {@code long[]}, so lookups neither box the key
+ * nor follow a chain of entry objects. Collisions probe linearly, and removal
+ * shifts later entries back instead of leaving tombstones, so a map that sees
+ * many removals stays as fast as a fresh one.
+ *
+ * @param <V> the value type
+ */
+public final class LongObjectMap<V> {
+    private static final long EMPTY = 0;
+
+    private long[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+
+    public LongObjectMap() {
+        keys = new long[16];
+        values = new Object[16];
+        mask = 15;
+    }
+
+    /** @return the value stored under {@code key}, or {@code null} if there is none */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        for (int i = slot(key); ; i = (i + 1) & mask) {
+            if (keys[i] == key) return (V) values[i];
+            if (keys[i] == EMPTY) return null;
+        }
+    }
+
+    /**
+     * Stores a value, replacing any value already under the key.
+     *
+     * @param key   a key other than 0
+     * @param value the value
+     */
+    public void put(long key, V value) {
+        if (key == EMPTY) throw new IllegalArgumentException("Key 0 is reserved");
+        int i = slot(key);
+        while (keys[i] != EMPTY && keys[i] != key) i = (i + 1) & mask;
+        if (keys[i] == EMPTY) {
+            keys[i] = key;
+            if (++size * 3 > keys.length * 2) {
+                values[i] = value;
+                grow();
+                return;
+            }
+        }
+        values[i] = value;
+    }
+
+    /** Removes the value stored under {@code key}, if any. */
+    public void remove(long key) {
+        int i = slot(key);
+        while (keys[i] != key) {
+            if (keys[i] == EMPTY) return;
+            i = (i + 1) & mask;
+        }
+        // Shift back every later entry of the probe run that the gap would hide.
+        for (int next = (i + 1) & mask; keys[next] != EMPTY; next = (next + 1) & mask) {
+            int home = slot(keys[next]);
+            if (((next - home) & mask) >= ((next - i) & mask)) {
+                keys[i] = keys[next];
+                values[i] = values[next];
+                i = next;
+            }
+        }
+        keys[i] = EMPTY;
+        values[i] = null;
+        size--;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new Object[keys.length];
+        mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] == EMPTY) continue;
+            int i = slot(oldKeys[j]);
+            while (keys[i] != EMPTY) i = (i + 1) & mask;
+            keys[i] = oldKeys[j];
+            values[i] = oldValues[j];
+        }
+    }
+}
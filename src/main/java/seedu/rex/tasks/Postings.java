@@ -0,0 +1,109 @@
+package seedu.rex.tasks;
+
+import java.util.Arrays;
+
+/**
+ * A sorted set of task ids, as kept for each entry of a search index.
+ * <p>
+ * Tasks are usually given ids in increasing order, so adding one is normally
+ * an append; an id added out of order, e.g. by an undo, is put in place.
+ */
+final class Postings {
+    private long[] ids = new long[2];
+    private int size;
+
+    /** Adds an id; adding one that is already present does nothing. */
+    void add(long id) {
+        if (size > 0 && id <= ids[size - 1]) {
+            int i = Arrays.binarySearch(ids, 0, size, id);
+            if (i >= 0) return;
+            insertAt(-i - 1, id);
+            return;
+        }
+        insertAt(size, id);
+    }
+
+    /** @return true if the id was present and is now removed */
+    boolean remove(long id) {
+        int i = Arrays.binarySearch(ids, 0, size, id);
+        if (i < 0) return false;
+        System.arraycopy(ids, i + 1, ids, i, size - i - 1);
+        size--;
+        return true;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /** @return a copy of the ids, ascending */
+    long[] toArray() {
+        return Arrays.copyOf(ids, size);
+    }
+
+    /**
+     * Keeps the ids of a short sorted array that are also in this set, by
+     * binary search, so a long set is not copied or walked in full.
+     *
+     * @param sorted ids, ascending
+     * @return the ids in both, ascending
+     */
+    long[] retain(long[] sorted) {
+        long[] out = new long[sorted.length];
+        int n = 0;
+        int from = 0;
+        for (long id : sorted) {
+            int i = Arrays.binarySearch(ids, from, size, id);
+            if (i >= 0) {
+                out[n++] = id;
+                from = i + 1;
+            } else {
+                from = -i - 1;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    /** @return the ids in both sorted arrays, ascending */
+    static long[] intersect(long[] a, long[] b) {
+        long[] out = new long[Math.min(a.length, b.length)];
+        int n = 0;
+        for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    /** @return the ids in any of the sets, ascending and without repeats */
+    static long[] union(Iterable<Postings> sets) {
+        int total = 0;
+        for (Postings p : sets) total += p.size;
+        long[] out = new long[total];
+        int n = 0;
+        for (Postings p : sets) {
+            System.arraycopy(p.ids, 0, out, n, p.size);
+            n += p.size;
+        }
+        Arrays.sort(out);
+        int distinct = 0;
+        for (int i = 0; i < n; i++) {
+            if (distinct == 0 || out[i] != out[distinct - 1]) out[distinct++] = out[i];
+        }
+        return Arrays.copyOf(out, distinct);
+    }
+
+    private void insertAt(int i, long id) {
+        if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+        System.arraycopy(ids, i, ids, i + 1, size - i);
+        ids[i] = id;
+        size++;
+    }
+}
@@ -1,38 +1,48 @@
 package seedu.rex.tasks;
 
-enum TaskType {
-    TODO, DEADLINE, EVENT
-}
-
 /**
         * Abstract base class representing a generic task.
         * A Task has a description, a completion status, and a type (TODO, DEADLINE, EVENT).
         *
         * Subclasses should provide additional fields (e.g. date/time) where necessary
- * and override {@code toString()} to format their details.
+ * and override {@link #render()} to format their details. The rendered form is
+ * kept until the task is marked or unmarked, so listing a task again does not
+ * format it again.
         */
 public abstract class Task {
     protected String description;
-    protected boolean isDone;
+    protected volatile boolean isDone;
     protected TaskType type;
+    /** Stable id, or 0 until the task is first added to a {@link TaskList}. */
+    protected long id;
+    /** The last {@link #render()}, with the status it was rendered with; {@code null} until then. */
+    private volatile Rendered rendered;
 
     /**
      * Constructs a new Task with the given description and type.
+     * The description is shared through {@link DescriptionPool#shared()} with
+     * other tasks that have the same one.
      *
      * @param description the description of the task
      * @param type        the type of task (TODO, DEADLINE, EVENT)
      */
     public Task(String description, TaskType type) {
-        this.description = description;
+        this.description = DescriptionPool.shared().intern(description);
         this.type = type;
         this.isDone = false;
     }
 
     /** Marks this task as completed. */
-    public void markDone() { this.isDone = true; }
+    public void markDone() {
+        this.isDone = true;
+        this.rendered = null;
+    }
 
     /** Marks this task as not completed. */
-    public void markUndone() { this.isDone = false; }
+    public void markUndone() {
+        this.isDone = false;
+        this.rendered = null;
+    }
 
     /** @return "[X]" if task is done, "[ ]" otherwise */
     protected String status() { return isDone ? "[X]" : "[ ]"; }
@@ -43,8 +53,45 @@ public abstract class Task {
     /** @return true if the task is done */
     public boolean isDone() { return isDone; }
 
+    /** @return the task's stable id, or 0 if it has not been added to a task list yet */
+    public long getId() { return id; }
+
+    /**
+     * Sets the task's id. Ids are handed out by {@link TaskList}; storage
+     * calls this to restore the id a task was saved with.
+     *
+     * @param id the id, or 0 for none
+     */
+    public void setId(long id) { this.id = id; }
+
+    /**
+     * Returns the task as shown to the user, rendering it only the first time
+     * it is asked for after being created, marked or unmarked. The kept form
+     * is checked against the current status, so a render that races with a
+     * mark on another thread is never handed out afterwards.
+     */
     @Override
     public String toString() {
+        boolean done = isDone;
+        Rendered r = rendered;
+        if (r != null && r.isDone == done) return r.text;
+        String text = render();
+        rendered = new Rendered(done, text);
+        return text;
+    }
+
+    /** @return the task as shown to the user, formatted afresh */
+    protected String render() {
         return "[" + type.name().charAt(0) + "]" + status() + " " + description;
     }
+
+    private static final class Rendered {
+        final boolean isDone;
+        final String text;
+
+        Rendered(boolean isDone, String text) {
+            this.isDone = isDone;
+            this.text = text;
+        }
+    }
 }
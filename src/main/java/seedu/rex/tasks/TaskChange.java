@@ -0,0 +1,73 @@
+package seedu.rex.tasks;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * What one change to a {@link TaskList} did: the tasks it touched and where
+ * they were, their status before, and whether the list's
+ * {@link TaskList.Recorder} recorded it. Everything here was read under the
+ * same lock the change was made under, so it cannot mix in other threads'
+ * changes.
+ */
+public final class TaskChange {
+    private final List<Task> tasks;
+    private final int[] positions;
+    private final boolean[] wasDone;
+    private final List<Event> clashes;
+    private final boolean isRecorded;
+    private final int size;
+
+    TaskChange(List<Task> tasks, int[] positions, boolean[] wasDone, List<Event> clashes,
+            boolean isRecorded, int size) {
+        this.tasks = Collections.unmodifiableList(tasks);
+        this.positions = positions;
+        this.wasDone = wasDone;
+        this.clashes = Collections.unmodifiableList(clashes);
+        this.isRecorded = isRecorded;
+        this.size = size;
+    }
+
+    /** @return the tasks changed, in list order; empty if the change selected none */
+    public List<Task> tasks() {
+        return tasks;
+    }
+
+    /** @return the only task changed, e.g. by {@link TaskList#add} or {@link TaskList#mark} */
+    public Task task() {
+        return tasks.get(0);
+    }
+
+    /**
+     * @return the 1-based position of each task: where it ended up for an add or
+     *         insert, where it is for a mark, and where it was for a delete
+     */
+    public int[] positions() {
+        return positions.clone();
+    }
+
+    /** @return the position of the only task changed */
+    public int position() {
+        return positions[0];
+    }
+
+    /** @return whether each task was done before the change */
+    public boolean[] wasDone() {
+        return wasDone.clone();
+    }
+
+    /** @return the events an added event overlaps, ordered by start; empty for any other change */
+    public List<Event> clashes() {
+        return clashes;
+    }
+
+    /** @return false if the list's recorder failed to record the change, which was made all the same */
+    public boolean isRecorded() {
+        return isRecorded;
+    }
+
+    /** @return the size of the list right after the change */
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,63 @@
+package seedu.rex.tasks;
+
+/**
+ * Running counts of a task list's tasks by type and status, updated as tasks
+ * are added, deleted and marked so that reading them never scans the list.
+ * <p>
+ * Deadlines not done yet are also kept in an {@link IntervalIndex} by due
+ * date, so the number that are overdue at any moment is counted in O(log n).
+ */
+final class TaskCounts {
+    private final int[] total = new int[TaskType.values().length];
+    private int done;
+    private final IntervalIndex pendingDeadlines = new IntervalIndex();
+
+    void added(Task t) {
+        total[t.type.ordinal()]++;
+        if (t.isDone()) {
+            done++;
+        } else {
+            trackDeadline(t, true);
+        }
+    }
+
+    void removed(Task t) {
+        total[t.type.ordinal()]--;
+        if (t.isDone()) {
+            done--;
+        } else {
+            trackDeadline(t, false);
+        }
+    }
+
+    /**
+     * Updates the counts for a task whose status may have changed.
+     *
+     * @param t       the task, with its new status
+     * @param wasDone its status before
+     */
+    void marked(Task t, boolean wasDone) {
+        if (t.isDone() == wasDone) return;
+        done += t.isDone() ? 1 : -1;
+        trackDeadline(t, !t.isDone());
+    }
+
+    /**
+     * @param nowEpochSecond the current time, as {@link TaskList} keys times
+     * @return the counts as they are now
+     */
+    TaskStats snapshot(long nowEpochSecond) {
+        return new TaskStats(total[TaskType.TODO.ordinal()], total[TaskType.DEADLINE.ordinal()],
+                total[TaskType.EVENT.ordinal()], done, pendingDeadlines.countStartingBefore(nowEpochSecond));
+    }
+
+    private void trackDeadline(Task t, boolean isPending) {
+        if (!(t instanceof Deadline)) return;
+        long by = TaskList.epochSecond(((Deadline) t).getBy());
+        if (isPending) {
+            pendingDeadlines.add(by, by, t.getId());
+        } else {
+            pendingDeadlines.remove(by, t.getId());
+        }
+    }
+}
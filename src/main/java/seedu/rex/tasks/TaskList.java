@@ -1,39 +1,1841 @@
 package seedu.rex.tasks;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
+/**
+ * An ordered list of tasks addressed by 1-based position.
+ * <p>
+ * Tasks are kept in segments of up to {@link #SEGMENT_CAPACITY} tasks. Each
+ * segment remembers whether it changed since it was last saved, so a
+ * segmented store only has to rewrite the segments a command touched.
+ * <p>
+ * A Fenwick tree over the segment sizes finds the segment holding a position
+ * in O(log n), and adding or removing a task only shifts the tasks after it in
+ * its own segment, so get, insert and delete never touch the whole list. A
+ * segment that outgrows its capacity is split in two, and one that shrinks
+ * to a quarter of it is merged with a small neighbour.
+ * <p>
+ * Every task gets a stable id when it is added, unless it already has one.
+ * Ids never change as tasks around them come and go, and {@link #positionOf}
+ * finds a task by id through an open-addressing map from id to segment and,
+ * within the segment, a map from id to offset that is rebuilt on the first
+ * lookup after tasks in the segment moved.
+ * <p>
+ * Once {@link #occurringBetween} or {@link #clashesWith} has been called, an
+ * {@link IntervalIndex} over event spans and deadline due times is kept in
+ * step with every add and delete, so date queries never scan the list.
+ * Likewise {@link #find} keeps a {@link TrigramIndex} and a {@link TermIndex}
+ * over the descriptions.
+ * <p>
+ * Segments hold their tasks in plain {@link ArrayList}s unless the list was
+ * created by {@link #columnar(List)}, in which case each segment is a
+ * {@link ColumnarTaskList}.
+ * <p>
+ * The list is safe to share between threads. Writes are serialised by a
+ * {@link StampedLock}; {@link #get} and {@link #size} read optimistically and
+ * only take the lock when a write got in the way, and {@link #snapshot} hands
+ * out one immutable copy to every reader until the next write. Queries run
+ * under the read lock, so they run alongside each other; one that first has
+ * to load a segment or build an index converts to the write lock for that.
+ * Steps that belong together happen under one write lock: a change by id
+ * finds the task and changes it, an added event is checked for clashes, and
+ * each change is handed to the list's {@link Recorder} before the next one
+ * can start. Each change returns a {@link TaskChange} saying what it did, so
+ * callers never read the list again to find out.
+ */
 public class TaskList {
-    private final List<Task> tasks;
+    /** Most tasks one segment holds before it is split or a new segment is started. */
+    public static final int SEGMENT_CAPACITY = 4096;
+    /** Segments smaller than this are merged with a neighbour when that stays small. */
+    private static final int MERGE_THRESHOLD = SEGMENT_CAPACITY / 4;
+
+    private final List<Segment> segments = new ArrayList<>();
+    /** Creates the list each new or loaded segment keeps its tasks in. */
+    private final Supplier<List<Task>> storage;
+    /** Fenwick tree over segment sizes, 1-based; rebuilt when segments are added or removed. */
+    private int[] index = new int[1];
+    private boolean isIndexStale;
+    private int size;
+    /** Counts changes, so that a save can tell whether the list changed while it was written. */
+    private final AtomicLong version = new AtomicLong();
+    /** The {@link #version} the last completed save captured. */
+    private volatile long savedVersion;
+    /** Guards all state below; {@link #get} and {@link #size} go optimistic first, other reads take the read lock. */
+    private final StampedLock lock = new StampedLock();
+    /** The last {@link #snapshot()}, or {@code null} once the list has changed since. */
+    private volatile List<Task> published;
+    /** Segment holding each task, by id; covers every segment in memory. */
+    private final LongObjectMap<Segment> ids = new LongObjectMap<>();
+    private long nextId = 1;
+    /** False while stored segments may hold ids at or above {@link #nextId}. */
+    private boolean isNextIdKnown = true;
+    /** True while segments are being loaded in bulk, so that missing ids are given out afterwards. */
+    private boolean isDeferringIds;
+    /** Words of descriptions, for short {@link #find} queries; {@code null} until the first. */
+    private TermIndex terms;
+    /** Trigrams of descriptions, for longer {@link #find} queries; {@code null} until the first. */
+    private TrigramIndex trigrams;
+    /** Events by time span and deadlines by due time; {@code null} until the first date query. */
+    private IntervalIndex eventTimes;
+    private IntervalIndex deadlineTimes;
+    /**
+     * Segment still in storage holding each task whose times were indexed from
+     * its stored dates; {@code null} until then. An entry goes once its segment is read.
+     */
+    private LongObjectMap<Segment> storedTimes;
+    /** Running counts by type and status; {@code null} until the first {@link #stats}. */
+    private TaskCounts counts;
+    /** Told of every change as it is made; {@code null} until {@link #recordTo}. */
+    private Recorder recorder;
+    /** The thread telling {@link #recorder} of a change, which may read the list meanwhile; otherwise {@code null}. */
+    private volatile Thread recording;
 
     public TaskList() {
-        this.tasks = new ArrayList<>();
+        this(ArrayList::new);
     }
 
     public TaskList(List<Task> initial) {
-        this.tasks = new ArrayList<>(initial);
+        this(ArrayList::new);
+        appendAll(initial);
+    }
+
+    private TaskList(Supplier<List<Task>> storage) {
+        this.storage = storage;
+    }
+
+    /**
+     * Creates a task list whose segments store tasks column by column, trading
+     * a little time per access for far less memory per task. Tasks read from
+     * it are views: only changes made through {@link #mark} are kept.
+     *
+     * @param initial the tasks to start with, copied
+     * @return a columnar task list
+     */
+    public static TaskList columnar(List<Task> initial) {
+        TaskList list = new TaskList(ColumnarTaskList::new);
+        list.appendAll(initial);
+        return list;
+    }
+
+    private void appendAll(List<Task> initial) {
+        isNextIdKnown = false;
+        isDeferringIds = true;
+        for (int from = 0; from < initial.size(); from += SEGMENT_CAPACITY) {
+            int to = Math.min(initial.size(), from + SEGMENT_CAPACITY);
+            List<Task> tasks = storage.get();
+            tasks.addAll(initial.subList(from, to));
+            appendSegment(new Segment(tasks));
+        }
+        isDeferringIds = false;
+        learnNextId();
+    }
+
+    /**
+     * Creates a task list over {@code backing} without reading it, so that a
+     * lazily loaded list stays lazy. Each segment copies its share of
+     * {@code backing} the first time it is used. Until every segment has been
+     * read, the first new id handed out reads the rest.
+     *
+     * @param backing a list the task list takes ownership of and never modifies
+     * @return a task list over {@code backing}
+     */
+    public static TaskList wrap(List<Task> backing) {
+        return wrap(backing, -1, null);
+    }
+
+    /**
+     * Creates a task list over {@code backing} without reading it, handing out
+     * new ids above {@code maxId} so that no segment has to be read for them.
+     *
+     * @param backing a list the task list takes ownership of and never modifies
+     * @param maxId   the highest id in {@code backing}, or -1 if unknown
+     * @param dues    reads the due dates in {@code backing} by position for
+     *                {@link #forEachDue}, or {@code null} to read the tasks instead
+     * @return a task list over {@code backing}
+     */
+    public static TaskList wrap(List<Task> backing, long maxId, DueScan dues) {
+        TaskList list = new TaskList();
+        list.isNextIdKnown = backing.isEmpty() || maxId >= 0;
+        list.nextId = Math.max(list.nextId, maxId + 1);
+        for (int from = 0; from < backing.size(); from += SEGMENT_CAPACITY) {
+            int start = from;
+            List<Task> chunk = backing.subList(from, Math.min(backing.size(), from + SEGMENT_CAPACITY));
+            Segment s = Segment.stored(-1, chunk.size(), -1, () -> chunk,
+                    dues == null ? null : (lo, hi, out) -> dues.scan(start + lo, start + hi, out));
+            s.isDirty = true;
+            list.appendSegment(s);
+        }
+        return list;
+    }
+
+    /**
+     * Creates a task list from stored segments, each loaded on first use.
+     * New ids can be handed out without reading any segment as long as every
+     * segment knows its highest id.
+     *
+     * @param stored the segments in order
+     * @return a task list over those segments, with nothing marked dirty
+     */
+    public static TaskList fromSegments(List<Segment> stored) {
+        TaskList list = new TaskList();
+        for (Segment s : stored) {
+            if (s.size() == 0) continue;
+            list.appendSegment(s);
+            if (s.maxTaskId < 0) list.isNextIdKnown = false;
+            list.nextId = Math.max(list.nextId, s.maxTaskId + 1);
+        }
+        return list;
+    }
+
+    private void appendSegment(Segment s) {
+        s.owner = this;
+        segments.add(s);
+        size += s.size();
+        isIndexStale = true;
+        if (s.tasks != null) register(s);
+    }
+
+    /**
+     * Records the changes made to a {@link TaskList}, e.g. in a journal.
+     * <p>
+     * Each change is handed over right after it has been applied, under the
+     * list's write lock, so changes are recorded in the order they were made
+     * and a {@link TaskList#capture} never falls between a change and its
+     * record. While it is being told of a change the recorder may read the
+     * list with {@link TaskList#get} and {@link TaskList#size}, but must not
+     * change it or wait on a thread that uses it.
+     */
+    public interface Recorder {
+        /**
+         * Records a task appended to the end of the list.
+         *
+         * @param task the added task
+         */
+        void added(Task task) throws IOException;
+
+        /**
+         * Records a task inserted at a position, e.g. a deleted task being restored.
+         *
+         * @param oneBasedIndex the position the task now has
+         * @param task          the inserted task
+         */
+        void inserted(int oneBasedIndex, Task task) throws IOException;
+
+        /**
+         * Records a task marked as done or not done.
+         *
+         * @param oneBasedIndex the task's position
+         * @param done          its new status
+         */
+        void marked(int oneBasedIndex, boolean done) throws IOException;
+
+        /**
+         * Records a task removed from the list.
+         *
+         * @param oneBasedIndex the position the task was removed from
+         */
+        void deleted(int oneBasedIndex) throws IOException;
+
+        /**
+         * Records several tasks marked as done or not done by one command, as one change.
+         *
+         * @param oneBasedIndexes the tasks' positions, ascending
+         * @param done            their new status
+         */
+        void markedAll(int[] oneBasedIndexes, boolean done) throws IOException;
+
+        /**
+         * Records several tasks removed by one command, as one change.
+         *
+         * @param oneBasedIndexes the positions the tasks had before any was removed, ascending
+         */
+        void deletedAll(int[] oneBasedIndexes) throws IOException;
+    }
+
+    /** One call to the {@link Recorder}. */
+    @FunctionalInterface
+    private interface Record {
+        void to(Recorder recorder) throws IOException;
+    }
+
+    /**
+     * Has every later change handed to {@code recorder} as it is made. Changes
+     * made before, such as those replayed while loading, are not.
+     *
+     * @param recorder records the changes, or {@code null} to stop recording
+     */
+    public void recordTo(Recorder recorder) {
+        long stamp = lock.writeLock();
+        try {
+            this.recorder = recorder;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Hands a change just made to the recorder. Must be called under the write
+     * lock; meanwhile this thread may read the list through {@link #get} and
+     * {@link #size} without taking the lock again.
+     *
+     * @return false if the recorder failed
+     */
+    private boolean record(Record change) {
+        if (recorder == null) return true;
+        recording = Thread.currentThread();
+        try {
+            change.to(recorder);
+            return true;
+        } catch (IOException e) {
+            return false;
+        } finally {
+            recording = null;
+        }
     }
 
-    public void add(Task t) {
-        tasks.add(t);
+    /**
+     * Adds a task at the end of the list, giving it an id unless it has one.
+     * An event is checked for clashes in the same step, so a change made by
+     * another thread cannot come between the add and the check.
+     *
+     * @param t the task to add
+     * @return the change, with the events {@code t} overlaps if it is an event
+     */
+    public TaskChange add(Task t) {
+        long stamp = lock.writeLock();
+        try {
+            append(t);
+            List<Event> clashes = t instanceof Event ? clashesLocked((Event) t, true) : Collections.emptyList();
+            boolean isRecorded = record(r -> r.added(t));
+            return new TaskChange(List.of(t), new int[]{size}, new boolean[]{t.isDone()}, clashes, isRecorded, size);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
     }
 
-    public Task delete(int oneBasedIndex) {
-        int i = oneBasedIndex - 1;
-        return tasks.remove(i);
+    private void append(Task t) {
+        if (t.getId() == 0) t.setId(newId());
+        Segment last = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        if (last == null || last.size() >= SEGMENT_CAPACITY) {
+            last = new Segment(storage.get());
+            last.owner = this;
+            segments.add(last);
+            isIndexStale = true;
+        }
+        track(t, last);
+        indexed(t);
+        last.tasks().add(t);
+        last.appended(t);
+        resized(segments.size() - 1, 1);
+        size++;
+        version.incrementAndGet();
+        published = null;
     }
 
+    /**
+     * Inserts a task so that it ends up at the given position. A task that
+     * already has an id, e.g. one being restored, keeps it.
+     *
+     * @param oneBasedIndex the new task's position, from 1 to {@code size() + 1}
+     * @param t             the task to insert
+     * @return the change
+     */
+    public TaskChange insert(int oneBasedIndex, Task t) {
+        long stamp = lock.writeLock();
+        try {
+            insertAt(oneBasedIndex, t);
+            boolean isRecorded = record(r -> r.inserted(oneBasedIndex, t));
+            return new TaskChange(List.of(t), new int[]{oneBasedIndex}, new boolean[]{t.isDone()},
+                    Collections.emptyList(), isRecorded, size);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private void insertAt(int oneBasedIndex, Task t) {
+        if (oneBasedIndex == size + 1) {
+            append(t);
+            return;
+        }
+        int seg = locate(oneBasedIndex - 1);
+        Segment s = segments.get(seg);
+        if (t.getId() == 0) t.setId(newId());
+        track(t, s);
+        indexed(t);
+        s.tasks().add(oneBasedIndex - 1 - startOf(seg), t);
+        s.shifted();
+        size++;
+        version.incrementAndGet();
+        published = null;
+        if (s.size() > SEGMENT_CAPACITY) {
+            split(seg);
+        } else {
+            resized(seg, 1);
+        }
+    }
+
+    /**
+     * Deletes the task at a position.
+     *
+     * @param oneBasedIndex the task's position
+     * @return the change
+     */
+    public TaskChange delete(int oneBasedIndex) {
+        long stamp = lock.writeLock();
+        try {
+            return deleted(oneBasedIndex);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Deletes a task by its stable id, finding and removing it in one step.
+     *
+     * @param id the task id
+     * @return the change, or {@code null} if no task has that id
+     */
+    public TaskChange deleteById(long id) {
+        long stamp = lock.writeLock();
+        try {
+            int idx = find(id, true);
+            return idx < 0 ? null : deleted(idx);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private TaskChange deleted(int oneBasedIndex) {
+        Task removed = removeTask(oneBasedIndex);
+        boolean isRecorded = record(r -> r.deleted(oneBasedIndex));
+        return new TaskChange(List.of(removed), new int[]{oneBasedIndex}, new boolean[]{removed.isDone()},
+                Collections.emptyList(), isRecorded, size);
+    }
+
+    private Task removeTask(int oneBasedIndex) {
+        int seg = locate(oneBasedIndex - 1);
+        Segment s = segments.get(seg);
+        Task removed = s.tasks().remove(oneBasedIndex - 1 - startOf(seg));
+        if (removed.getId() != 0) ids.remove(removed.getId());
+        unindexed(removed);
+        s.shifted();
+        size--;
+        version.incrementAndGet();
+        published = null;
+        if (s.size() == 0) {
+            segments.remove(seg);
+            isIndexStale = true;
+        } else if (s.size() < MERGE_THRESHOLD && (mergeWithNext(seg) || mergeWithNext(seg - 1))) {
+            isIndexStale = true;
+        } else {
+            resized(seg, -1);
+        }
+        return removed;
+    }
+
+    /**
+     * Reads the task at a position. The read is optimistic: it takes no lock
+     * unless a write overlapped it, or it has to load a segment or rebuild the
+     * index first.
+     *
+     * @param oneBasedIndex the task's position
+     * @return the task
+     */
     public Task get(int oneBasedIndex) {
-        int i = oneBasedIndex - 1;
-        return tasks.get(i);
+        if (recording == Thread.currentThread()) {
+            int seg = locate(oneBasedIndex - 1);
+            return segments.get(seg).tasks().get(oneBasedIndex - 1 - startOf(seg));
+        }
+        long stamp = lock.tryOptimisticRead();
+        Task t = peek(oneBasedIndex - 1);
+        if (t != null && lock.validate(stamp)) return t;
+        stamp = lock.readLock();
+        try {
+            t = peek(oneBasedIndex - 1);
+            if (t != null) return t;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+        stamp = lock.writeLock();
+        try {
+            int seg = locate(oneBasedIndex - 1);
+            return segments.get(seg).tasks().get(oneBasedIndex - 1 - startOf(seg));
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Reads zero-based position {@code i} without changing any state, so it is
+     * safe under a read lock or an optimistic read that is validated afterwards.
+     *
+     * @return the task, or {@code null} if the read needs the write lock, is out
+     *         of range, or ran into a write in progress
+     */
+    private Task peek(int i) {
+        try {
+            if (isIndexStale || i < 0 || i >= size) return null;
+            int seg = descend(i);
+            List<Task> tasks = segments.get(seg).tasks;
+            return tasks == null ? null : tasks.get(i - startOf(seg));
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Copies the list as it is at one moment. Tasks added, deleted or moved
+     * later do not show in the copy, so it can be read by any number of
+     * threads while writes go on; a later mark may show, as the copy shares
+     * task objects with the list. The copy is kept and handed out again until
+     * the next change.
+     *
+     * @return an unmodifiable list of the tasks in order
+     */
+    public List<Task> snapshot() {
+        List<Task> copy = published;
+        if (copy != null) return copy;
+        return query(canBuild -> !canBuild && published == null && !isAllLoaded() ? null : publish());
+    }
+
+    /** @return the published copy, made first if there is none; reading segments needs the write lock */
+    private List<Task> publish() {
+        if (published != null) return published;
+        List<Task> tasks = new ArrayList<>(size);
+        for (Segment s : segments) tasks.addAll(s.tasks());
+        published = Collections.unmodifiableList(tasks);
+        return published;
+    }
+
+    /**
+     * A read that may first need state only a writer may change, such as a
+     * segment still in storage, a stale Fenwick index or an index built on
+     * first use.
+     */
+    @FunctionalInterface
+    private interface Query<T> {
+        /**
+         * @param canBuild true if the write lock is held, so missing state may be built
+         * @return the result, or {@code null} if state must be built first and {@code canBuild} is false
+         */
+        T run(boolean canBuild);
+    }
+
+    /**
+     * Runs a query under the read lock. If it reports that it has to build
+     * something first, the lock is converted to the write lock, or released
+     * and the write lock taken, and the query is run again.
+     */
+    private <T> T query(Query<T> q) {
+        long stamp = lock.readLock();
+        try {
+            T result = q.run(false);
+            if (result != null) return result;
+            stamp = toWriteLock(stamp);
+            return q.run(true);
+        } finally {
+            lock.unlock(stamp);
+        }
+    }
+
+    /** Converts a read stamp to a write stamp, or releases it and waits for the write lock. */
+    private long toWriteLock(long readStamp) {
+        long stamp = lock.tryConvertToWriteLock(readStamp);
+        if (stamp != 0L) return stamp;
+        lock.unlockRead(readStamp);
+        return lock.writeLock();
+    }
+
+    /** @return true if no segment is still waiting to be read from storage */
+    private boolean isAllLoaded() {
+        for (Segment s : segments) {
+            if (s.tasks == null) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Finds a task by its stable id. The id map leads straight to the task's
+     * segment, and the segment's offset map to the task.
+     *
+     * @param id the task id
+     * @return the task's 1-based position, or -1 if no task has that id
+     */
+    public int positionOf(long id) {
+        return query(canBuild -> find(id, canBuild));
+    }
+
+    /** @return the 1-based position of the task with {@code id}, -1 if none, or {@code null} to retry with the write lock */
+    private Integer find(long id, boolean canBuild) {
+        if (id <= 0) return -1;
+        Segment s = ids.get(id);
+        if (s == null && !isAllLoaded()) {
+            if (!canBuild) return null;
+            loadAll();
+            s = ids.get(id);
+        }
+        if (s == null) return -1;
+        if (isIndexStale) {
+            if (!canBuild) return null;
+            rebuildIndex();
+        }
+        int offset = s.offsetOf(id);
+        return offset < 0 ? -1 : startOf(s.ordinal) + offset + 1;
+    }
+
+    /**
+     * Reads up to {@code limit} tasks from a position on. Only the segments
+     * the page falls in are visited, so the cost is in proportion to the page,
+     * not the list.
+     *
+     * @param oneBasedStart the position of the first task to read, at least 1
+     * @param limit         the most tasks to read, at least 1
+     * @return the page, empty if {@code oneBasedStart} is past the end
+     */
+    public TaskPage page(int oneBasedStart, int limit) {
+        if (oneBasedStart < 1 || limit < 1) {
+            throw new IllegalArgumentException("Page start and size must be at least 1");
+        }
+        return query(canBuild -> read(oneBasedStart - 1, limit, canBuild));
+    }
+
+    /**
+     * Reads the page after one read earlier, with the same size. The page
+     * starts just after the earlier page's last task wherever that task is now,
+     * so tasks added or deleted in between do not make the pages skip or
+     * repeat tasks; if that task has been deleted, it starts at the position
+     * after the earlier page.
+     *
+     * @param previous a page read from this list
+     * @return the next page, empty if there are no more tasks
+     */
+    public TaskPage nextPage(TaskPage previous) {
+        return query(canBuild -> {
+            Integer last = find(previous.lastId(), canBuild);
+            if (last == null) return null;
+            return read(last > 0 ? last : previous.last(), previous.limit(), canBuild);
+        });
+    }
+
+    /** @return the page from zero-based {@code start}, or {@code null} to retry with the write lock */
+    private TaskPage read(int start, int limit, boolean canBuild) {
+        if (isIndexStale) {
+            if (!canBuild) return null;
+            rebuildIndex();
+        }
+        List<Task> tasks = new ArrayList<>(Math.max(0, Math.min(limit, size - start)));
+        if (start < size) {
+            int seg = locate(start);
+            int offset = start - startOf(seg);
+            for (; seg < segments.size() && tasks.size() < limit; seg++, offset = 0) {
+                Segment s = segments.get(seg);
+                if (s.tasks == null && !canBuild) return null;
+                List<Task> run = s.tasks();
+                tasks.addAll(run.subList(offset, Math.min(run.size(), offset + limit - tasks.size())));
+            }
+        }
+        return new TaskPage(Collections.unmodifiableList(tasks), start + 1, size, limit);
+    }
+
+    /**
+     * Finds the deadlines due and the events under way within a period.
+     *
+     * @param from the start of the period, inclusive
+     * @param to   the end of the period, inclusive
+     * @return the matching tasks, ordered by due date or start
+     */
+    public List<Task> occurringBetween(LocalDateTime from, LocalDateTime to) {
+        return query(canBuild -> {
+            if (eventTimes == null && !canBuild) return null;
+            ensureTimesIndexed();
+            List<Task> deadlines = byIds(deadlineTimes, epochSecond(from), epochSecond(to), canBuild);
+            List<Task> events = byIds(eventTimes, epochSecond(from), epochSecond(to), canBuild);
+            if (deadlines == null || events == null) return null;
+            List<Task> merged = new ArrayList<>(deadlines.size() + events.size());
+            int d = 0;
+            int e = 0;
+            while (d < deadlines.size() || e < events.size()) {
+                boolean isDeadlineFirst = e == events.size() || (d < deadlines.size()
+                        && !((Deadline) deadlines.get(d)).getBy().isAfter(((Event) events.get(e)).getFrom()));
+                merged.add(isDeadlineFirst ? deadlines.get(d++) : events.get(e++));
+            }
+            return merged;
+        });
+    }
+
+    /**
+     * Finds the other events whose time spans overlap an event's. Events that
+     * only touch, one ending as the other starts, do not overlap.
+     *
+     * @param event the event, which may or may not be in the list
+     * @return the overlapping events, ordered by start
+     */
+    public List<Event> clashesWith(Event event) {
+        return query(canBuild -> eventTimes == null && !canBuild ? null : clashesLocked(event, canBuild));
+    }
+
+    /**
+     * @return the events other than {@code event} overlapping it, or {@code null} if building the index
+     *         or reading a stored segment needs the write lock
+     */
+    private List<Event> clashesLocked(Event event, boolean canBuild) {
+        ensureTimesIndexed();
+        long from = epochSecond(event.getFrom());
+        long to = Math.max(from, epochSecond(event.getTo()));
+        List<Task> overlapping = byIds(eventTimes, from + 1, to - 1, canBuild);
+        if (overlapping == null) return null;
+        List<Event> clashes = new ArrayList<>();
+        for (Task t : overlapping) {
+            if (t.getId() != event.getId()) clashes.add((Event) t);
+        }
+        return clashes;
+    }
+
+    /**
+     * Builds the time indexes the first time they are needed; after that they
+     * are kept up to date. A segment still in storage is indexed from its
+     * stored dates where it can be, so it is only read once a query needs one
+     * of its tasks.
+     */
+    private void ensureTimesIndexed() {
+        if (eventTimes != null) return;
+        eventTimes = new IntervalIndex();
+        deadlineTimes = new IntervalIndex();
+        boolean isBuilt = false;
+        try {
+            for (Segment s : segments) {
+                if (s.tasks == null && s.dues != null && indexStoredTimes(s)) continue;
+                if (s.tasks == null || s.hasMissingIds) learnNextId();
+                for (Task t : s.tasks()) indexTimes(t);
+            }
+            isBuilt = true;
+        } finally {
+            if (!isBuilt) {
+                eventTimes = null;
+                deadlineTimes = null;
+                storedTimes = null;
+            }
+        }
+    }
+
+    /**
+     * Indexes the times of a segment still in storage from its stored dates.
+     *
+     * @return false, having indexed nothing, if a task has no id yet and so the segment must be read
+     */
+    private boolean indexStoredTimes(Segment s) {
+        List<Runnable> found = new ArrayList<>();
+        boolean[] hasMissingIds = {false};
+        s.dues.scan(0, s.count, (id, isDone, at, end) -> {
+            if (id == 0) {
+                hasMissingIds[0] = true;
+            } else {
+                found.add(() -> {
+                    indexTimes(id, at, end);
+                    storedTimes.put(id, s);
+                });
+            }
+        });
+        if (hasMissingIds[0]) return false;
+        if (storedTimes == null) storedTimes = new LongObjectMap<>();
+        for (Runnable index : found) index.run();
+        return true;
+    }
+
+    /** Adds a task that joined the list to every index built so far. */
+    private void indexed(Task t) {
+        indexTimes(t);
+        if (counts != null) counts.added(t);
+        if (terms != null) terms.add(t);
+        if (trigrams != null) trigrams.add(t);
+    }
+
+    /** Removes a task that left the list from every index built so far. */
+    private void unindexed(Task t) {
+        unindexTimes(t);
+        if (counts != null) counts.removed(t);
+        if (terms != null) terms.remove(t);
+        if (trigrams != null) trigrams.remove(t);
+    }
+
+    private void indexTimes(Task t) {
+        if (eventTimes == null) return;
+        if (t instanceof Event) {
+            Event e = (Event) t;
+            indexTimes(e.getId(), e.getFrom(), e.getTo());
+        } else if (t instanceof Deadline) {
+            indexTimes(t.getId(), ((Deadline) t).getBy(), null);
+        }
+    }
+
+    /** Indexes an event from {@code at} to {@code end}, or a deadline due {@code at} if {@code end} is null. */
+    private void indexTimes(long id, LocalDateTime at, LocalDateTime end) {
+        if (end != null) {
+            eventTimes.add(epochSecond(at), epochSecond(end), id);
+        } else {
+            long by = epochSecond(at);
+            deadlineTimes.add(by, by, id);
+        }
+    }
+
+    private void unindexTimes(Task t) {
+        if (eventTimes == null) return;
+        if (t instanceof Event) {
+            eventTimes.remove(epochSecond(((Event) t).getFrom()), t.getId());
+        } else if (t instanceof Deadline) {
+            deadlineTimes.remove(epochSecond(((Deadline) t).getBy()), t.getId());
+        }
+    }
+
+    /**
+     * Finds the tasks whose descriptions contain a piece of text, ignoring
+     * case. An index narrows the search to the tasks that can match, so only
+     * those are checked: a {@link TrigramIndex} for text of three characters
+     * or more, and a {@link TermIndex} over description words for shorter text.
+     *
+     * @param query the text to look for, not blank
+     * @return the matching tasks, in list order
+     */
+    public List<Task> find(String query) {
+        String q = query.trim().toLowerCase();
+        return query(canBuild -> {
+            if (q.length() >= TrigramIndex.MIN_QUERY_LENGTH) {
+                if ((trigrams == null || isIndexStale) && !canBuild) return null;
+                if (trigrams == null) {
+                    trigrams = new TrigramIndex();
+                    for (Task t : loadedForIndexing()) trigrams.add(t);
+                }
+                return inOrder(trigrams.candidates(q), d -> d.contains(q));
+            }
+            if ((terms == null || isIndexStale) && !canBuild) return null;
+            ensureTermsIndexed();
+            return inOrder(terms.candidates(q), d -> d.contains(q));
+        });
+    }
+
+    /**
+     * Finds the tasks whose descriptions have, for every word of a query, a
+     * word within an edit distance of it, ignoring case; e.g. "raed book" is
+     * within 2 of "read book". The words are looked up in a BK-tree of every
+     * description word, so the search does not scan the list or the words.
+     *
+     * @param query       the words to look for, not blank
+     * @param maxDistance the most insertions, deletions and substitutions allowed per word
+     * @return the matching tasks, in list order
+     */
+    public List<Task> findSimilar(String query, int maxDistance) {
+        String q = query.trim().toLowerCase();
+        return query(canBuild -> {
+            if ((terms == null || isIndexStale) && !canBuild) return null;
+            ensureTermsIndexed();
+            return inOrder(terms.similar(q, maxDistance), d -> true);
+        });
+    }
+
+    private void ensureTermsIndexed() {
+        if (terms != null) return;
+        terms = new TermIndex();
+        for (Task t : loadedForIndexing()) terms.add(t);
+    }
+
+    /** Loads every segment and makes sure every task has its id, for building an index. */
+    private List<Task> loadedForIndexing() {
+        learnNextId();
+        loadAll();
+        List<Task> tasks = new ArrayList<>(size);
+        for (Segment s : segments) tasks.addAll(s.tasks);
+        return tasks;
+    }
+
+    /**
+     * @return the tasks with the given ids whose lowercased descriptions pass {@code keep}, in list order;
+     *         ids no longer in the list are skipped, as in {@link #taskIn}
+     */
+    private List<Task> inOrder(long[] candidates, Predicate<String> keep) {
+        if (isIndexStale) rebuildIndex();
+        List<Task> found = new ArrayList<>();
+        long[] keys = new long[candidates.length];
+        for (long id : candidates) {
+            Segment s = ids.get(id);
+            int offset = s == null ? -1 : s.offsetOf(id);
+            if (offset < 0) continue;
+            Task t = s.tasks.get(offset);
+            String d = t.getDescription();
+            if (d == null || !keep.test(d.toLowerCase())) continue;
+            keys[found.size()] = (long) (startOf(s.ordinal) + offset) << 32 | found.size();
+            found.add(t);
+        }
+        Arrays.sort(keys, 0, found.size());
+        List<Task> ordered = new ArrayList<>(found.size());
+        for (int i = 0; i < found.size(); i++) ordered.add(found.get((int) keys[i]));
+        return ordered;
+    }
+
+    /**
+     * Reads the dates of the deadlines and events among stored tasks, without
+     * creating the tasks.
+     */
+    @FunctionalInterface
+    public interface DueScan {
+        /**
+         * @param from the position of the first task to read, zero-based
+         * @param to   the position after the last
+         * @param out  receives the dates of each deadline and event
+         */
+        void scan(int from, int to, DateSink out);
+    }
+
+    /** Receives the dates of a stored deadline or event, from a {@link DueScan}. */
+    @FunctionalInterface
+    public interface DateSink {
+        /**
+         * @param id     the task's id, or 0 if it has none yet
+         * @param isDone whether the task is done
+         * @param at     a deadline's due date or an event's start
+         * @param end    an event's end, or {@code null} for a deadline
+         */
+        void accept(long id, boolean isDone, LocalDateTime at, LocalDateTime end);
+    }
+
+    /** Receives a deadline or event that is not done, from {@link #forEachDue}. */
+    @FunctionalInterface
+    public interface DueSink {
+        /**
+         * @param id   the task's id
+         * @param at   a deadline's due date or an event's start
+         * @param task gets the task as it is when called, or {@code null} once it has been deleted
+         */
+        void accept(long id, LocalDateTime at, Supplier<Task> task);
+    }
+
+    /**
+     * Reports every deadline and event that is not done, e.g. to schedule
+     * reminders. The dates of a segment still in storage are read without
+     * creating its tasks, where the storage can do that; the task itself is
+     * only read when {@code out}'s supplier is called. The tasks are reported
+     * after the lock is released, so {@code out} may take locks of its own.
+     *
+     * @param out receives each deadline and event
+     */
+    public void forEachDue(DueSink out) {
+        for (Runnable report : query(canBuild -> collectDue(out, canBuild))) report.run();
+    }
+
+    /** @return a report for each deadline and event not done, or {@code null} to retry with the write lock */
+    private List<Runnable> collectDue(DueSink out, boolean canBuild) {
+        List<Runnable> found = new ArrayList<>();
+        for (Segment s : segments) {
+            if (s.tasks == null && s.dues != null) {
+                int before = found.size();
+                boolean[] hasMissingIds = {false};
+                s.dues.scan(0, s.count, (id, isDone, at, end) -> {
+                    if (id == 0) {
+                        hasMissingIds[0] = true;
+                    } else if (!isDone) {
+                        found.add(() -> out.accept(id, at, () -> taskIn(s, id)));
+                    }
+                });
+                if (!hasMissingIds[0]) continue;
+                found.subList(before, found.size()).clear();
+            }
+            if (s.tasks == null && !canBuild) return null;
+            for (Task t : s.tasks()) {
+                LocalDateTime at = dueOf(t);
+                long id = t.getId();
+                if (at == null || id == 0 || t.isDone()) continue;
+                found.add(() -> out.accept(id, at, () -> taskIn(s, id)));
+            }
+        }
+        return found;
+    }
+
+    /** @return a deadline's due date, an event's start, or {@code null} for other tasks */
+    private static LocalDateTime dueOf(Task t) {
+        if (t instanceof Deadline) return ((Deadline) t).getBy();
+        if (t instanceof Event) return ((Event) t).getFrom();
+        return null;
+    }
+
+    /**
+     * Gets a task by id, first reading the segment it was reported from if
+     * that is still in storage; the task may have moved on since.
+     *
+     * @return the task, or {@code null} if it has been deleted
+     */
+    private Task taskIn(Segment home, long id) {
+        long stamp = lock.readLock();
+        try {
+            if (home.tasks == null) {
+                stamp = toWriteLock(stamp);
+                home.tasks();
+            }
+            Segment s = ids.get(id);
+            int offset = s == null ? -1 : s.offsetOf(id);
+            return offset < 0 ? null : s.tasks.get(offset);
+        } finally {
+            lock.unlock(stamp);
+        }
+    }
+
+    /**
+     * Counts the tasks by type and status. The counts are kept up to date as
+     * the list changes, so after the first call this does not scan the list.
+     *
+     * @param now the time before which an unfinished deadline is overdue
+     * @return the counts
+     */
+    public TaskStats stats(LocalDateTime now) {
+        return query(canBuild -> {
+            if (counts == null) {
+                if (!canBuild) return null;
+                learnNextId();
+                loadAll();
+                counts = new TaskCounts();
+                for (Segment s : segments) {
+                    for (Task t : s.tasks) counts.added(t);
+                }
+            }
+            return counts.snapshot(epochSecond(now));
+        });
+    }
+
+    /**
+     * @return the tasks whose intervals in {@code times} overlap {@code [lo, hi]}, looked up by id,
+     *         first reading any stored segment one of them is in; {@code null} if that needs the
+     *         write lock. Ids no longer in the list are skipped, as in {@link #taskIn}
+     */
+    private List<Task> byIds(IntervalIndex times, long lo, long hi, boolean canBuild) {
+        if (storedTimes != null && storedTimes.size() > 0) {
+            List<Segment> unread = new ArrayList<>();
+            times.overlapping(lo, hi, id -> {
+                Segment home = ids.get(id) == null ? storedTimes.get(id) : null;
+                if (home != null && home.tasks == null && !unread.contains(home)) unread.add(home);
+            });
+            if (!unread.isEmpty() && !canBuild) return null;
+            for (Segment home : unread) home.tasks();
+        }
+        List<Task> found = new ArrayList<>();
+        times.overlapping(lo, hi, id -> {
+            Segment s = ids.get(id);
+            int offset = s == null ? -1 : s.offsetOf(id);
+            if (offset >= 0) found.add(s.tasks.get(offset));
+        });
+        return found;
+    }
+
+    static long epochSecond(LocalDateTime dt) {
+        return dt.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    /** @return the id of the task at {@code i}, without building a columnar segment's view of it */
+    private static long idAt(List<Task> tasks, int i) {
+        if (tasks instanceof ColumnarTaskList) return ((ColumnarTaskList) tasks).idAt(i);
+        return tasks.get(i).getId();
+    }
+
+    /** Records that task {@code t}, which has an id, now lives in segment {@code s}. */
+    private void track(Task t, Segment s) {
+        ids.put(t.getId(), s);
+        if (t.getId() >= nextId) nextId = t.getId() + 1;
+    }
+
+    /**
+     * Adds a segment that has just been put in memory to the id map. Tasks
+     * without an id, e.g. from a file written before ids existed, are given
+     * one and the segment is marked changed so that the ids get saved.
+     */
+    private void register(Segment s) {
+        for (Task t : s.tasks) {
+            if (t.getId() == 0) {
+                s.hasMissingIds = true;
+            } else {
+                track(t, s);
+                if (storedTimes != null) storedTimes.remove(t.getId());
+            }
+        }
+        if (!s.hasMissingIds || isDeferringIds) return;
+        learnNextId();
+        if (s.hasMissingIds) assignMissingIds(s);
+    }
+
+    private void assignMissingIds(Segment s) {
+        List<Task> tasks = s.tasks;
+        for (int i = 0; i < tasks.size(); i++) {
+            Task t = tasks.get(i);
+            if (t.getId() != 0) continue;
+            t.setId(nextId++);
+            tasks.set(i, t);
+            ids.put(t.getId(), s);
+        }
+        s.hasMissingIds = false;
+        s.shifted();
+        version.incrementAndGet();
+    }
+
+    /** @return an id no task in the list has ever had */
+    private long newId() {
+        learnNextId();
+        return nextId++;
+    }
+
+    /** Reads any stored segment that might hold a higher id than the ones seen so far. */
+    private void learnNextId() {
+        if (isNextIdKnown) return;
+        isDeferringIds = true;
+        try {
+            loadAll();
+        } finally {
+            isDeferringIds = false;
+        }
+        isNextIdKnown = true;
+        for (Segment s : segments) {
+            if (s.hasMissingIds) assignMissingIds(s);
+        }
+    }
+
+    /** @return true if any stored segment had to be read */
+    private boolean loadAll() {
+        boolean isAnyLoaded = false;
+        for (Segment s : segments) {
+            if (s.tasks != null) continue;
+            s.tasks();
+            isAnyLoaded = true;
+        }
+        return isAnyLoaded;
+    }
+
+    /**
+     * Marks the task at the given position as done or not done.
+     *
+     * @param oneBasedIndex the task's position
+     * @param done          the new status
+     * @return the change, with the task's status before it
+     */
+    public TaskChange mark(int oneBasedIndex, boolean done) {
+        long stamp = lock.writeLock();
+        try {
+            return marked(oneBasedIndex, done);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Marks a task as done or not done by its stable id, finding and marking
+     * it in one step.
+     *
+     * @param id   the task id
+     * @param done the new status
+     * @return the change, or {@code null} if no task has that id
+     */
+    public TaskChange markById(long id, boolean done) {
+        long stamp = lock.writeLock();
+        try {
+            int idx = find(id, true);
+            return idx < 0 ? null : marked(idx, done);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private TaskChange marked(int oneBasedIndex, boolean done) {
+        int seg = locate(oneBasedIndex - 1);
+        Segment s = segments.get(seg);
+        int pos = oneBasedIndex - 1 - startOf(seg);
+        Task t = s.tasks().get(pos);
+        boolean wasDone = t.isDone();
+        if (done) {
+            t.markDone();
+        } else {
+            t.markUndone();
+        }
+        if (counts != null) counts.marked(t, wasDone);
+        s.tasks().set(pos, t);
+        s.changed();
+        version.incrementAndGet();
+        published = null;
+        boolean isRecorded = record(r -> r.marked(oneBasedIndex, done));
+        return new TaskChange(List.of(t), new int[]{oneBasedIndex}, new boolean[]{wasDone},
+                Collections.emptyList(), isRecorded, size);
+    }
+
+    /**
+     * Marks the tasks at several positions as done or not done in one pass
+     * over the list.
+     *
+     * @param oneBasedIndexes the positions, ascending and without repeats
+     * @param done            the new status
+     * @return the change, with each task's status before it
+     */
+    public TaskChange markAll(int[] oneBasedIndexes, boolean done) {
+        long stamp = lock.writeLock();
+        try {
+            return markedAll(oneBasedIndexes, done);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Marks the tasks that pass a test as done or not done, choosing and
+     * marking them in one step.
+     *
+     * @param which picks the tasks to mark
+     * @param done  the new status
+     * @return the change; it has no tasks if none passed
+     */
+    public TaskChange markWhere(Predicate<Task> which, boolean done) {
+        long stamp = lock.writeLock();
+        try {
+            return markedAll(select(which), done);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private TaskChange markedAll(int[] oneBasedIndexes, boolean done) {
+        checkSelection(oneBasedIndexes);
+        List<Task> marked = new ArrayList<>(oneBasedIndexes.length);
+        boolean[] wereDone = new boolean[oneBasedIndexes.length];
+        int k = 0;
+        int start = 0;
+        for (int seg = 0; seg < segments.size() && k < oneBasedIndexes.length; seg++) {
+            Segment s = segments.get(seg);
+            int end = start + s.size();
+            if (oneBasedIndexes[k] <= end) {
+                List<Task> tasks = s.tasks();
+                for (; k < oneBasedIndexes.length && oneBasedIndexes[k] <= end; k++) {
+                    int pos = oneBasedIndexes[k] - 1 - start;
+                    Task t = tasks.get(pos);
+                    boolean wasDone = t.isDone();
+                    if (done) {
+                        t.markDone();
+                    } else {
+                        t.markUndone();
+                    }
+                    if (counts != null) counts.marked(t, wasDone);
+                    tasks.set(pos, t);
+                    wereDone[marked.size()] = wasDone;
+                    marked.add(t);
+                }
+                s.changed();
+            }
+            start = end;
+        }
+        boolean isRecorded = true;
+        if (!marked.isEmpty()) {
+            version.incrementAndGet();
+            published = null;
+            isRecorded = record(r -> r.markedAll(oneBasedIndexes, done));
+        }
+        return new TaskChange(marked, oneBasedIndexes.clone(), wereDone, Collections.emptyList(), isRecorded, size);
+    }
+
+    /**
+     * Deletes the tasks at several positions. Each segment involved is
+     * compacted in a single sweep, and the index is rebuilt once at the end.
+     *
+     * @param oneBasedIndexes the positions before the delete, ascending and without repeats
+     * @return the change, with the deleted tasks in order
+     */
+    public TaskChange deleteAll(int[] oneBasedIndexes) {
+        long stamp = lock.writeLock();
+        try {
+            return deletedAll(oneBasedIndexes);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Deletes the tasks that pass a test, choosing and deleting them in one step.
+     *
+     * @param which picks the tasks to delete
+     * @return the change; it has no tasks if none passed
+     */
+    public TaskChange deleteWhere(Predicate<Task> which) {
+        long stamp = lock.writeLock();
+        try {
+            return deletedAll(select(which));
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /** @return the ascending 1-based positions of the tasks that pass {@code which}, loading every segment */
+    private int[] select(Predicate<Task> which) {
+        int[] picked = new int[size];
+        int count = 0;
+        int position = 0;
+        for (Segment s : segments) {
+            for (Task t : s.tasks()) {
+                position++;
+                if (which.test(t)) picked[count++] = position;
+            }
+        }
+        return Arrays.copyOf(picked, count);
+    }
+
+    private TaskChange deletedAll(int[] oneBasedIndexes) {
+        checkSelection(oneBasedIndexes);
+        List<Task> removed = new ArrayList<>(oneBasedIndexes.length);
+        int[] local = new int[Math.min(oneBasedIndexes.length, SEGMENT_CAPACITY * 2)];
+        int k = 0;
+        int start = 0;
+        for (int seg = 0; seg < segments.size() && k < oneBasedIndexes.length; seg++) {
+            Segment s = segments.get(seg);
+            int end = start + s.size();
+            int count = 0;
+            for (; k < oneBasedIndexes.length && oneBasedIndexes[k] <= end; k++) {
+                if (count == local.length) local = Arrays.copyOf(local, count * 2);
+                local[count++] = oneBasedIndexes[k] - 1 - start;
+            }
+            if (count > 0) {
+                int before = removed.size();
+                removeAt(s.tasks(), local, count, removed);
+                for (Task t : removed.subList(before, removed.size())) {
+                    if (t.getId() != 0) ids.remove(t.getId());
+                    unindexed(t);
+                }
+                s.shifted();
+            }
+            start = end;
+        }
+        boolean[] wereDone = new boolean[removed.size()];
+        for (int i = 0; i < wereDone.length; i++) wereDone[i] = removed.get(i).isDone();
+        if (removed.isEmpty()) {
+            return new TaskChange(removed, new int[0], wereDone, Collections.emptyList(), true, size);
+        }
+        segments.removeIf(s -> s.size() == 0);
+        for (int seg = 0; seg + 1 < segments.size(); ) {
+            if (segments.get(seg).size() < MERGE_THRESHOLD && mergeWithNext(seg)) continue;
+            seg++;
+        }
+        size -= removed.size();
+        isIndexStale = true;
+        version.incrementAndGet();
+        published = null;
+        boolean isRecorded = record(r -> r.deletedAll(oneBasedIndexes));
+        return new TaskChange(removed, oneBasedIndexes.clone(), wereDone, Collections.emptyList(), isRecorded, size);
+    }
+
+    /** Removes the tasks at ascending indexes {@code local[0..count)}, adding them to {@code removed}. */
+    private static void removeAt(List<Task> tasks, int[] local, int count, List<Task> removed) {
+        if (tasks instanceof ColumnarTaskList) {
+            for (int j = 0; j < count; j++) removed.add(tasks.get(local[j]));
+            ((ColumnarTaskList) tasks).removeSorted(local, count);
+            return;
+        }
+        int w = local[0];
+        int k = 0;
+        for (int r = local[0]; r < tasks.size(); r++) {
+            if (k < count && r == local[k]) {
+                removed.add(tasks.get(r));
+                k++;
+            } else {
+                tasks.set(w++, tasks.get(r));
+            }
+        }
+        tasks.subList(w, tasks.size()).clear();
+    }
+
+    /** Checks that positions are ascending, without repeats, and within the list. */
+    private void checkSelection(int[] oneBasedIndexes) {
+        int previous = 0;
+        for (int idx : oneBasedIndexes) {
+            if (idx <= previous || idx > size) {
+                throw new IndexOutOfBoundsException("Index: " + idx + ", Size: " + size);
+            }
+            previous = idx;
+        }
+    }
+
+    /** Moves the second half of an overfull segment into a new segment after it. */
+    private void split(int seg) {
+        Segment s = segments.get(seg);
+        List<Task> tasks = s.tasks();
+        List<Task> tail = tasks.subList(tasks.size() / 2, tasks.size());
+        List<Task> moved = storage.get();
+        moved.addAll(tail);
+        tail.clear();
+        s.shifted();
+        Segment right = new Segment(moved);
+        right.owner = this;
+        right.hasMissingIds = s.hasMissingIds;
+        for (Task t : moved) {
+            if (t.getId() != 0) ids.put(t.getId(), right);
+        }
+        segments.add(seg + 1, right);
+        isIndexStale = true;
+    }
+
+    /**
+     * Appends the segment after {@code seg} to it if both are in memory and
+     * together still small. Stored segments are left alone so that a delete
+     * does not read a neighbour from disk.
+     *
+     * @return true if the segments were merged
+     */
+    private boolean mergeWithNext(int seg) {
+        if (seg < 0 || seg + 1 >= segments.size()) return false;
+        Segment s = segments.get(seg);
+        Segment next = segments.get(seg + 1);
+        if (s.tasks == null || next.tasks == null || s.size() + next.size() > SEGMENT_CAPACITY / 2) return false;
+        for (Task t : next.tasks) {
+            if (t.getId() != 0) ids.put(t.getId(), s);
+        }
+        s.tasks.addAll(next.tasks);
+        s.hasMissingIds |= next.hasMissingIds;
+        s.shifted();
+        segments.remove(seg + 1);
+        return true;
+    }
+
+    /** @return the index of the segment holding zero-based position {@code i} */
+    private int locate(int i) {
+        if (i < 0 || i >= size) throw new IndexOutOfBoundsException("Index: " + (i + 1) + ", Size: " + size);
+        if (isIndexStale) rebuildIndex();
+        return descend(i);
+    }
+
+    /** Walks the Fenwick tree down to the segment holding position {@code i}; the index must be current. */
+    private int descend(int i) {
+        int seg = 0;
+        int remaining = i;
+        for (int step = Integer.highestOneBit(segments.size()); step > 0; step >>= 1) {
+            int next = seg + step;
+            if (next <= segments.size() && index[next] <= remaining) {
+                seg = next;
+                remaining -= index[next];
+            }
+        }
+        return seg;
+    }
+
+    /** @return the zero-based position of the first task in segment {@code seg}; the index must be current */
+    private int startOf(int seg) {
+        int start = 0;
+        for (int k = seg; k > 0; k -= k & -k) start += index[k];
+        return start;
+    }
+
+    /** Records that segment {@code seg} grew or shrank by {@code delta} tasks. */
+    private void resized(int seg, int delta) {
+        if (isIndexStale) return;
+        for (int k = seg + 1; k <= segments.size(); k += k & -k) index[k] += delta;
+    }
+
+    private void rebuildIndex() {
+        int n = segments.size();
+        if (index.length < n + 1) index = new int[Math.max(16, n * 2) + 1];
+        Arrays.fill(index, 0, n + 1, 0);
+        for (int k = 1; k <= n; k++) {
+            segments.get(k - 1).ordinal = k - 1;
+            index[k] += segments.get(k - 1).size();
+            int parent = k + (k & -k);
+            if (parent <= n) index[parent] += index[k];
+        }
+        isIndexStale = false;
+    }
+
+    /**
+     * Returns the id the next task added will get. Saved with the list and
+     * handed to {@link #reserveIds} on load, it keeps the ids of tasks deleted
+     * before the save from being handed out again.
+     *
+     * @return the next id, or 0 if stored segments would have to be read to know it
+     */
+    public long nextId() {
+        if (recording == Thread.currentThread()) return knownNextId();
+        long stamp = lock.readLock();
+        try {
+            return knownNextId();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private long knownNextId() {
+        return isNextIdKnown ? nextId : 0;
+    }
+
+    /**
+     * Makes sure no task added from now on gets an id below {@code nextId},
+     * e.g. one a task deleted before the list was saved had.
+     *
+     * @param nextId a {@link #nextId()} saved earlier, or 0 if none was
+     */
+    public void reserveIds(long nextId) {
+        long stamp = lock.writeLock();
+        try {
+            this.nextId = Math.max(this.nextId, nextId);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
     }
 
     public int size() {
-        return tasks.size();
+        if (recording == Thread.currentThread()) return size;
+        long stamp = lock.tryOptimisticRead();
+        int n = size;
+        if (lock.validate(stamp)) return n;
+        stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
     }
 
+    /**
+     * Returns a live, read-only view of the list. Each access reads the current
+     * list, so a traversal that overlaps writes can see positions shift; use
+     * {@link #snapshot()} for a consistent traversal.
+     */
     public List<Task> asList() {
-        return Collections.unmodifiableList(tasks);
+        return new View();
+    }
+
+    /** @return true if the list has changed since it was loaded or last saved */
+    public boolean isDirty() {
+        return version.get() != savedVersion;
+    }
+
+    /** Marks the list as changed, e.g. after a task obtained from {@link #get} was edited. */
+    public void markDirty() {
+        version.incrementAndGet();
+    }
+
+    /**
+     * Returns a counter that moves on with every change. A save reads it along
+     * with the tasks it writes and hands it to {@link #markSaved} once written.
+     */
+    public long version() {
+        return version.get();
+    }
+
+    /**
+     * Marks the list as saved as of {@code version}. Changes made after that
+     * version was read keep the list dirty.
+     *
+     * @param version what {@link #version()} returned when the saved copy was taken
+     */
+    public void markSaved(long version) {
+        savedVersion = version;
+    }
+
+    /**
+     * Captures the segment layout for a segmented save. Tasks are copied only
+     * for segments that changed since they were last saved.
+     *
+     * @return one state per segment, in order
+     */
+    public List<SegmentState> segmentStates() {
+        long stamp = lock.writeLock();
+        try {
+            return captureSegments();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private List<SegmentState> captureSegments() {
+        List<SegmentState> states = new ArrayList<>(segments.size());
+        for (Segment s : segments) {
+            List<Task> copy = s.isDirty ? new ArrayList<>(s.tasks()) : null;
+            long maxTaskId = s.maxTaskId;
+            if (copy != null) {
+                maxTaskId = 0;
+                for (Task t : copy) {
+                    if (t.getId() == 0) {
+                        maxTaskId = -1;
+                        break;
+                    }
+                    maxTaskId = Math.max(maxTaskId, t.getId());
+                }
+            }
+            states.add(new SegmentState(s, s.fileId, s.size(), s.version, maxTaskId, copy));
+        }
+        return states;
+    }
+
+    /**
+     * Copies the list for a save, together with how far the {@link Recorder}
+     * had got. Both are read under the write lock every change is made and
+     * recorded under, so the copy holds exactly the changes recorded up to
+     * {@code recorded}.
+     *
+     * @param bySegment true to capture {@link #segmentStates()}, false for a {@link #snapshot()}
+     * @param recorded  reads how far the recorder has got, e.g. a journal's last sequence number
+     * @return the copy
+     */
+    public Capture capture(boolean bySegment, LongSupplier recorded) {
+        long stamp = lock.writeLock();
+        try {
+            return new Capture(bySegment ? null : publish(), bySegment ? captureSegments() : null,
+                    version.get(), recorded.getAsLong(), knownNextId());
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /** A copy of the list taken by {@link #capture}. */
+    public static final class Capture {
+        private final List<Task> tasks;
+        private final List<SegmentState> segments;
+        private final long version;
+        private final long recorded;
+        private final long nextId;
+
+        private Capture(List<Task> tasks, List<SegmentState> segments, long version, long recorded, long nextId) {
+            this.tasks = tasks;
+            this.segments = segments;
+            this.version = version;
+            this.recorded = recorded;
+            this.nextId = nextId;
+        }
+
+        /** @return the tasks in order, or {@code null} if the capture is by segment */
+        public List<Task> tasks() {
+            return tasks;
+        }
+
+        /** @return the segment states, or {@code null} if the capture is of the tasks */
+        public List<SegmentState> segments() {
+            return segments;
+        }
+
+        /** @return the {@link TaskList#version()} the copy is of, for {@link TaskList#markSaved} */
+        public long version() {
+            return version;
+        }
+
+        /** @return how far the recorder had got */
+        public long recorded() {
+            return recorded;
+        }
+
+        /** @return the {@link TaskList#nextId()} as of the copy */
+        public long nextId() {
+            return nextId;
+        }
+    }
+
+    /**
+     * Records that the states captured by {@link #segmentStates()} were saved.
+     * A segment changed again since the capture stays dirty.
+     *
+     * @param states  the saved states
+     * @param fileIds the file each changed segment was written to, or -1 for unchanged ones
+     */
+    public void segmentsSaved(List<SegmentState> states, long[] fileIds) {
+        long stamp = lock.writeLock();
+        try {
+            for (int i = 0; i < states.size(); i++) {
+                SegmentState st = states.get(i);
+                if (fileIds[i] < 0) continue;
+                st.segment.fileId = fileIds[i];
+                st.segment.maxTaskId = st.maxTaskId;
+                if (st.segment.version == st.version) st.segment.isDirty = false;
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * A run of consecutive tasks stored and rewritten as a unit.
+     */
+    public static final class Segment {
+        private List<Task> tasks;
+        private Supplier<List<Task>> loader;
+        private TaskList owner;
+        private int count;
+        private long fileId = -1;
+        private boolean isDirty = true;
+        private int version;
+        /** Highest task id in the saved file, or -1 if unknown. */
+        private long maxTaskId = -1;
+        private boolean hasMissingIds;
+        /** Position in the owner's segment list as of the last index rebuild. */
+        private int ordinal;
+        /**
+         * Offset of each task by id; {@code null} until looked up, and again after
+         * tasks move. Volatile because readers holding only the read lock may build it.
+         */
+        private volatile LongIntMap offsets;
+        /** Reads the due dates of a segment still in storage, or {@code null} if it cannot. */
+        private DueScan dues;
+
+        private Segment(List<Task> tasks) {
+            this.tasks = tasks;
+            this.count = tasks.size();
+        }
+
+        /**
+         * Describes a segment already saved to a file, to be read on first use.
+         *
+         * @param fileId the file the segment was saved to
+         * @param count     how many tasks the file holds
+         * @param maxTaskId the highest task id in the file, or -1 if unknown
+         * @param loader    reads the file's tasks
+         * @return a clean, unloaded segment
+         */
+        public static Segment stored(long fileId, int count, long maxTaskId, Supplier<List<Task>> loader) {
+            return stored(fileId, count, maxTaskId, loader, null);
+        }
+
+        /**
+         * Describes a saved segment whose due dates can be read without reading its tasks.
+         *
+         * @param fileId    the file the segment was saved to
+         * @param count     how many tasks the file holds
+         * @param maxTaskId the highest task id in the file, or -1 if unknown
+         * @param loader    reads the file's tasks
+         * @param dues      reads the file's due dates by position, or {@code null}
+         * @return a clean, unloaded segment
+         */
+        public static Segment stored(long fileId, int count, long maxTaskId, Supplier<List<Task>> loader,
+                DueScan dues) {
+            Segment s = new Segment(Collections.emptyList());
+            s.tasks = null;
+            s.loader = loader;
+            s.count = count;
+            s.fileId = fileId;
+            s.isDirty = false;
+            s.maxTaskId = maxTaskId;
+            s.dues = dues;
+            return s;
+        }
+
+        private List<Task> tasks() {
+            if (tasks == null) {
+                tasks = owner.storage.get();
+                tasks.addAll(loader.get());
+                loader = null;
+                dues = null;
+                count = tasks.size();
+                owner.register(this);
+            }
+            return tasks;
+        }
+
+        /** Records a change that moved no task within the segment, e.g. a mark. */
+        private void changed() {
+            count = tasks.size();
+            isDirty = true;
+            version++;
+        }
+
+        /** Records a change that may have moved tasks, so their offsets are looked up afresh. */
+        private void shifted() {
+            changed();
+            offsets = null;
+        }
+
+        /** Records a task added at the end, which moves no other task. */
+        private void appended(Task t) {
+            changed();
+            LongIntMap map = offsets;
+            if (map != null) map.put(t.getId(), count - 1);
+        }
+
+        /**
+         * Finds a task of this loaded segment by id. The offsets are indexed on
+         * the first lookup after tasks moved, so a run of lookups costs one pass
+         * over the segment rather than one per lookup. Readers that race to build
+         * the map each build a complete one, and only a complete one is published.
+         *
+         * @return the task's offset in the segment, or -1 if it is not here
+         */
+        private int offsetOf(long id) {
+            LongIntMap map = offsets;
+            if (map == null) {
+                map = new LongIntMap(tasks.size());
+                for (int i = 0; i < tasks.size(); i++) {
+                    long taskId = idAt(tasks, i);
+                    if (taskId != 0) map.put(taskId, i);
+                }
+                offsets = map;
+            }
+            return map.get(id);
+        }
+
+        private int size() {
+            return count;
+        }
+    }
+
+    /**
+     * A segment as it was at the moment of {@link #segmentStates()}.
+     */
+    public static final class SegmentState {
+        private final Segment segment;
+        private final long fileId;
+        private final int count;
+        private final int version;
+        private final long maxTaskId;
+        private final List<Task> tasks;
+
+        private SegmentState(Segment segment, long fileId, int count, int version, long maxTaskId,
+                List<Task> tasks) {
+            this.segment = segment;
+            this.fileId = fileId;
+            this.count = count;
+            this.version = version;
+            this.maxTaskId = maxTaskId;
+            this.tasks = tasks;
+        }
+
+        /** @return the file the segment was last saved to, or -1 if never saved */
+        public long fileId() {
+            return fileId;
+        }
+
+        /** @return the number of tasks in the segment */
+        public int count() {
+            return count;
+        }
+
+        /** @return the highest task id in the segment, or -1 if unknown */
+        public long maxTaskId() {
+            return maxTaskId;
+        }
+
+        /** @return true if the segment must be written out */
+        public boolean needsWrite() {
+            return tasks != null;
+        }
+
+        /** @return a copy of the segment's tasks, or {@code null} if it is unchanged */
+        public List<Task> tasks() {
+            return tasks;
+        }
+    }
+
+    /** Read-only positional view over all segments. */
+    private final class View extends AbstractList<Task> implements RandomAccess {
+        @Override
+        public Task get(int index) {
+            return TaskList.this.get(index + 1);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
     }
 }
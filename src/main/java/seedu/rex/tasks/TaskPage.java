@@ -0,0 +1,56 @@
+package seedu.rex.tasks;
+
+import java.util.List;
+
+/**
+ * A run of consecutive tasks read from a {@link TaskList}, and a cursor for
+ * reading the run after it with {@link TaskList#nextPage}.
+ */
+public final class TaskPage {
+    private final List<Task> tasks;
+    private final int first;
+    private final int total;
+    private final int limit;
+
+    TaskPage(List<Task> tasks, int first, int total, int limit) {
+        this.tasks = tasks;
+        this.first = first;
+        this.total = total;
+        this.limit = limit;
+    }
+
+    /** @return the tasks on this page, in order; unmodifiable */
+    public List<Task> tasks() {
+        return tasks;
+    }
+
+    /** @return the 1-based position of the first task on this page */
+    public int first() {
+        return first;
+    }
+
+    /** @return the 1-based position of the last task on this page, or {@code first() - 1} if it is empty */
+    public int last() {
+        return first + tasks.size() - 1;
+    }
+
+    /** @return the size of the list when the page was read */
+    public int total() {
+        return total;
+    }
+
+    /** @return the most tasks a page holds */
+    public int limit() {
+        return limit;
+    }
+
+    /** @return true if the list went on past this page when it was read */
+    public boolean hasMore() {
+        return last() < total;
+    }
+
+    /** @return the id of the last task on this page, or 0 if it is empty */
+    long lastId() {
+        return tasks.isEmpty() ? 0 : tasks.get(tasks.size() - 1).getId();
+    }
+}
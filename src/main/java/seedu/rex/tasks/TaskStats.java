@@ -0,0 +1,52 @@
+package seedu.rex.tasks;
+
+/**
+ * Counts of the tasks in a {@link TaskList} at one moment.
+ */
+public final class TaskStats {
+    private final int todos;
+    private final int deadlines;
+    private final int events;
+    private final int done;
+    private final int overdue;
+
+    TaskStats(int todos, int deadlines, int events, int done, int overdue) {
+        this.todos = todos;
+        this.deadlines = deadlines;
+        this.events = events;
+        this.done = done;
+        this.overdue = overdue;
+    }
+
+    /** @return the number of tasks */
+    public int total() {
+        return todos + deadlines + events;
+    }
+
+    /** @return the number of tasks marked as done */
+    public int done() {
+        return done;
+    }
+
+    /** @return the number of tasks not done yet */
+    public int pending() {
+        return total() - done;
+    }
+
+    public int todos() {
+        return todos;
+    }
+
+    public int deadlines() {
+        return deadlines;
+    }
+
+    public int events() {
+        return events;
+    }
+
+    /** @return the number of deadlines not done whose due date has passed */
+    public int overdue() {
+        return overdue;
+    }
+}
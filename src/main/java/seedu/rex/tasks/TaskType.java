@@ -0,0 +1,8 @@
+package seedu.rex.tasks;
+
+/**
+ * The kind of a {@link Task}, also used to index per-type counts.
+ */
+enum TaskType {
+    TODO, DEADLINE, EVENT
+}
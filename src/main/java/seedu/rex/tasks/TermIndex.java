@@ -0,0 +1,111 @@
+package seedu.rex.tasks;
+
+import seedu.rex.utils.BkTree;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+
+/**
+ * An inverted index from the words of task descriptions to the ids of the
+ * tasks that use them, kept in step as tasks are added and deleted.
+ * <p>
+ * Words are the lowercased, whitespace-separated parts of a description.
+ * {@link #candidates} narrows a text search to the tasks that can contain the
+ * query: every whole word inside the query must be one of the task's words,
+ * so their postings are intersected. The words at the query's ends may be
+ * parts of longer words (the first may end one, the last may start one), and
+ * are looked up by a scan of the index's words, which are far fewer and
+ * shorter than the descriptions. The caller confirms each candidate.
+ * <p>
+ * The words are also kept in a {@link BkTree} for {@link #similar}, which
+ * finds tasks by words within an edit distance of the query's. Words that no
+ * task uses any more stay in the tree until they outnumber the live ones.
+ */
+final class TermIndex {
+    private final Map<String, Postings> terms = new HashMap<>();
+    private BkTree words = new BkTree();
+
+    void add(Task t) {
+        for (String term : termsOf(t.getDescription())) {
+            terms.computeIfAbsent(term, k -> {
+                words.add(k);
+                return new Postings();
+            }).add(t.getId());
+        }
+    }
+
+    void remove(Task t) {
+        for (String term : termsOf(t.getDescription())) {
+            Postings p = terms.get(term);
+            if (p != null && p.remove(t.getId()) && p.size() == 0) terms.remove(term);
+        }
+        if (words.size() > 2 * terms.size() + 64) {
+            words = new BkTree();
+            for (String term : terms.keySet()) words.add(term);
+        }
+    }
+
+    /**
+     * Finds the tasks that have, for every word of a query, a word within an
+     * edit distance of it.
+     *
+     * @param query       the query, lowercased and trimmed, not empty
+     * @param maxDistance the most edits allowed per word
+     * @return the ids of the matching tasks, ascending
+     */
+    long[] similar(String query, int maxDistance) {
+        long[] ids = null;
+        for (String word : termsOf(query)) {
+            List<Postings> sets = new ArrayList<>();
+            words.search(word, maxDistance, w -> {
+                Postings p = terms.get(w);
+                if (p != null) sets.add(p);
+            });
+            long[] matches = Postings.union(sets);
+            ids = ids == null ? matches : Postings.intersect(ids, matches);
+            if (ids.length == 0) break;
+        }
+        return ids == null ? new long[0] : ids;
+    }
+
+    /**
+     * Finds the tasks whose descriptions may contain a query.
+     *
+     * @param query the query, lowercased and trimmed, not empty
+     * @return the ids of every task that can match, ascending; some may not match
+     */
+    long[] candidates(String query) {
+        String[] words = query.split("\\s+");
+        if (words.length == 1) return matching(w -> w.contains(words[0]));
+        long[] ids = matching(w -> w.endsWith(words[0]));
+        for (int i = 1; i < words.length - 1 && ids.length > 0; i++) {
+            Postings p = terms.get(words[i]);
+            ids = p == null ? new long[0] : p.retain(ids);
+        }
+        String last = words[words.length - 1];
+        return ids.length == 0 ? ids : Postings.intersect(ids, matching(w -> w.startsWith(last)));
+    }
+
+    /** @return the ids of the tasks that use any word passing the test */
+    private long[] matching(Predicate<String> test) {
+        List<Postings> sets = new ArrayList<>();
+        for (Map.Entry<String, Postings> e : terms.entrySet()) {
+            if (test.test(e.getKey())) sets.add(e.getValue());
+        }
+        return Postings.union(sets);
+    }
+
+    /** @return the distinct words of a description */
+    static TreeSet<String> termsOf(String description) {
+        TreeSet<String> words = new TreeSet<>();
+        if (description == null) return words;
+        for (String w : description.toLowerCase().split("\\s+")) {
+            if (!w.isEmpty()) words.add(w);
+        }
+        return words;
+    }
+}
@@ -0,0 +1,73 @@
+package seedu.rex.tasks;
+
+import java.util.Arrays;
+
+/**
+ * An index from every run of three characters in the lowercased task
+ * descriptions to the ids of the tasks whose descriptions contain it, kept in
+ * step as tasks are added and deleted.
+ * <p>
+ * A description can only contain a query if it contains every trigram of
+ * the query, spaces included, so {@link #candidates} intersects their
+ * postings, shortest first, and stops as soon as none are left. A search for
+ * rare text touches only the few tasks that share all of its trigrams. Each
+ * trigram is packed into one {@code long}, so the index is a
+ * {@link LongObjectMap} and looking one up allocates nothing.
+ */
+final class TrigramIndex {
+    /** Shortest query the index can narrow. */
+    static final int MIN_QUERY_LENGTH = 3;
+
+    private final LongObjectMap<Postings> trigrams = new LongObjectMap<>();
+
+    void add(Task t) {
+        String d = lower(t);
+        for (int i = 0; i + MIN_QUERY_LENGTH <= d.length(); i++) {
+            long key = key(d, i);
+            Postings p = trigrams.get(key);
+            if (p == null) {
+                p = new Postings();
+                trigrams.put(key, p);
+            }
+            p.add(t.getId());
+        }
+    }
+
+    void remove(Task t) {
+        String d = lower(t);
+        for (int i = 0; i + MIN_QUERY_LENGTH <= d.length(); i++) {
+            long key = key(d, i);
+            Postings p = trigrams.get(key);
+            if (p != null && p.remove(t.getId()) && p.size() == 0) trigrams.remove(key);
+        }
+    }
+
+    /**
+     * Finds the tasks whose descriptions may contain a query.
+     *
+     * @param query the query, lowercased, at least {@link #MIN_QUERY_LENGTH} characters
+     * @return the ids of every task that can match, ascending; some may not match
+     */
+    long[] candidates(String query) {
+        int n = query.length() - MIN_QUERY_LENGTH + 1;
+        Postings[] sets = new Postings[n];
+        for (int i = 0; i < n; i++) {
+            sets[i] = trigrams.get(key(query, i));
+            if (sets[i] == null) return new long[0];
+        }
+        Arrays.sort(sets, (a, b) -> Integer.compare(a.size(), b.size()));
+        long[] ids = sets[0].toArray();
+        for (int i = 1; i < n && ids.length > 0; i++) ids = sets[i].retain(ids);
+        return ids;
+    }
+
+    private static String lower(Task t) {
+        String d = t.getDescription();
+        return d == null ? "" : d.toLowerCase();
+    }
+
+    /** Packs the three characters at {@code i}; the top bit keeps the key non-zero. */
+    private static long key(String s, int i) {
+        return 1L << 48 | (long) s.charAt(i) << 32 | (long) s.charAt(i + 1) << 16 | s.charAt(i + 2);
+    }
+}
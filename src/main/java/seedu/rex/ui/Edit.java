@@ -0,0 +1,46 @@
+package seedu.rex.ui;
+
+import seedu.rex.tasks.Task;
+
+import java.util.List;
+
+/**
+ * One change made by a command, with what is needed to undo and redo it.
+ * <p>
+ * Positions are the ones the command acted on, ascending. Undoing and
+ * redoing strictly in order keeps them valid.
+ */
+final class Edit {
+    enum Kind { ADD, DELETE, MARK }
+
+    final Kind kind;
+    /** The command that made the change, as shown when it is undone or redone. */
+    final String label;
+    final int[] positions;
+    /** The added or deleted tasks, one per position; empty for a mark. */
+    final List<Task> tasks;
+    /** For a mark: the new status, and each task's status before it. */
+    final boolean done;
+    final boolean[] wasDone;
+
+    private Edit(Kind kind, String label, int[] positions, List<Task> tasks, boolean done, boolean[] wasDone) {
+        this.kind = kind;
+        this.label = label;
+        this.positions = positions;
+        this.tasks = tasks;
+        this.done = done;
+        this.wasDone = wasDone;
+    }
+
+    static Edit added(String label, int position, Task task) {
+        return new Edit(Kind.ADD, label, new int[]{position}, List.of(task), false, null);
+    }
+
+    static Edit deleted(String label, int[] positions, List<Task> tasks) {
+        return new Edit(Kind.DELETE, label, positions, tasks, false, null);
+    }
+
+    static Edit marked(String label, int[] positions, boolean done, boolean[] wasDone) {
+        return new Edit(Kind.MARK, label, positions, List.of(), done, wasDone);
+    }
+}
@@ -1,72 +1,180 @@
 package seedu.rex.ui;
 
 import seedu.rex.tasks.Task;
+import seedu.rex.tasks.TaskChange;
 import seedu.rex.tasks.TaskList;
+import seedu.rex.tasks.TaskPage;
+import seedu.rex.tasks.TaskStats;
 import seedu.rex.tasks.Todo;
 import seedu.rex.tasks.Deadline;
 import seedu.rex.tasks.Event;
 
 import seedu.rex.utils.DateTimeUtil;
+import seedu.rex.utils.History;
 import seedu.rex.utils.Parser;
-import seedu.rex.utils.Storage;
+import seedu.rex.utils.Reminders;
+import seedu.rex.utils.SnapshotStorageEngine;
+import seedu.rex.utils.StorageEngine;
+import seedu.rex.utils.StorageOptions;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Path;
-import java.util.ArrayList;
+import java.time.Clock;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Scanner;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.LongFunction;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
 
 /**
  * The {@code Rex} class represents the entry point for the chatbot application.
  * <p>
  * Rex is a simple task manager that supports different task types
  * (Todo, Deadline, Event). It can store tasks persistently to a file
- * and load them back when restarted.
+ * and load them back when restarted. How tasks are stored is up to the
+ * {@link StorageEngine} Rex is given: by default a {@link SnapshotStorageEngine},
+ * which queues every change on a journal and folds it into a fresh snapshot in
+ * the background, and alternatively an {@link seedu.rex.utils.LsmStorageEngine}.
+ * Once a listener is registered with {@link #onReminder}, Rex also reminds
+ * the user of deadlines and events shortly before they come up.
  * <p>
  * Supported commands:
  * <ul>
- *   <li>{@code list} - Display all tasks</li>
+ *   <li>{@code list [start] [/size <n>]} - Display a page of tasks, by default the first 50</li>
+ *   <li>{@code more}, or an empty line after a page - Display the next page</li>
  *   <li>{@code todo <description>} - Add a todo task</li>
  *   <li>{@code deadline <description> /by <date>} - Add a deadline task</li>
  *   <li>{@code event <description> /from <date> /to <date>} - Add an event task</li>
  *   <li>{@code mark <index>} - Mark a task as done</li>
  *   <li>{@code unmark <index>} - Mark a task as not done</li>
  *   <li>{@code delete <index>} - Delete a task</li>
+ *   <li>{@code mark}, {@code unmark} and {@code delete} also take a list such as
+ *       {@code 3,7,9-20}, or {@code all}, {@code done} or {@code undone}, to act
+ *       on several tasks at once</li>
+ *   <li>{@code mark}, {@code unmark} and {@code delete} also take {@code #<id>},
+ *       the stable id shown when a task is added</li>
  *   <li>{@code find <keyword>} - Find tasks containing keyword</li>
+ *   <li>{@code find~[n] <keywords>} - Find tasks with words within n edits (2 by default) of each keyword</li>
+ *   <li>{@code on <date> [/to <date>]} - List deadlines due and events under way in a period</li>
+ *   <li>{@code stats} - Count tasks done, pending, by type and overdue</li>
+ *   <li>{@code undo} - Take back the last add, mark, unmark or delete</li>
+ *   <li>{@code redo} - Make the last undone change again</li>
  *   <li>{@code bye} - Exit the program</li>
  * </ul>
  */
 public class Rex {
     private static final Path DATA_PATH = Path.of("data", "rex.txt");
-    private TaskList taskList;
+    /** Tasks {@code list} shows at a time unless told otherwise. */
+    private static final int LIST_PAGE_SIZE = 50;
+    private final StorageEngine storage;
+    private final TaskList taskList;
+    /** Changes made by commands, for undo and redo; guarded by its own monitor. */
+    private final History<Edit> history;
     private boolean isRunning;
+    /** Reminds the user of upcoming deadlines and events; {@code null} until {@link #onReminder} is called. */
+    private volatile Reminders reminders;
+    /** The page {@code list} or {@code more} showed last, for {@code more} to go on from. */
+    private volatile TaskPage listed;
 
     // Messages to avoid magic strings
     private static final String UNKNOWN_COMMAND_MSG =
-            "Unknown command. Try 'list', 'todo', 'deadline', 'event', 'mark', 'unmark', 'delete', 'find', or 'bye'.";
+            "Unknown command. Try 'list', 'todo', 'deadline', 'event', 'mark', 'unmark', 'delete', 'find', 'find~', "
+                    + "'on', 'stats', 'more', 'undo', 'redo', or 'bye'.";
 
     private static final String ERR_DELETE_IDX = "Invalid task number for delete.";
     private static final String ERR_MARK_IDX   = "Invalid task number for mark.";
     private static final String ERR_UNMARK_IDX = "Invalid task number for unmark.";
     private static final String ERR_TODO_EMPTY = "Todo description cannot be empty!";
     private static final String ERR_FIND_USAGE = "Usage: find <keyword>";
+    /** Edits per word {@code find~} allows unless told otherwise; enough for a swapped pair of letters. */
+    private static final int FUZZY_DISTANCE = 2;
+    private static final String MSG_NO_MORE = "There are no more tasks to show. Type 'list' to start again.";
+    private static final String MSG_NONE_SELECTED = "No tasks match that selection.";
+    /** Most tasks a bulk command's response lists in full. */
+    private static final int BATCH_SHOWN = 10;
+    private static final String WARN_SAVE = "\n(Warning: Error saving tasks)";
 
     private static final String USAGE_DEADLINE =
             "Usage: deadline <description> /by <yyyy-MM-dd[ HHmm]>";
     private static final String USAGE_EVENT =
             "Usage: event <desc> /from <yyyy-MM-dd[ HHmm]> /to <yyyy-MM-dd[ HHmm]>";
+    private static final String USAGE_FUZZY_FIND = "Usage: find~[max edits] <keywords>";
+    private static final String USAGE_ON =
+            "Usage: on <yyyy-MM-dd[ HHmm]> [/to <yyyy-MM-dd[ HHmm]>]";
 
     /**
      * Constructor for Rex chatbot.
      * Initializes the task list by loading from storage or creating a new one.
      */
     public Rex() {
+        this(DATA_PATH);
+    }
+
+    /**
+     * Constructs a Rex chatbot backed by the given data file, with the
+     * default storage options.
+     *
+     * @param dataPath the snapshot file to load from and save to
+     */
+    public Rex(Path dataPath) {
+        this(dataPath, StorageOptions.defaults());
+    }
+
+    /**
+     * Constructs a Rex chatbot backed by the given data file.
+     * The last snapshot is loaded, the journal beside it is replayed on top,
+     * and background compaction is started.
+     *
+     * @param dataPath the snapshot file to load from and save to
+     * @param options  journal and compaction settings
+     */
+    public Rex(Path dataPath, StorageOptions options) {
+        this(new SnapshotStorageEngine(dataPath, options));
+    }
+
+    /**
+     * Constructs a Rex chatbot that keeps its tasks in the given storage engine.
+     *
+     * If the stored tasks cannot be loaded, a warning is printed and Rex
+     * starts with an empty list.
+     *
+     * @param storage the engine to load tasks from and record changes with
+     */
+    public Rex(StorageEngine storage) {
+        this(storage, History.DEFAULT_DEPTH);
+    }
+
+    /**
+     * Constructs a Rex chatbot that keeps its tasks in the given storage engine
+     * and can undo up to {@code undoDepth} commands.
+     *
+     * If the stored tasks cannot be loaded, a warning is printed and Rex
+     * starts with an empty list.
+     *
+     * @param storage   the engine to load tasks from and record changes with
+     * @param undoDepth the most commands {@code undo} can take back
+     */
+    public Rex(StorageEngine storage, int undoDepth) {
+        this.storage = storage;
+        this.history = new History<>(undoDepth);
+        this.taskList = open(storage);
+        taskList.recordTo(storage);
+        isRunning = true;
+    }
+
+    /** @return the tasks the engine loads, or an empty list if they cannot be read */
+    private static TaskList open(StorageEngine storage) {
         try {
-            List<Task> loaded = Storage.load(DATA_PATH);
-            taskList = new TaskList(loaded);
-        } catch (Exception e) {
-            taskList = new TaskList();
+            return storage.open();
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("Error loading tasks: " + e.getMessage());
+            return new TaskList();
         }
-        isRunning = true;
     }
 
     /**
@@ -86,49 +194,88 @@ public class Rex {
     }
 
     /**
-     * Exits the chatbot, saves the current task list, and returns a farewell message.
+     * Exits the chatbot, closes the storage engine once its pending writes are
+     * done, and returns a farewell message.
      *
      * @return the farewell message string
      */
     private String handleBye() {
         isRunning = false;
+        if (reminders != null) reminders.close();
         try {
-            Storage.save(DATA_PATH, new ArrayList<>(taskList.asList()));
+            storage.close();
         } catch (Exception e) {
-            return "Bye. Hope to see you again soon!\n(Warning: Error saving tasks)";
+            return "Bye. Hope to see you again soon!" + WARN_SAVE;
         }
         return "Bye. Hope to see you again soon!";
     }
 
     /**
-     * Handles the {@code list} command by returning all tasks in the task list.
+     * Handles the {@code list} command by returning one page of the task list,
+     * by default the first {@value #LIST_PAGE_SIZE} tasks.
      *
-     * @return a formatted string of all tasks, or a message if the list is empty
+     * @param args the argument string containing the optional start and page size
+     * @return a formatted page of tasks, or a message if the list is empty
      */
-    private String handleList() {
-        List<Task> tasks = taskList.asList();
-        if (tasks.isEmpty()) return "Your task list is empty!";
-        StringBuilder sb = new StringBuilder("Here are the tasks in your list:\n");
+    private String handleList(String args) {
+        try {
+            int[] page = Parser.parsePage(args, LIST_PAGE_SIZE); // [start, size]
+            return showPage(taskList.page(page[0], page[1]));
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+    }
+
+    /**
+     * Handles the {@code more} command by displaying the page after the one
+     * last shown, the same size as it.
+     *
+     * @return the next page, or a message if there is none
+     */
+    private String handleMore() {
+        TaskPage previous = listed;
+        if (previous == null) return MSG_NO_MORE;
+        TaskPage page = taskList.nextPage(previous);
+        return page.tasks().isEmpty() ? MSG_NO_MORE : showPage(page);
+    }
+
+    /**
+     * Formats a page of tasks and remembers it for {@code more}. Only the
+     * tasks on the page are formatted.
+     */
+    private String showPage(TaskPage page) {
+        listed = page;
+        if (page.total() == 0) return "Your task list is empty!";
+        if (page.tasks().isEmpty()) return "There are only " + pluralizeTasks(page.total()) + " in the list.";
+        StringBuilder sb = new StringBuilder(page.first() == 1
+                ? "Here are the tasks in your list:" : "Here are more tasks in your list:");
+        List<Task> tasks = page.tasks();
         for (int i = 0; i < tasks.size(); i++) {
-            sb.append(i + 1).append(".").append(tasks.get(i)).append("\n");
+            sb.append("\n").append(page.first() + i).append(".").append(tasks.get(i));
         }
-        return sb.toString().trim();
+        if (page.hasMore()) {
+            sb.append("\n(").append(page.first()).append("-").append(page.last()).append(" of ")
+                    .append(page.total()).append(". Type 'more' for the next page.)");
+        }
+        return sb.toString();
     }
 
     /**
      * Handles the {@code delete} command by removing a task at the specified index.
      *
-     * @param args the argument string containing the index
+     * @param args the argument string containing the index or {@code #id}
      * @return a confirmation message if deletion is successful,
      *         or an error message if the index is invalid
      */
     private String handleDelete(String args) {
-        Integer idx = safeParseIndex(args);
-        if (idx == null) return ERR_DELETE_IDX;
+        if (isSelection(args)) return handleDeleteAll(args);
         try {
-            Task removed = taskList.delete(idx);
-            return "Noted. I've removed this task:\n  " + removed +
-                    "\nNow you have " + pluralizeTasks(taskList.asList().size()) + " in the list.";
+            TaskChange c = changeTask(args, taskList::delete, taskList::deleteById);
+            if (c == null) return ERR_DELETE_IDX;
+            if (reminders != null) reminders.cancelled(c.task());
+            record(Edit.deleted("delete " + args, c.positions(), c.tasks()));
+            return "Noted. I've removed this task:\n  " + c.task() +
+                    "\nNow you have " + pluralizeTasks(c.size()) + " in the list." + warnIfUnrecorded(c);
         } catch (Exception e) {
             return ERR_DELETE_IDX;
         }
@@ -137,16 +284,17 @@ public class Rex {
     /**
      * Handles the {@code mark} command by marking a task as done.
      *
-     * @param args the argument string containing the index
+     * @param args the argument string containing the index or {@code #id}
      * @return a success message if marking succeeds, or an error message otherwise
      */
     private String handleMark(String args) {
-        Integer idx = safeParseIndex(args);
-        if (idx == null) return ERR_MARK_IDX;
+        if (isSelection(args)) return handleMarkAll(args, true);
         try {
-            Task t = taskList.get(idx);
-            t.markDone();
-            return "Nice! I've marked this task as done:\n  " + t;
+            TaskChange c = changeTask(args, idx -> taskList.mark(idx, true), id -> taskList.markById(id, true));
+            if (c == null) return ERR_MARK_IDX;
+            record(Edit.marked("mark " + args, c.positions(), true, c.wasDone()));
+            remindAfterMark(c.tasks());
+            return "Nice! I've marked this task as done:\n  " + c.task() + warnIfUnrecorded(c);
         } catch (Exception e) {
             return ERR_MARK_IDX;
         }
@@ -155,21 +303,195 @@ public class Rex {
     /**
      * Handles the {@code unmark} command by marking a task as not done.
      *
-     * @param args the argument string containing the index
+     * @param args the argument string containing the index or {@code #id}
      * @return a success message if unmarking succeeds, or an error message otherwise
      */
     private String handleUnmark(String args) {
-        Integer idx = safeParseIndex(args);
-        if (idx == null) return ERR_UNMARK_IDX;
+        if (isSelection(args)) return handleMarkAll(args, false);
         try {
-            Task t = taskList.get(idx);
-            t.markUndone();
-            return "OK, I've marked this task as not done yet:\n  " + t;
+            TaskChange c = changeTask(args, idx -> taskList.mark(idx, false), id -> taskList.markById(id, false));
+            if (c == null) return ERR_UNMARK_IDX;
+            record(Edit.marked("unmark " + args, c.positions(), false, c.wasDone()));
+            remindAfterMark(c.tasks());
+            return "OK, I've marked this task as not done yet:\n  " + c.task() + warnIfUnrecorded(c);
         } catch (Exception e) {
             return ERR_UNMARK_IDX;
         }
     }
 
+    /**
+     * Handles {@code delete} for several tasks at once, e.g. {@code delete 3,7,9-20}
+     * or {@code delete done}. The tasks are removed in one pass and recorded as
+     * one change.
+     *
+     * @param args the selection
+     * @return a confirmation message, or an error message if the selection is invalid
+     */
+    private String handleDeleteAll(String args) {
+        try {
+            TaskChange c = changeSelection(args, taskList::deleteAll, taskList::deleteWhere);
+            if (c == null) return ERR_DELETE_IDX;
+            if (c.tasks().isEmpty()) return MSG_NONE_SELECTED;
+            if (reminders != null) c.tasks().forEach(reminders::cancelled);
+            record(Edit.deleted("delete " + args, c.positions(), c.tasks()));
+            return "Noted. I've removed " + describeBatch(c.tasks(), "")
+                    + "\nNow you have " + pluralizeTasks(c.size()) + " in the list." + warnIfUnrecorded(c);
+        } catch (Exception e) {
+            return ERR_DELETE_IDX;
+        }
+    }
+
+    /**
+     * Handles {@code mark} or {@code unmark} for several tasks at once, e.g.
+     * {@code mark 1-500}. The tasks are updated in one pass and recorded as one change.
+     *
+     * @param args the selection
+     * @param done whether to mark the tasks as done or not done
+     * @return a confirmation message, or an error message if the selection is invalid
+     */
+    private String handleMarkAll(String args, boolean done) {
+        String error = done ? ERR_MARK_IDX : ERR_UNMARK_IDX;
+        try {
+            TaskChange c = changeSelection(args, indexes -> taskList.markAll(indexes, done),
+                    which -> taskList.markWhere(which, done));
+            if (c == null) return error;
+            if (c.tasks().isEmpty()) return MSG_NONE_SELECTED;
+            record(Edit.marked((done ? "mark " : "unmark ") + args, c.positions(), done, c.wasDone()));
+            remindAfterMark(c.tasks());
+            return (done ? "Nice! I've marked " : "OK, I've marked ")
+                    + describeBatch(c.tasks(), done ? " as done" : " as not done yet") + warnIfUnrecorded(c);
+        } catch (Exception e) {
+            return error;
+        }
+    }
+
+    /**
+     * Handles the {@code undo} command by reversing the most recent change
+     * that has not been undone yet.
+     *
+     * @return a message naming the undone command, or a message that there is none
+     */
+    private String handleUndo() {
+        synchronized (history) {
+            Edit e = history.undo();
+            if (e == null) return "Nothing to undo.";
+            String warning = revert(e);
+            return "Undid: " + e.label + "\nNow you have " + pluralizeTasks(taskList.size()) + " in the list."
+                    + warning;
+        }
+    }
+
+    /**
+     * Handles the {@code redo} command by making the most recently undone change again.
+     *
+     * @return a message naming the redone command, or a message that there is none
+     */
+    private String handleRedo() {
+        synchronized (history) {
+            Edit e = history.redo();
+            if (e == null) return "Nothing to redo.";
+            String warning = reapply(e);
+            return "Redid: " + e.label + "\nNow you have " + pluralizeTasks(taskList.size()) + " in the list."
+                    + warning;
+        }
+    }
+
+    /** Records a command's change for undo. */
+    private void record(Edit e) {
+        synchronized (history) {
+            history.record(e);
+        }
+    }
+
+    /**
+     * Reverses a change to the task list and the reminders; the list has the
+     * storage engine record it. Must be called while holding the history's lock.
+     *
+     * @return an empty string, or a warning if the reversal could not be saved
+     */
+    private String revert(Edit e) {
+        switch (e.kind) {
+        case ADD: {
+            TaskChange c = taskList.delete(e.positions[0]);
+            if (reminders != null) reminders.cancelled(c.task());
+            return warnIfUnrecorded(c);
+        }
+        case DELETE: {
+            String warning = "";
+            for (int i = 0; i < e.positions.length; i++) {
+                TaskChange c = taskList.insert(e.positions[i], e.tasks.get(i));
+                if (reminders != null) reminders.scheduled(c.task());
+                if (!c.isRecorded()) warning = WARN_SAVE;
+            }
+            return warning;
+        }
+        default: {
+            int[] changed = IntStream.range(0, e.positions.length)
+                    .filter(i -> e.wasDone[i] != e.done)
+                    .map(i -> e.positions[i])
+                    .toArray();
+            return changed.length == 0 ? "" : markAndRemind(changed, !e.done);
+        }
+        }
+    }
+
+    /**
+     * Makes a change that was undone again. Must be called while holding the
+     * history's lock.
+     *
+     * @return an empty string, or a warning if the change could not be saved
+     */
+    private String reapply(Edit e) {
+        switch (e.kind) {
+        case ADD: {
+            TaskChange c = taskList.insert(e.positions[0], e.tasks.get(0));
+            if (reminders != null) reminders.scheduled(c.task());
+            return warnIfUnrecorded(c);
+        }
+        case DELETE: {
+            TaskChange c = taskList.deleteAll(e.positions);
+            if (reminders != null) c.tasks().forEach(reminders::cancelled);
+            return warnIfUnrecorded(c);
+        }
+        default:
+            return markAndRemind(e.positions, e.done);
+        }
+    }
+
+    /** Marks tasks for undo or redo, keeping reminders in step. */
+    private String markAndRemind(int[] indexes, boolean done) {
+        TaskChange c = taskList.markAll(indexes, done);
+        remindAfterMark(c.tasks());
+        return warnIfUnrecorded(c);
+    }
+
+    /**
+     * Brings the reminders of tasks just marked in line with their status as
+     * it is now, which another command may already have changed again.
+     */
+    private void remindAfterMark(List<Task> marked) {
+        if (reminders == null) return;
+        for (Task t : marked) reminders.scheduled(t);
+    }
+
+    /**
+     * Lists the tasks a bulk command acted on, the first {@value #BATCH_SHOWN}
+     * of them in full.
+     *
+     * @param tasks  the tasks
+     * @param action what was done to them, e.g. " as done", or an empty string
+     * @return e.g. "these 3 tasks as done:" followed by the tasks, one per line
+     */
+    private static String describeBatch(List<Task> tasks, String action) {
+        StringBuilder sb = new StringBuilder(tasks.size() == 1 ? "this task" : "these " + tasks.size() + " tasks")
+                .append(action).append(":");
+        for (int i = 0; i < Math.min(tasks.size(), BATCH_SHOWN); i++) {
+            sb.append("\n  ").append(tasks.get(i));
+        }
+        if (tasks.size() > BATCH_SHOWN) sb.append("\n  ...and ").append(tasks.size() - BATCH_SHOWN).append(" more");
+        return sb.toString();
+    }
+
     /**
      * Handles the {@code todo} command by creating a new {@link Todo} task.
      *
@@ -231,29 +553,114 @@ public class Rex {
     private String handleFind(String args) {
         String q = args.trim();
         if (q.isEmpty()) return ERR_FIND_USAGE;
-        String query = q.toLowerCase();
+        return describeMatches(taskList.find(q));
+    }
+
+    /**
+     * Handles the {@code find~} command by searching for tasks with words
+     * close to the keywords, so that typos such as "raed book" still find
+     * "read book". The most edits allowed per word can follow the tilde, as
+     * in {@code find~1}.
+     *
+     * @param distance the text after the tilde: empty, or the most edits per word
+     * @param args     the argument string containing the search keywords
+     * @return a list of matching tasks, or an error/no-match message
+     */
+    private String handleFuzzyFind(String distance, String args) {
+        String q = args.trim();
+        int maxDistance;
+        try {
+            maxDistance = distance.isEmpty() ? FUZZY_DISTANCE : Integer.parseInt(distance);
+        } catch (NumberFormatException e) {
+            return USAGE_FUZZY_FIND;
+        }
+        if (q.isEmpty() || maxDistance < 0) return USAGE_FUZZY_FIND;
+        return describeMatches(taskList.findSimilar(q, maxDistance));
+    }
+
+    private static String describeMatches(List<Task> matches) {
+        if (matches.isEmpty()) return "No matching tasks found.";
         StringBuilder sb = new StringBuilder("Here are the matching tasks in your list:\n");
-        int count = 0;
-        for (Task t : taskList.asList()) {
-            String d = t.getDescription();
-            if (d != null && d.toLowerCase().contains(query)) {
-                sb.append(++count).append(".").append(t).append("\n");
-            }
+        for (int i = 0; i < matches.size(); i++) {
+            sb.append(i + 1).append(".").append(matches.get(i)).append("\n");
         }
-        if (count == 0) return "No matching tasks found.";
         return sb.toString().trim();
     }
 
+    /**
+     * Handles the {@code on} command by listing the deadlines due and the
+     * events under way in a period. A period given as dates only runs to the
+     * end of its last day.
+     *
+     * @param args the argument string containing the start and optional end
+     * @return the matching tasks in time order, or an error/no-match message
+     */
+    private String handleOn(String args) {
+        try {
+            String[] parts = Parser.parseRange(args); // [fromStr, toStr]
+            LocalDateTime from = DateTimeUtil.parseFlexible(parts[0]);
+            LocalDateTime to = DateTimeUtil.parseFlexibleEnd(parts[1]);
+            if (to.isBefore(from)) return USAGE_ON;
+            List<Task> tasks = taskList.occurringBetween(from, to);
+            if (tasks.isEmpty()) return "Nothing is due or happening then.";
+            StringBuilder sb = new StringBuilder("Here is what's due or happening then:\n");
+            for (int i = 0; i < tasks.size(); i++) {
+                sb.append(i + 1).append(".").append(tasks.get(i)).append("\n");
+            }
+            return sb.toString().trim();
+        } catch (IllegalArgumentException e) {
+            return e.getMessage() != null ? e.getMessage() : USAGE_ON;
+        } catch (Exception e) {
+            return "Invalid date/time. Try formats like 2019-12-02 1800 or 2/12/2019 1800.";
+        }
+    }
+
+    /**
+     * Handles the {@code stats} command by summarising the task list. The
+     * counts are kept as the list changes, so this does not scan it.
+     *
+     * @return the counts of tasks done and pending, of each type, and of overdue deadlines
+     */
+    private String handleStats() {
+        TaskStats stats = taskList.stats(LocalDateTime.now());
+        return "Here are your task stats:\n"
+                + "  Total: " + stats.total() + " (" + stats.done() + " done, " + stats.pending() + " pending)\n"
+                + "  Todos: " + stats.todos() + ", deadlines: " + stats.deadlines() + ", events: " + stats.events() + "\n"
+                + "  Overdue deadlines: " + stats.overdue();
+    }
+
     /**
      * Adds a task to the task list and returns an acknowledgment message.
+     * A new event that overlaps events not yet done comes with a warning
+     * listing them.
      *
      * @param t the task to add
      * @return a confirmation message including the new task and task count
      */
     private String addAndAcknowledge(Task t) {
-        taskList.add(t);
+        TaskChange c = taskList.add(t);
+        if (reminders != null) reminders.scheduled(t);
+        record(Edit.added("add " + t.getDescription(), c.position(), t));
         return "Got it. I've added this task:\n  " + t +
-                "\nNow you have " + pluralizeTasks(taskList.asList().size()) + " in the list.";
+                "\nNow you have " + pluralizeTasks(c.size()) + " in the list." +
+                "\nIts id is #" + t.getId() + "." + describeClashes(c.clashes()) + warnIfUnrecorded(c);
+    }
+
+    /** @return a warning naming the events not yet done, or an empty string if there are none */
+    private static String describeClashes(List<Event> events) {
+        StringBuilder sb = new StringBuilder();
+        for (Event e : events) {
+            if (!e.isDone()) sb.append("\n  ").append(e);
+        }
+        return sb.length() == 0 ? "" : "\nHeads up, it overlaps with:" + sb;
+    }
+
+    /**
+     * @return an empty string, or a warning to append to the response if the
+     *         storage engine could not record the change
+     */
+    private static String warnIfUnrecorded(TaskChange change) {
+        return change.isRecorded() ? "" : WARN_SAVE;
     }
 
     /**
@@ -289,6 +696,62 @@ public class Rex {
         }
     }
 
+    /** @return true if the arguments select several tasks: a list, a range, or a filter word */
+    private static boolean isSelection(String args) {
+        String a = args.trim().toLowerCase();
+        if (a.equals("all") || a.equals("done") || a.equals("undone")) return true;
+        return !a.startsWith("#") && (a.contains(",") || a.contains("-"));
+    }
+
+    /**
+     * Changes a selection of several tasks. A selection is a list of positions
+     * and ranges such as {@code 3,7,9-20}, or one of {@code all}, {@code done}
+     * and {@code undone}, whose tasks the list picks and changes in one step.
+     *
+     * @param args        the selection
+     * @param byPositions makes the change to tasks at positions
+     * @param byFilter    makes the change to the tasks that pass a test
+     * @return the change, or {@code null} if the selection is malformed
+     */
+    private TaskChange changeSelection(String args, Function<int[], TaskChange> byPositions,
+            Function<Predicate<Task>, TaskChange> byFilter) {
+        String a = args.trim().toLowerCase();
+        switch (a) {
+        case "all":
+            return byFilter.apply(t -> true);
+        case "done":
+            return byFilter.apply(Task::isDone);
+        case "undone":
+            return byFilter.apply(t -> !t.isDone());
+        default:
+            int[] indexes = Parser.parseIndexList(a, taskList.size());
+            return indexes == null ? null : byPositions.apply(indexes);
+        }
+    }
+
+    /**
+     * Changes the task a reference names. A reference is either a 1-based
+     * position or {@code #} followed by a task's stable id, which the list
+     * looks up and changes in one step, without scanning.
+     *
+     * @param s          the reference
+     * @param byPosition makes the change to the task at a position
+     * @param byId       makes the change to the task with an id, or returns {@code null} if none has it
+     * @return the change, or {@code null} if the reference is malformed or names no task
+     */
+    private static TaskChange changeTask(String s, IntFunction<TaskChange> byPosition,
+            LongFunction<TaskChange> byId) {
+        if (s == null || !s.trim().startsWith("#")) {
+            Integer idx = safeParseIndex(s);
+            return idx == null ? null : byPosition.apply(idx);
+        }
+        try {
+            return byId.apply(Long.parseLong(s.trim().substring(1).trim()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
     /**
      * Processes user input and returns the appropriate response.
      * Uses the existing UI methods by capturing their System.out.print output.
@@ -300,14 +763,19 @@ public class Rex {
         assert input != null : "Input should never be null";
 
         final String trimmed = input.trim();
-        if (trimmed.isEmpty()) return UNKNOWN_COMMAND_MSG;
+        if (trimmed.isEmpty()) {
+            TaskPage previous = listed;
+            return previous != null && previous.hasMore() ? handleMore() : UNKNOWN_COMMAND_MSG;
+        }
 
         final String cmd  = Parser.getCommand(trimmed);
         final String args = Parser.getArguments(trimmed);
 
+        if (cmd.startsWith("find~")) return handleFuzzyFind(cmd.substring("find~".length()), args);
         switch (cmd) {
         case "bye":      return handleBye();
-        case "list":     return handleList();
+        case "list":     return handleList(args);
+        case "more":     return handleMore();
         case "delete":   return handleDelete(args);
         case "mark":     return handleMark(args);
         case "unmark":   return handleUnmark(args);
@@ -315,10 +783,44 @@ public class Rex {
         case "deadline": return handleDeadline(args);
         case "event":    return handleEvent(args);
         case "find":     return handleFind(args);
+        case "on":       return handleOn(args);
+        case "stats":    return handleStats();
+        case "undo":     return handleUndo();
+        case "redo":     return handleRedo();
         default:         return UNKNOWN_COMMAND_MSG;
         }
     }
 
+    /**
+     * Blocks until every change made so far has been written out.
+     * Used when the application is closed without a {@code bye}.
+     */
+    public void flush() {
+        try {
+            storage.flush();
+        } catch (IOException e) {
+            System.err.println("Error saving tasks: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Starts reminding the user of deadlines and events
+     * {@link Reminders#DEFAULT_LEAD} before they come up. Reminders are
+     * scheduled for every stored task at once, from the stored dates where
+     * the tasks have not been read yet, and kept in step with later commands.
+     * Calling this again replaces the previous listener.
+     *
+     * @param listener receives the text of each reminder, on a background thread
+     */
+    public void onReminder(Consumer<String> listener) {
+        Reminders r = new Reminders(Reminders.DEFAULT_LEAD, Clock.systemDefaultZone(), listener);
+        Reminders previous = reminders;
+        reminders = r;
+        if (previous != null) previous.close();
+        r.rebuild(taskList);
+        r.start();
+    }
+
     /**
      * Checks if the chatbot is still running.
      *
@@ -337,6 +839,7 @@ public class Rex {
     public static void main(String[] args) {
         Scanner sc = new Scanner(System.in);
         Rex rex = new Rex();
+        rex.onReminder(reminder -> printIndented(reminder.split("\n")));
 
         line();
         System.out.println("     " + rex.getWelcomeMessage().replace("\n", "\n     "));
@@ -355,7 +858,7 @@ public class Rex {
         sc.close();
     }
 
-    private static void printIndented(String... lines) {
+    private static synchronized void printIndented(String... lines) {
         line();
         for (String l : lines) {
             System.out.println("     " + l);
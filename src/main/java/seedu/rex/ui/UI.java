@@ -1,6 +1,7 @@
 package seedu.rex.ui;
 
 import seedu.rex.tasks.Task;
+import seedu.rex.tasks.TaskList;
 import java.util.List;
 
 /**
@@ -56,20 +57,17 @@ public class UI {
     }
 
     /**
-     * Prints the current list of tasks.
+     * Prints the tasks whose descriptions contain the query.
      *
-     * @param tasks The list of tasks to display.
+     * @param tasks The task list to search.
+     * @param query The text to look for.
      */
-    public static void find(List<Task> tasks, String query) {
-        String q = query.toLowerCase();
+    public static void find(TaskList tasks, String query) {
         line();
         System.out.println("     Here are the matching tasks in your list:");
         int n = 0;
-        for (Task t : tasks) {
-            String d = t.getDescription();
-            if (d != null && d.toLowerCase().contains(q)) {
-                System.out.println("     " + (++n) + "." + t);
-            }
+        for (Task t : tasks.find(query)) {
+            System.out.println("     " + (++n) + "." + t);
         }
         line();
     }
@@ -0,0 +1,319 @@
+package seedu.rex.utils;
+
+import seedu.rex.tasks.Deadline;
+import seedu.rex.tasks.Event;
+import seedu.rex.tasks.Task;
+import seedu.rex.tasks.Todo;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads and writes the compact binary task file format.
+ * <p>
+ * Layout (all multi-byte numbers big-endian):
+ * <pre>
+ *   header : "REXB" | version (1 byte) | journal seq (8 bytes) | next id (8 bytes)
+ *            | task count (8 bytes)
+ *   record : flags (1 byte) | id (varint, if the id bit is set)
+ *            | description length (varint) | description (UTF-8)
+ *            | by, or from and to (8-byte epoch minutes, deadlines and events only)
+ * </pre>
+ * The low two bits of the flags hold the task type, bit 6 says whether an id
+ * follows, and the high bit holds the done status. Version 1 files, written
+ * before tasks had ids, and version 2 files, written before the header held
+ * the next id, are still read. Nothing needs to be split, trimmed or date-parsed on load, so
+ * reading a large file is bound by I/O rather than parsing.
+ */
+public final class BinaryStorage {
+    static final byte[] MAGIC = {'R', 'E', 'X', 'B'};
+    static final int VERSION = 3;
+    /** Header offset of the task count: magic, version byte, seq and next id. */
+    private static final long COUNT_OFFSET = 4 + 1 + 8 + 8;
+
+    private static final int TYPE_TODO = 0;
+    private static final int TYPE_DEADLINE = 1;
+    private static final int TYPE_EVENT = 2;
+    private static final int TYPE_MASK = 0x03;
+    private static final int ID_BIT = 0x40;
+    private static final int DONE_BIT = 0x80;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private BinaryStorage() {
+    }
+
+    /**
+     * Checks whether a file starts with the binary format's magic bytes.
+     *
+     * @param path the file to check
+     * @return true if the file exists and is in the binary format
+     */
+    public static boolean isBinary(Path path) throws IOException {
+        if (!Files.isRegularFile(path) || Files.size(path) < MAGIC.length) return false;
+        try (InputStream in = Files.newInputStream(path)) {
+            return Arrays.equals(in.readNBytes(MAGIC.length), MAGIC);
+        }
+    }
+
+    /**
+     * Reads every task from a binary file.
+     *
+     * @param path the file to read
+     * @return the tasks in file order
+     * @throws IOException if the file is truncated, has the wrong magic or an unsupported version
+     */
+    public static List<Task> load(Path path) throws IOException {
+        try (DataInputStream in = open(path, new long[2])) {
+            long count = in.readLong();
+            List<Task> tasks = new ArrayList<>((int) Math.min(count, Integer.MAX_VALUE - 8));
+            for (long i = 0; i < count; i++) {
+                tasks.add(readRecord(in));
+            }
+            return tasks;
+        }
+    }
+
+    /**
+     * Reads a binary file one record at a time. The returned stream holds the
+     * file open and must be closed.
+     *
+     * @param path the file to read
+     * @return the tasks in file order
+     */
+    public static Stream<Task> stream(Path path) throws IOException {
+        DataInputStream in = open(path, new long[2]);
+        long count;
+        try {
+            count = in.readLong();
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+        Spliterator<Task> records = new Spliterators.AbstractSpliterator<Task>(count,
+                Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.SIZED) {
+            private long read;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super Task> action) {
+                if (read >= count) return false;
+                try {
+                    action.accept(readRecord(in));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                read++;
+                return true;
+            }
+        };
+        return StreamSupport.stream(records, false).onClose(() -> {
+            try {
+                in.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Reads the journal sequence number from a binary file's header.
+     *
+     * @param path the file to read
+     * @return the sequence number the snapshot includes
+     */
+    public static long loadSeq(Path path) throws IOException {
+        long[] header = new long[2];
+        open(path, header).close();
+        return header[0];
+    }
+
+    /**
+     * Reads the list's next id from a binary file's header.
+     *
+     * @param path the file to read
+     * @return the next id, or 0 if the file was written without one
+     */
+    public static long loadNextId(Path path) throws IOException {
+        long[] header = new long[2];
+        open(path, header).close();
+        return header[1];
+    }
+
+    /**
+     * Writes tasks to a binary file, replacing any existing content.
+     *
+     * @param path  the file to write
+     * @param tasks the tasks to write
+     * @param seq   the last journal sequence number the snapshot includes
+     */
+    public static void save(Path path, List<Task> tasks, long seq) throws IOException {
+        save(path, tasks.iterator(), seq, 0);
+    }
+
+    /**
+     * Writes tasks to a binary file as they are produced. The task count is
+     * filled into the header once the iterator is exhausted.
+     *
+     * @param path   the file to write
+     * @param tasks  the tasks to write
+     * @param seq    the last journal sequence number the snapshot includes
+     * @param nextId the list's next id, or 0 if unknown
+     */
+    public static void save(Path path, Iterator<Task> tasks, long seq, long nextId) throws IOException {
+        long count = 0;
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(path), BUFFER_SIZE))) {
+            out.write(MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(seq);
+            out.writeLong(nextId);
+            out.writeLong(0);
+            while (tasks.hasNext()) {
+                writeTask(out, tasks.next());
+                count++;
+            }
+        }
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            ByteBuffer buf = ByteBuffer.allocate(Long.BYTES).putLong(0, count);
+            while (buf.hasRemaining()) ch.write(buf, COUNT_OFFSET + buf.position());
+        }
+    }
+
+    /**
+     * Converts a pipe-delimited text file into the binary format.
+     * The source is left untouched.
+     *
+     * @param source the text file, e.g. {@code data/rex.txt}
+     * @param target the binary file to create
+     * @return the number of tasks migrated
+     */
+    public static int migrate(Path source, Path target) throws IOException {
+        List<Task> tasks = Storage.load(source);
+        save(target, tasks.iterator(), Storage.loadSeq(source), Storage.loadNextId(source));
+        return tasks.size();
+    }
+
+    /**
+     * Opens a binary file and reads its header up to the task count.
+     *
+     * @param header receives the journal seq and the next id, 0 for versions without one
+     */
+    private static DataInputStream open(Path path, long[] header) throws IOException {
+        DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(path), BUFFER_SIZE));
+        byte[] magic = new byte[MAGIC.length];
+        try {
+            in.readFully(magic);
+            if (!Arrays.equals(magic, MAGIC)) throw new IOException("Not a Rex binary file: " + path);
+            int version = in.readUnsignedByte();
+            if (version < 1 || version > VERSION) throw new IOException("Unsupported Rex binary version " + version);
+            header[0] = in.readLong();
+            header[1] = version >= 3 ? in.readLong() : 0;
+            return in;
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    private static Task readRecord(DataInputStream in) throws IOException {
+        int flags = in.readUnsignedByte();
+        long id = (flags & ID_BIT) != 0 ? readVarlong(in) : 0;
+        byte[] description = new byte[readVarint(in)];
+        in.readFully(description);
+        Task t = readTask(in, flags, new String(description, StandardCharsets.UTF_8));
+        t.setId(id);
+        return t;
+    }
+
+    private static Task readTask(DataInputStream in, int flags, String description) throws IOException {
+        Task t;
+        switch (flags & TYPE_MASK) {
+        case TYPE_TODO:
+            t = new Todo(description);
+            break;
+        case TYPE_DEADLINE:
+            t = new Deadline(description, DateTimeUtil.fromEpochMinute(in.readLong()));
+            break;
+        case TYPE_EVENT:
+            t = new Event(description, DateTimeUtil.fromEpochMinute(in.readLong()), DateTimeUtil.fromEpochMinute(in.readLong()));
+            break;
+        default:
+            throw new IOException("Unknown task type " + (flags & TYPE_MASK));
+        }
+        if ((flags & DONE_BIT) != 0) t.markDone();
+        return t;
+    }
+
+    private static void writeTask(DataOutputStream out, Task t) throws IOException {
+        int type = t instanceof Deadline ? TYPE_DEADLINE : t instanceof Event ? TYPE_EVENT : TYPE_TODO;
+        out.writeByte(type | (t.isDone() ? DONE_BIT : 0) | (t.getId() != 0 ? ID_BIT : 0));
+        if (t.getId() != 0) writeVarlong(out, t.getId());
+        byte[] description = t.getDescription().getBytes(StandardCharsets.UTF_8);
+        writeVarint(out, description.length);
+        out.write(description);
+        if (t instanceof Deadline) {
+            out.writeLong(DateTimeUtil.toEpochMinute(((Deadline) t).getBy()));
+        } else if (t instanceof Event) {
+            Event e = (Event) t;
+            out.writeLong(DateTimeUtil.toEpochMinute(e.getFrom()));
+            out.writeLong(DateTimeUtil.toEpochMinute(e.getTo()));
+        }
+    }
+
+    static void writeVarint(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    static int readVarint(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new EOFException("Malformed varint");
+    }
+
+    static void writeVarlong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    static long readVarlong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new EOFException("Malformed varlong");
+    }
+}
@@ -0,0 +1,110 @@
+package seedu.rex.utils;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.function.Consumer;
+
+/**
+ * A BK-tree of words, for finding the words within an edit distance of a query.
+ * <p>
+ * Each child hangs off its parent at the Levenshtein distance between the
+ * two. Because the distance obeys the triangle inequality, a search for words
+ * within {@code k} of a query only descends into children whose distance from
+ * their parent is within {@code k} of the query's distance from that parent,
+ * so a search with a small {@code k} visits a small part of the tree. Words
+ * are never removed; callers skip words that no longer mean anything to them.
+ */
+public final class BkTree {
+    private Node root;
+    private int size;
+
+    /**
+     * Adds a word; adding one that is already present does nothing.
+     *
+     * @param word the word
+     */
+    public void add(String word) {
+        if (root == null) {
+            root = new Node(word);
+            size++;
+            return;
+        }
+        Node n = root;
+        while (true) {
+            int d = distance(word, n.word);
+            if (d == 0) return;
+            Node child = n.child(d);
+            if (child == null) {
+                n.setChild(d, new Node(word));
+                size++;
+                return;
+            }
+            n = child;
+        }
+    }
+
+    /**
+     * Reports every word within an edit distance of a query.
+     *
+     * @param query       the query
+     * @param maxDistance the most insertions, deletions and substitutions allowed
+     * @param out         receives each matching word
+     */
+    public void search(String query, int maxDistance, Consumer<String> out) {
+        if (root == null) return;
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            Node n = pending.pop();
+            int d = distance(query, n.word);
+            if (d <= maxDistance) out.accept(n.word);
+            int hi = Math.min(d + maxDistance, n.children.length - 1);
+            for (int i = Math.max(1, d - maxDistance); i <= hi; i++) {
+                if (n.children[i] != null) pending.push(n.children[i]);
+            }
+        }
+    }
+
+    /** @return the number of words in the tree */
+    public int size() {
+        return size;
+    }
+
+    /** @return the Levenshtein distance between two strings */
+    static int distance(String a, String b) {
+        int[] prev = new int[b.length() + 1];
+        int[] cur = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) prev[j] = j;
+        for (int i = 1; i <= a.length(); i++) {
+            cur[0] = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                cur[j] = Math.min(Math.min(cur[j - 1], prev[j]) + 1, prev[j - 1] + cost);
+            }
+            int[] t = prev;
+            prev = cur;
+            cur = t;
+        }
+        return prev[b.length()];
+    }
+
+    private static final class Node {
+        final String word;
+        /** Children by their distance from this word. */
+        Node[] children = new Node[0];
+
+        Node(String word) {
+            this.word = word;
+        }
+
+        Node child(int d) {
+            return d < children.length ? children[d] : null;
+        }
+
+        void setChild(int d, Node child) {
+            if (d >= children.length) children = Arrays.copyOf(children, d + 1);
+            children[d] = child;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package seedu.rex.utils;
+
+import seedu.rex.tasks.Task;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Periodically folds the {@link Journal} into a fresh snapshot in the background.
+ * <p>
+ * Every period the scheduler compares the journal's size with the thresholds.
+ * When the journal is larger than {@code maxLogBytes}, or larger than
+ * {@code maxLogRatio} times the snapshot, it takes a point-in-time
+ * {@link Checkpoint} of the task list, writes it with {@link Storage#save},
+ * and then trims the journal records the snapshot now covers. Replay at
+ * startup is therefore bounded however long the process runs.
+ */
+public final class CompactionScheduler implements Closeable {
+    public static final long DEFAULT_PERIOD_MILLIS = 30_000;
+    public static final long DEFAULT_MAX_LOG_BYTES = 8L * 1024 * 1024;
+    public static final double DEFAULT_MAX_LOG_RATIO = 0.5;
+    /** Journals smaller than this are never worth a snapshot rewrite on ratio alone. */
+    private static final long MIN_LOG_BYTES = 64 * 1024;
+
+    /**
+     * A consistent copy of the task list together with the last journal
+     * sequence number it reflects.
+     */
+    public static final class Checkpoint {
+        final List<Task> tasks;
+        final long seq;
+        final Writer writer;
+
+        /**
+         * @param tasks a copy of the task list that later mutations do not affect structurally
+         * @param seq   the last journal sequence number applied to {@code tasks}
+         */
+        public Checkpoint(List<Task> tasks, long seq) {
+            this.tasks = tasks;
+            this.seq = seq;
+            this.writer = null;
+        }
+
+        /**
+         * A checkpoint that writes itself, e.g. only the segments that changed.
+         *
+         * @param seq    the last journal sequence number the written snapshot includes
+         * @param writer writes the snapshot
+         */
+        public Checkpoint(long seq, Writer writer) {
+            this.tasks = null;
+            this.seq = seq;
+            this.writer = writer;
+        }
+    }
+
+    /** Writes the snapshot for a {@link Checkpoint} that knows how to save itself. */
+    @FunctionalInterface
+    public interface Writer {
+        void write() throws IOException;
+    }
+
+    private final Path snapshot;
+    private final Journal journal;
+    private final Supplier<Checkpoint> checkpoints;
+    private final long periodMillis;
+    private final long maxLogBytes;
+    private final double maxLogRatio;
+    private ScheduledExecutorService executor;
+
+    /**
+     * Creates a scheduler. Nothing runs until {@link #start()} is called.
+     *
+     * @param snapshot     the snapshot file
+     * @param journal      the journal beside it
+     * @param checkpoints  takes a checkpoint atomically with respect to mutations
+     * @param periodMillis how often to check the thresholds
+     * @param maxLogBytes  compact once the journal reaches this size
+     * @param maxLogRatio  compact once the journal reaches this fraction of the snapshot's size
+     */
+    public CompactionScheduler(Path snapshot, Journal journal, Supplier<Checkpoint> checkpoints,
+                               long periodMillis, long maxLogBytes, double maxLogRatio) {
+        this.snapshot = snapshot;
+        this.journal = journal;
+        this.checkpoints = checkpoints;
+        this.periodMillis = periodMillis;
+        this.maxLogBytes = maxLogBytes;
+        this.maxLogRatio = maxLogRatio;
+    }
+
+    /**
+     * Starts checking the thresholds in the background, beginning immediately so
+     * a journal left by earlier runs is folded in soon after startup.
+     */
+    public synchronized void start() {
+        if (executor != null) return;
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "rex-compaction");
+            t.setDaemon(true);
+            return t;
+        });
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                compactIfNeeded();
+            } catch (IOException e) {
+                System.err.println("Error compacting tasks: " + e.getMessage());
+            }
+        }, 0, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /** @return true if the journal has outgrown either threshold */
+    public boolean shouldCompact() throws IOException {
+        long logBytes = journal.sizeBytes();
+        if (logBytes >= maxLogBytes) return true;
+        long snapshotBytes = Storage.sizeBytes(snapshot);
+        return logBytes >= MIN_LOG_BYTES && logBytes >= maxLogRatio * snapshotBytes;
+    }
+
+    /**
+     * Compacts if {@link #shouldCompact()} says so.
+     *
+     * @return true if a snapshot was written
+     */
+    public boolean compactIfNeeded() throws IOException {
+        if (!shouldCompact()) return false;
+        compact();
+        return true;
+    }
+
+    /**
+     * Writes a snapshot of the current task list and trims the journal behind it.
+     * Runs are serialised, so a manual call never overlaps a scheduled one.
+     * <p>
+     * Only the checkpoint is taken under the task list's lock; serialising it
+     * happens afterwards. A mark made meanwhile may already show in the
+     * snapshot, which is harmless because marks replay idempotently.
+     */
+    public synchronized void compact() throws IOException {
+        Checkpoint cp = checkpoints.get();
+        if (cp.writer != null) {
+            cp.writer.write();
+        } else {
+            Storage.save(snapshot, cp.tasks, cp.seq);
+        }
+        journal.truncateThrough(cp.seq);
+    }
+
+    /** Stops the background checks, waiting for a compaction in progress to finish. */
+    @Override
+    public void close() {
+        ScheduledExecutorService ex;
+        synchronized (this) {
+            ex = executor;
+            executor = null;
+        }
+        if (ex == null) return;
+        ex.shutdown();
+        try {
+            ex.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
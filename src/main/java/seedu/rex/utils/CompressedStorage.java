@@ -0,0 +1,348 @@
+package seedu.rex.utils;
+
+import seedu.rex.tasks.Task;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Reads and writes task archives made of independently deflated blocks.
+ * <p>
+ * Layout (all multi-byte numbers big-endian):
+ * <pre>
+ *   header : "REXZ" | version (1 byte) | journal seq (8 bytes) | next id (8 bytes)
+ *   blocks : zlib-deflated runs of pipe-delimited lines, about 64 KiB each before compression
+ *   index  : block count (4 bytes), then per block
+ *            offset (8 bytes) | compressed length (4) | raw length (4) | task count (4)
+ *   footer : index offset (8 bytes) | total task count (8 bytes)
+ * </pre>
+ * Because blocks do not depend on each other, a full load inflates them in
+ * parallel, and {@link #read(Path, long)} fetches one task by inflating only
+ * the block that holds it. Version 1 archives, written before the header held
+ * the next id, are still read.
+ */
+public final class CompressedStorage {
+    static final byte[] MAGIC = {'R', 'E', 'X', 'Z'};
+    static final int VERSION = 2;
+    /** Uncompressed bytes gathered before a block is deflated and written. */
+    static final int BLOCK_BYTES = 64 * 1024;
+    /** Header length of a version 1 archive; later versions add the next id. */
+    private static final int V1_HEADER_BYTES = MAGIC.length + 1 + Long.BYTES;
+    private static final int HEADER_BYTES = V1_HEADER_BYTES + Long.BYTES;
+    private static final int FOOTER_BYTES = 2 * Long.BYTES;
+    private static final int INDEX_ENTRY_BYTES = Long.BYTES + 3 * Integer.BYTES;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private CompressedStorage() {
+    }
+
+    /**
+     * Checks whether a file starts with the compressed format's magic bytes.
+     *
+     * @param path the file to check
+     * @return true if the file exists and is a compressed archive
+     */
+    public static boolean isCompressed(Path path) throws IOException {
+        if (!Files.isRegularFile(path) || Files.size(path) < MAGIC.length) return false;
+        try (InputStream in = Files.newInputStream(path)) {
+            return Arrays.equals(in.readNBytes(MAGIC.length), MAGIC);
+        }
+    }
+
+    /**
+     * Reads the journal sequence number from an archive's header.
+     *
+     * @param path the archive
+     * @return the sequence number the archive includes
+     */
+    public static long loadSeq(Path path) throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            return readIndex(ch, path).seq;
+        }
+    }
+
+    /**
+     * Reads the list's next id from an archive's header.
+     *
+     * @param path the archive
+     * @return the next id, or 0 if the archive was written without one
+     */
+    public static long loadNextId(Path path) throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            return readIndex(ch, path).nextId;
+        }
+    }
+
+    /**
+     * Reads every task, inflating blocks in parallel on the common pool.
+     *
+     * @param path the archive
+     * @return the tasks in file order
+     */
+    public static List<Task> load(Path path) throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            Index index = readIndex(ch, path);
+            List<List<Task>> blocks;
+            try {
+                blocks = IntStream.range(0, index.blockCount()).parallel()
+                        .mapToObj(b -> decodeBlock(ch, index, b))
+                        .collect(Collectors.toList());
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            List<Task> tasks = new ArrayList<>((int) Math.min(index.total, Integer.MAX_VALUE - 8));
+            for (List<Task> block : blocks) tasks.addAll(block);
+            return tasks;
+        }
+    }
+
+    /**
+     * Reads an archive one block at a time. The returned stream holds the
+     * file open and must be closed.
+     *
+     * @param path the archive
+     * @return the tasks in file order
+     */
+    public static Stream<Task> stream(Path path) throws IOException {
+        FileChannel ch = FileChannel.open(path, StandardOpenOption.READ);
+        Index index;
+        try {
+            index = readIndex(ch, path);
+        } catch (IOException e) {
+            ch.close();
+            throw e;
+        }
+        return IntStream.range(0, index.blockCount()).boxed()
+                .flatMap(b -> decodeBlock(ch, index, b).stream())
+                .onClose(() -> {
+                    try {
+                        ch.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    /**
+     * Reads a single task, inflating only the block that holds it.
+     *
+     * @param path     the archive
+     * @param position the task's zero-based position in the archive
+     * @return the task
+     * @throws IndexOutOfBoundsException if there is no task at {@code position}
+     */
+    public static Task read(Path path, long position) throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            Index index = readIndex(ch, path);
+            if (position < 0 || position >= index.total) {
+                throw new IndexOutOfBoundsException("Position: " + position + ", Size: " + index.total);
+            }
+            int b = Arrays.binarySearch(index.firstTask, position);
+            if (b < 0) b = -b - 2;
+            try {
+                return decodeBlock(ch, index, b).get((int) (position - index.firstTask[b]));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    /**
+     * Writes tasks to an archive as they are produced, replacing any existing
+     * content. At most one block is held in memory.
+     *
+     * @param path   the file to write
+     * @param tasks  the tasks to write
+     * @param seq    the last journal sequence number the archive includes
+     * @param nextId the list's next id, or 0 if unknown
+     */
+    public static void save(Path path, Iterator<Task> tasks, long seq, long nextId) throws IOException {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(path), BUFFER_SIZE))) {
+            out.write(MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(seq);
+            out.writeLong(nextId);
+
+            BlockWriter blocks = new BlockWriter(out, deflater, HEADER_BYTES);
+            ByteArrayOutputStream raw = new ByteArrayOutputStream(BLOCK_BYTES + 1024);
+            int inBlock = 0;
+            while (tasks.hasNext()) {
+                raw.write((Storage.serialise(tasks.next()) + "\n").getBytes(StandardCharsets.UTF_8));
+                inBlock++;
+                if (raw.size() >= BLOCK_BYTES) {
+                    blocks.write(raw, inBlock);
+                    inBlock = 0;
+                }
+            }
+            if (inBlock > 0) blocks.write(raw, inBlock);
+
+            long indexOffset = blocks.position;
+            out.writeInt(blocks.entries.size());
+            for (long[] e : blocks.entries) {
+                out.writeLong(e[0]);
+                out.writeInt((int) e[1]);
+                out.writeInt((int) e[2]);
+                out.writeInt((int) e[3]);
+            }
+            out.writeLong(indexOffset);
+            out.writeLong(blocks.total);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static Index readIndex(FileChannel ch, Path path) throws IOException {
+        long size = ch.size();
+        if (size < V1_HEADER_BYTES + FOOTER_BYTES) throw new IOException("Truncated Rex archive: " + path);
+        ByteBuffer header = readFully(ch, 0, V1_HEADER_BYTES);
+        byte[] magic = new byte[MAGIC.length];
+        header.get(magic);
+        if (!Arrays.equals(magic, MAGIC)) throw new IOException("Not a Rex archive: " + path);
+        int version = header.get() & 0xFF;
+        if (version < 1 || version > VERSION) throw new IOException("Unsupported Rex archive version " + version);
+        int headerBytes = version == 1 ? V1_HEADER_BYTES : HEADER_BYTES;
+        if (size < headerBytes + FOOTER_BYTES) throw new IOException("Truncated Rex archive: " + path);
+
+        Index index = new Index();
+        index.seq = header.getLong();
+        if (version > 1) index.nextId = readFully(ch, V1_HEADER_BYTES, Long.BYTES).getLong();
+        ByteBuffer footer = readFully(ch, size - FOOTER_BYTES, FOOTER_BYTES);
+        long indexOffset = footer.getLong();
+        index.total = footer.getLong();
+        if (indexOffset < headerBytes || indexOffset > size - FOOTER_BYTES - Integer.BYTES) {
+            throw new IOException("Corrupt Rex archive index: " + path);
+        }
+        int blocks = readFully(ch, indexOffset, Integer.BYTES).getInt();
+        if (blocks < 0 || indexOffset + Integer.BYTES + (long) blocks * INDEX_ENTRY_BYTES > size - FOOTER_BYTES) {
+            throw new IOException("Corrupt Rex archive index: " + path);
+        }
+        ByteBuffer entries = readFully(ch, indexOffset + Integer.BYTES, blocks * INDEX_ENTRY_BYTES);
+        index.offset = new long[blocks];
+        index.compressed = new int[blocks];
+        index.raw = new int[blocks];
+        index.firstTask = new long[blocks];
+        long first = 0;
+        for (int b = 0; b < blocks; b++) {
+            index.offset[b] = entries.getLong();
+            index.compressed[b] = entries.getInt();
+            index.raw[b] = entries.getInt();
+            index.firstTask[b] = first;
+            first += entries.getInt();
+        }
+        if (first != index.total) throw new IOException("Corrupt Rex archive index: " + path);
+        return index;
+    }
+
+    /** Inflates and parses one block; safe to call from several threads on the same channel. */
+    private static List<Task> decodeBlock(FileChannel ch, Index index, int b) {
+        Inflater inflater = new Inflater();
+        try {
+            ByteBuffer compressed = readFully(ch, index.offset[b], index.compressed[b]);
+            inflater.setInput(compressed.array(), 0, index.compressed[b]);
+            byte[] raw = new byte[index.raw[b]];
+            int n = 0;
+            while (n < raw.length && !inflater.finished()) {
+                int got = inflater.inflate(raw, n, raw.length - n);
+                if (got == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+                n += got;
+            }
+            if (n != raw.length) throw new IOException("Corrupt Rex archive block " + b);
+
+            List<Task> tasks = new ArrayList<>();
+            int lineStart = 0;
+            for (int i = 0; i < raw.length; i++) {
+                if (raw[i] != '\n') continue;
+                Task t = Storage.parseLine(new String(raw, lineStart, i - lineStart, StandardCharsets.UTF_8));
+                if (t != null) tasks.add(t);
+                lineStart = i + 1;
+            }
+            return tasks;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (DataFormatException e) {
+            throw new UncheckedIOException(new IOException("Corrupt Rex archive block " + b, e));
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static ByteBuffer readFully(FileChannel ch, long position, int length) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(length);
+        while (buf.hasRemaining()) {
+            if (ch.read(buf, position + buf.position()) < 0) throw new IOException("Unexpected end of Rex archive");
+        }
+        buf.flip();
+        return buf;
+    }
+
+    /** Location and size of every block, read from an archive's index and footer. */
+    private static final class Index {
+        private long seq;
+        private long nextId;
+        private long total;
+        private long[] offset;
+        private int[] compressed;
+        private int[] raw;
+        private long[] firstTask;
+
+        int blockCount() {
+            return offset.length;
+        }
+    }
+
+    /** Deflates blocks onto the output and remembers their index entries. */
+    private static final class BlockWriter {
+        private final DataOutputStream out;
+        private final Deflater deflater;
+        private final byte[] buf = new byte[BUFFER_SIZE];
+        private final List<long[]> entries = new ArrayList<>();
+        private long position;
+        private long total;
+
+        BlockWriter(DataOutputStream out, Deflater deflater, long position) {
+            this.out = out;
+            this.deflater = deflater;
+            this.position = position;
+        }
+
+        /** Deflates and writes the buffered lines, then clears the buffer. */
+        void write(ByteArrayOutputStream raw, int tasks) throws IOException {
+            byte[] bytes = raw.toByteArray();
+            deflater.reset();
+            deflater.setInput(bytes);
+            deflater.finish();
+            long compressed = 0;
+            while (!deflater.finished()) {
+                int n = deflater.deflate(buf);
+                out.write(buf, 0, n);
+                compressed += n;
+            }
+            entries.add(new long[] {position, compressed, bytes.length, tasks});
+            position += compressed;
+            total += tasks;
+            raw.reset();
+        }
+    }
+}
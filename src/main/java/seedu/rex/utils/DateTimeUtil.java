@@ -3,6 +3,8 @@ package seedu.rex.utils;
 import java.time.*;
 import java.time.format.*;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public final class DateTimeUtil {
     private DateTimeUtil() {}
@@ -18,6 +20,9 @@ public final class DateTimeUtil {
 
     private static final DateTimeFormatter PRETTY =
             DateTimeFormatter.ofPattern("MMM d yyyy, h:mma");
+    /** Most formatted times {@link #readable} keeps before it starts over. */
+    private static final int READABLE_CACHE_SIZE = 4096;
+    private static final Map<LocalDateTime, String> READABLE = new ConcurrentHashMap<>();
 
     public static LocalDateTime parseFlexible(String s) {
         String in = s.trim().replaceAll("\\s+", " ");
@@ -33,7 +38,36 @@ public final class DateTimeUtil {
         throw new DateTimeParseException("Unrecognized date format", in, 0);
     }
 
+    /**
+     * Parses the end of a period. A date without a time means the end of that
+     * day, so that the period includes the whole day.
+     */
+    public static LocalDateTime parseFlexibleEnd(String s) {
+        LocalDateTime dt = parseFlexible(s);
+        return s.trim().contains(" ") ? dt : dt.toLocalDate().atTime(LocalTime.MAX);
+    }
+
+    /**
+     * Formats a date-time for display. Tasks often share times, so each
+     * formatted string is kept and handed to every later caller with an equal
+     * time; the cache is emptied when it fills up.
+     */
     public static String readable(LocalDateTime dt) {
-        return dt.format(PRETTY);
+        String text = READABLE.get(dt);
+        if (text != null) return text;
+        if (READABLE.size() >= READABLE_CACHE_SIZE) READABLE.clear();
+        text = dt.format(PRETTY);
+        String earlier = READABLE.putIfAbsent(dt, text);
+        return earlier != null ? earlier : text;
+    }
+
+    /** Converts a date-time to whole minutes since the epoch, as the binary and columnar forms store it. */
+    public static long toEpochMinute(LocalDateTime dt) {
+        return Math.floorDiv(dt.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    /** Converts minutes since the epoch back to a date-time. */
+    public static LocalDateTime fromEpochMinute(long minute) {
+        return LocalDateTime.ofEpochSecond(minute * 60, 0, ZoneOffset.UTC);
     }
 }
@@ -0,0 +1,66 @@
+package seedu.rex.utils;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * A bounded undo/redo history.
+ * <p>
+ * Each entry describes one change and how to reverse it, so it costs memory
+ * in proportion to the change, not to the data it changed. Only the last
+ * {@code depth} changes are kept; older ones are dropped as new ones arrive.
+ * Recording a change clears the redo history.
+ *
+ * @param <E> the type of entry
+ */
+public final class History<E> {
+    public static final int DEFAULT_DEPTH = 100;
+
+    private final int depth;
+    private final Deque<E> undo = new ArrayDeque<>();
+    private final Deque<E> redo = new ArrayDeque<>();
+
+    /**
+     * Creates an empty history.
+     *
+     * @param depth the most changes that can be undone, at least 0
+     */
+    public History(int depth) {
+        if (depth < 0) throw new IllegalArgumentException("History depth must be >= 0");
+        this.depth = depth;
+    }
+
+    /**
+     * Records a change that has just been made.
+     *
+     * @param entry the change
+     */
+    public void record(E entry) {
+        redo.clear();
+        if (depth == 0) return;
+        if (undo.size() == depth) undo.removeLast();
+        undo.push(entry);
+    }
+
+    /**
+     * Takes the most recent change to undo, and keeps it for {@link #redo}.
+     *
+     * @return the change, or {@code null} if there is none
+     */
+    public E undo() {
+        E entry = undo.poll();
+        if (entry != null) redo.push(entry);
+        return entry;
+    }
+
+    /**
+     * Takes the most recently undone change to make again, and keeps it for {@link #undo}.
+     *
+     * @return the change, or {@code null} if there is none
+     */
+    public E redo() {
+        E entry = redo.poll();
+        if (entry != null) undo.push(entry);
+        return entry;
+    }
+}
@@ -0,0 +1,460 @@
+package seedu.rex.utils;
+
+import seedu.rex.tasks.Task;
+import seedu.rex.tasks.TaskList;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * An append-only write-ahead journal of task list mutations.
+ * <p>
+ * Every add, mark, unmark and delete is appended as a single line, so one
+ * mutation costs O(1) I/O no matter how many tasks are stored. On startup the
+ * journal is replayed on top of the last snapshot written by {@link Storage#save}.
+ * <p>
+ * Appending only queues the record. A background writer thread group-commits
+ * bursts of records with one write each, so commands never wait on the disk;
+ * {@link #flush()} and {@link #close()} wait for the queue to drain. A hard
+ * crash loses at most the records of the last flush interval.
+ * <p>
+ * Each record carries a sequence number and each snapshot remembers the last
+ * sequence number it includes, so records already folded into the snapshot are
+ * skipped. A crash between writing a snapshot and resetting the journal is
+ * therefore harmless. A command that marks or deletes several tasks is one
+ * record listing their positions, and a task put back at a position records
+ * the position before the task. Record format:
+ * <pre>
+ *   7 | A | T | 0 | read book | 12
+ *   8 | M | 1
+ *   9 | X | 1
+ *  10 | X | 3,7,9-20
+ *  11 | I | 1 | T | 0 | read book | 12
+ * </pre>
+ */
+public final class Journal implements Closeable {
+    public static final String ADD = "A";
+    public static final String MARK = "M";
+    public static final String UNMARK = "U";
+    public static final String DELETE = "X";
+    public static final String INSERT = "I";
+
+    /** Default time the writer waits for more records before writing a batch. */
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 20;
+    /** Default number of records that triggers a write without waiting for the interval. */
+    public static final int DEFAULT_MAX_BATCH = 512;
+
+    private final Path path;
+    private final long flushIntervalMillis;
+    private final int maxBatch;
+    private final Object ioLock = new Object();
+    private final List<String> pending = new ArrayList<>();
+
+    private BufferedWriter out;
+    private Thread writer;
+    private long lastSeq;
+    private long flushedSeq;
+    private int flushWaiters;
+    private boolean closing;
+    private IOException failure;
+
+    /**
+     * Creates a journal backed by the given file, with the default group-commit settings.
+     *
+     * @param path the journal file
+     */
+    public Journal(Path path) {
+        this(path, DEFAULT_FLUSH_INTERVAL_MILLIS, DEFAULT_MAX_BATCH);
+    }
+
+    /**
+     * Creates a journal backed by the given file. Nothing is opened and no
+     * writer thread is started until the first record is appended.
+     *
+     * @param path                the journal file
+     * @param flushIntervalMillis how long the writer collects records before writing them
+     * @param maxBatch            the most records written at once; a full batch is written immediately
+     */
+    public Journal(Path path, long flushIntervalMillis, int maxBatch) {
+        if (flushIntervalMillis < 0 || maxBatch < 1) {
+            throw new IllegalArgumentException("Flush interval must be >= 0 and batch size >= 1");
+        }
+        this.path = path;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.maxBatch = maxBatch;
+    }
+
+    /**
+     * Returns the journal file that accompanies a snapshot file.
+     *
+     * @param snapshot the snapshot file, e.g. {@code data/rex.txt}
+     * @return the journal file, e.g. {@code data/rex.txt.journal}
+     */
+    public static Path pathFor(Path snapshot) {
+        return snapshot.resolveSibling(snapshot.getFileName() + ".journal");
+    }
+
+    /**
+     * Applies every record newer than {@code afterSeq} to the task list.
+     * A torn or malformed record (e.g. from a crash mid-write) is skipped.
+     *
+     * @param tasks    the task list loaded from the snapshot
+     * @param afterSeq the sequence number recorded in the snapshot
+     * @return the last sequence number now reflected in {@code tasks}
+     */
+    public long replay(TaskList tasks, long afterSeq) throws IOException {
+        return replay(afterSeq, (op, arg) -> apply(tasks, op, arg));
+    }
+
+    /**
+     * Hands every record newer than {@code afterSeq} to {@code handler}, in order.
+     * A torn or malformed record is skipped.
+     *
+     * @param afterSeq the sequence number already reflected in the caller's state
+     * @param handler  receives each record's operation and argument
+     * @return the last sequence number handed over, or {@code afterSeq} if none
+     */
+    public synchronized long replay(long afterSeq, BiConsumer<String, String> handler) throws IOException {
+        lastSeq = Math.max(lastSeq, afterSeq);
+        flushedSeq = lastSeq;
+        if (!Files.exists(path)) return lastSeq;
+        try (BufferedReader in = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] parts = line.split("\\|", 3);
+                if (parts.length < 3) continue;
+                long seq;
+                try {
+                    seq = Long.parseLong(parts[0].trim());
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+                if (seq <= afterSeq) continue;
+                handler.accept(parts[1].trim(), parts[2].trim());
+                lastSeq = Math.max(lastSeq, seq);
+            }
+        }
+        flushedSeq = lastSeq;
+        return lastSeq;
+    }
+
+    private static void apply(TaskList tasks, String op, String arg) {
+        try {
+            if (ADD.equals(op)) {
+                Task t = Storage.parseLine(arg);
+                if (t != null) tasks.add(t);
+                return;
+            }
+            if (INSERT.equals(op)) {
+                int bar = arg.indexOf('|');
+                int idx = Integer.parseInt(arg.substring(0, bar).trim());
+                Task t = Storage.parseLine(arg.substring(bar + 1).trim());
+                if (t != null && idx >= 1 && idx <= tasks.size() + 1) tasks.insert(idx, t);
+                return;
+            }
+            if (isIndexList(arg)) {
+                int[] indexes = Parser.parseIndexList(arg, tasks.size());
+                if (indexes == null) return;
+                if (DELETE.equals(op)) {
+                    tasks.deleteAll(indexes);
+                } else if (MARK.equals(op) || UNMARK.equals(op)) {
+                    tasks.markAll(indexes, MARK.equals(op));
+                }
+                return;
+            }
+            int idx = Integer.parseInt(arg);
+            if (idx < 1 || idx > tasks.size()) return;
+            switch (op) {
+            case MARK:
+                tasks.mark(idx, true);
+                break;
+            case UNMARK:
+                tasks.mark(idx, false);
+                break;
+            case DELETE:
+                tasks.delete(idx);
+                break;
+            default:
+                break;
+            }
+        } catch (RuntimeException ignore) {
+            // a record that no longer applies is skipped rather than aborting the replay
+        }
+    }
+
+    /**
+     * Appends a record for an added task.
+     *
+     * @param t the task that was added
+     * @return the record's sequence number
+     */
+    public long appendAdd(Task t) throws IOException {
+        return append(ADD, Storage.serialise(t));
+    }
+
+    /**
+     * Appends a record for a task inserted at a position.
+     *
+     * @param oneBasedIndex the position the task now has
+     * @param t             the task
+     * @return the record's sequence number
+     */
+    public long appendInsert(int oneBasedIndex, Task t) throws IOException {
+        return append(INSERT, oneBasedIndex + " | " + Storage.serialise(t));
+    }
+
+    /**
+     * Appends a record for a mark, unmark or delete.
+     *
+     * @param op            one of {@link #MARK}, {@link #UNMARK} or {@link #DELETE}
+     * @param oneBasedIndex the index the command was issued against
+     * @return the record's sequence number
+     */
+    public long append(String op, int oneBasedIndex) throws IOException {
+        return append(op, Integer.toString(oneBasedIndex));
+    }
+
+    /**
+     * Appends one record for a mark, unmark or delete of several tasks.
+     *
+     * @param op              one of {@link #MARK}, {@link #UNMARK} or {@link #DELETE}
+     * @param oneBasedIndexes the indexes the command was issued against, ascending
+     * @return the record's sequence number
+     */
+    public long append(String op, int[] oneBasedIndexes) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < oneBasedIndexes.length; ) {
+            int j = i;
+            while (j + 1 < oneBasedIndexes.length && oneBasedIndexes[j + 1] == oneBasedIndexes[j] + 1) j++;
+            if (sb.length() > 0) sb.append(',');
+            sb.append(oneBasedIndexes[i]);
+            if (j > i) sb.append('-').append(oneBasedIndexes[j]);
+            i = j + 1;
+        }
+        return append(op, sb.toString());
+    }
+
+    /** @return true if a record's argument lists several indexes rather than one */
+    static boolean isIndexList(String arg) {
+        return arg.indexOf(',') >= 0 || arg.indexOf('-') >= 0;
+    }
+
+    /**
+     * Queues a record for the writer thread. Only the sequence number is
+     * assigned here, so the caller never waits on the disk.
+     *
+     * @throws IOException if an earlier write failed or the journal is closed
+     */
+    private synchronized long append(String op, String arg) throws IOException {
+        if (failure != null) throw failure;
+        if (closing) throw new IOException("Journal is closed");
+        if (writer == null) {
+            writer = new Thread(this::runWriter, "rex-journal-writer");
+            writer.setDaemon(true);
+            writer.start();
+        }
+        long seq = ++lastSeq;
+        pending.add(seq + " | " + op + " | " + arg);
+        if (pending.size() >= maxBatch) notifyAll();
+        return seq;
+    }
+
+    /**
+     * Body of the writer thread. Each round waits for a first record, then up to
+     * the flush interval for more to arrive (cut short once {@code maxBatch}
+     * records are queued or someone is waiting in {@link #flush()}), and writes
+     * the whole batch with a single write and flush.
+     */
+    private void runWriter() {
+        try {
+            while (true) {
+                List<String> batch;
+                long upTo;
+                synchronized (this) {
+                    while (pending.isEmpty() && !closing) wait();
+                    if (pending.isEmpty()) return;
+                    long deadline = System.currentTimeMillis() + flushIntervalMillis;
+                    long remaining = flushIntervalMillis;
+                    while (pending.size() < maxBatch && !closing && flushWaiters == 0 && remaining > 0) {
+                        wait(remaining);
+                        remaining = deadline - System.currentTimeMillis();
+                    }
+                    int n = Math.min(pending.size(), maxBatch);
+                    List<String> head = pending.subList(0, n);
+                    batch = new ArrayList<>(head);
+                    head.clear();
+                    upTo = lastSeq - pending.size();
+                }
+                try {
+                    write(batch);
+                } catch (IOException e) {
+                    synchronized (this) {
+                        failure = e;
+                        notifyAll();
+                    }
+                    return;
+                }
+                synchronized (this) {
+                    flushedSeq = upTo;
+                    notifyAll();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write(List<String> batch) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (String record : batch) sb.append(record).append(System.lineSeparator());
+        synchronized (ioLock) {
+            if (out == null) {
+                Path dir = path.getParent();
+                if (dir != null && !Files.exists(dir)) Files.createDirectories(dir);
+                boolean torn = endsMidRecord();
+                out = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE);
+                if (torn) out.newLine();
+            }
+            out.write(sb.toString());
+            out.flush();
+        }
+    }
+
+    /** @return true if a previous run crashed after writing part of a record */
+    private boolean endsMidRecord() throws IOException {
+        if (!Files.exists(path) || Files.size(path) == 0) return false;
+        try (SeekableByteChannel ch = Files.newByteChannel(path, StandardOpenOption.READ)) {
+            ByteBuffer last = ByteBuffer.allocate(1);
+            ch.position(ch.size() - 1);
+            ch.read(last);
+            return last.get(0) != '\n';
+        }
+    }
+
+    /**
+     * Blocks until every record appended so far has been written.
+     *
+     * @throws IOException if the writer thread failed to write a record
+     */
+    public void flush() throws IOException {
+        synchronized (this) {
+            long target = lastSeq;
+            flushWaiters++;
+            notifyAll();
+            try {
+                while (flushedSeq < target && failure == null && writer != null && writer.isAlive()) {
+                    wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while flushing journal");
+            } finally {
+                flushWaiters--;
+            }
+            if (failure != null) throw failure;
+        }
+    }
+
+    /** @return the sequence number of the last record appended or replayed */
+    public synchronized long lastSeq() {
+        return lastSeq;
+    }
+
+    /** @return the size of the journal file in bytes, not counting queued records */
+    public long sizeBytes() throws IOException {
+        synchronized (ioLock) {
+            if (out != null) out.flush();
+            return Files.exists(path) ? Files.size(path) : 0;
+        }
+    }
+
+    /**
+     * Drops the records with sequence numbers up to {@code seq}, which a newly
+     * written snapshot already includes. Later records, written or still
+     * queued, are kept. The writer is held off while the file is rewritten.
+     *
+     * @param seq the sequence number recorded in the new snapshot
+     */
+    public void truncateThrough(long seq) throws IOException {
+        synchronized (ioLock) {
+            closeFile();
+            if (!Files.exists(path)) return;
+            Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+            try (BufferedReader in = Files.newBufferedReader(path, StandardCharsets.UTF_8);
+                 BufferedWriter kept = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    int bar = line.indexOf('|');
+                    if (bar < 0) continue;
+                    try {
+                        if (Long.parseLong(line.substring(0, bar).trim()) <= seq) continue;
+                    } catch (NumberFormatException e) {
+                        continue;
+                    }
+                    kept.write(line);
+                    kept.newLine();
+                }
+            }
+            Storage.replace(tmp, path);
+        }
+    }
+
+    /**
+     * Discards every record. Call this only after a snapshot including
+     * {@link #lastSeq()} has been written.
+     */
+    public void reset() throws IOException {
+        flush();
+        synchronized (ioLock) {
+            closeFile();
+            Files.deleteIfExists(path);
+        }
+    }
+
+    /**
+     * Waits for the last pending flush, then stops the writer thread.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            Thread t;
+            synchronized (this) {
+                closing = true;
+                notifyAll();
+                t = writer;
+            }
+            if (t != null) {
+                try {
+                    t.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            synchronized (ioLock) {
+                closeFile();
+            }
+        }
+    }
+
+    private void closeFile() throws IOException {
+        if (out != null) {
+            out.close();
+            out = null;
+        }
+    }
+}
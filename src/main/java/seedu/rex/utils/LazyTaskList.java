@@ -0,0 +1,121 @@
+package seedu.rex.utils;
+
+import seedu.rex.tasks.Deadline;
+import seedu.rex.tasks.Event;
+import seedu.rex.tasks.Task;
+import seedu.rex.tasks.TaskList;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * A mutable list of tasks that creates each task from a {@link MappedTaskFile}
+ * the first time it is read.
+ * <p>
+ * Until a position is touched it costs one empty slot and one record number.
+ * Once every record has been created the mapping is released.
+ */
+final class LazyTaskList extends AbstractList<Task> implements RandomAccess {
+    private static final int NOT_IN_FILE = -1;
+
+    private MappedTaskFile source;
+    private Task[] tasks;
+    private int[] records;
+    private int size;
+    private int unloaded;
+    private final long maxFileId;
+
+    LazyTaskList(MappedTaskFile source) {
+        this.source = source;
+        this.maxFileId = source.maxId();
+        this.size = source.size();
+        this.unloaded = size;
+        this.tasks = new Task[Math.max(size, 16)];
+        this.records = new int[tasks.length];
+        for (int i = 0; i < size; i++) records[i] = i;
+        if (unloaded == 0) this.source = null;
+    }
+
+    @Override
+    public Task get(int index) {
+        Objects.checkIndex(index, size);
+        Task t = tasks[index];
+        if (t == null) {
+            t = source.parse(records[index]);
+            tasks[index] = t;
+            records[index] = NOT_IN_FILE;
+            released();
+        }
+        return t;
+    }
+
+    @Override
+    public Task set(int index, Task t) {
+        Task old = get(index);
+        tasks[index] = t;
+        return old;
+    }
+
+    @Override
+    public void add(int index, Task t) {
+        if (index < 0 || index > size) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        if (size == tasks.length) {
+            tasks = Arrays.copyOf(tasks, size * 2);
+            records = Arrays.copyOf(records, size * 2);
+        }
+        System.arraycopy(tasks, index, tasks, index + 1, size - index);
+        System.arraycopy(records, index, records, index + 1, size - index);
+        tasks[index] = t;
+        records[index] = NOT_IN_FILE;
+        size++;
+        modCount++;
+    }
+
+    @Override
+    public Task remove(int index) {
+        Task old = get(index);
+        System.arraycopy(tasks, index + 1, tasks, index, size - index - 1);
+        System.arraycopy(records, index + 1, records, index, size - index - 1);
+        tasks[--size] = null;
+        modCount++;
+        return old;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /** @return the highest id in the file the list was opened from, or 0 if none has one */
+    long maxFileId() {
+        return maxFileId;
+    }
+
+    /**
+     * Reads the due dates of a range of positions, from the file where a
+     * task has not been created yet. Positions whose task was added or
+     * replaced since opening are read from the task.
+     *
+     * @param from the first position, zero-based
+     * @param to   the position after the last
+     * @param out  receives a deadline's or event's dates
+     */
+    void scanDue(int from, int to, TaskList.DateSink out) {
+        for (int i = from; i < to; i++) {
+            Task t = tasks[i];
+            if (t == null) {
+                source.scanDue(records[i], out);
+            } else if (t instanceof Deadline) {
+                out.accept(t.getId(), t.isDone(), ((Deadline) t).getBy(), null);
+            } else if (t instanceof Event) {
+                out.accept(t.getId(), t.isDone(), ((Event) t).getFrom(), ((Event) t).getTo());
+            }
+        }
+    }
+
+    private void released() {
+        if (--unloaded == 0) source = null;
+    }
+}
@@ -0,0 +1,403 @@
+package seedu.rex.utils;
+
+import seedu.rex.tasks.Task;
+import seedu.rex.tasks.TaskList;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A log-structured merge {@link StorageEngine}: no save ever rewrites the whole task list.
+ * <p>
+ * Every task is stored under a key that grows with insertion order, so key
+ * order is list order. Keys are handed out {@value #KEY_GAP} apart, so a task
+ * inserted between two others, as when a delete is undone, usually fits
+ * between their keys; if not, the tasks after it move to fresh keys. A change is appended to a write-ahead {@link Journal}
+ * and recorded in an in-memory memtable as the task's new line, or as a
+ * deletion. When the memtable fills up it is frozen and written in the
+ * background as a {@link SortedRun}, after which the journal records it
+ * covers are dropped. Once {@code maxRuns} runs have piled up they are merged
+ * into one, newest entry per key winning and deletions dropped.
+ * <p>
+ * The store is a directory holding the journal ({@code wal}) and the run files
+ * ({@code run-<generation>.sst}). Opening merges the runs into the task list
+ * and replays the journal on top. Each run also records the list's next id,
+ * so that new tasks never get the id of a task a run has deleted.
+ */
+public final class LsmStorageEngine implements StorageEngine {
+    public static final int DEFAULT_MEMTABLE_LIMIT = 4096;
+    public static final int DEFAULT_MAX_RUNS = 4;
+    private static final String WAL = "wal";
+    private static final String RUN_PREFIX = "run-";
+    private static final String RUN_SUFFIX = ".sst";
+    /** Distance between the keys of consecutive new tasks, leaving room for inserts. */
+    private static final long KEY_GAP = 1024;
+
+    private final Path dir;
+    private final Journal journal;
+    private final int memtableLimit;
+    private final int maxRuns;
+    private final boolean isColumnar;
+    private final ExecutorService background;
+    /** Runs on disk, oldest first. */
+    private final List<SortedRun> runs = new ArrayList<>();
+    private TreeMap<Long, String> memtable = new TreeMap<>();
+    private TaskList tasks;
+    /** Key of the task at each position of {@link #tasks}. */
+    private long[] keys = new long[16];
+    private int keyCount;
+    private long nextKey = 1;
+    private long nextGeneration = 1;
+    private IOException failure;
+
+    /**
+     * Creates an engine for a store directory. Nothing is read until {@link #open()}.
+     *
+     * @param dir     the store directory, created if missing
+     * @param options journal and memtable settings
+     */
+    public LsmStorageEngine(Path dir, StorageOptions options) {
+        if (options.memtableLimit() < 1 || options.maxRuns() < 2) {
+            throw new IllegalArgumentException("Memtable limit must be >= 1 and max runs >= 2");
+        }
+        this.dir = dir;
+        this.journal = new Journal(dir.resolve(WAL), options.flushIntervalMillis(), options.maxBatch());
+        this.memtableLimit = options.memtableLimit();
+        this.maxRuns = options.maxRuns();
+        this.isColumnar = options.isColumnar();
+        this.background = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "rex-lsm");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Merges the runs on disk into a task list and replays the journal on top.
+     * Runs a crashed merge left behind are deleted.
+     */
+    @Override
+    public synchronized TaskList open() throws IOException {
+        Files.createDirectories(dir);
+        List<SortedRun> found = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, RUN_PREFIX + "*" + RUN_SUFFIX)) {
+            for (Path f : files) found.add(SortedRun.open(f));
+        }
+        Set<Long> superseded = new HashSet<>();
+        for (SortedRun r : found) {
+            for (long g : r.supersedes) superseded.add(g);
+            nextGeneration = Math.max(nextGeneration, r.generation + 1);
+        }
+        long seq = 0;
+        long nextId = 0;
+        for (SortedRun r : found) {
+            if (superseded.contains(r.generation)) {
+                Files.deleteIfExists(r.path);
+            } else {
+                runs.add(r);
+                seq = Math.max(seq, r.seq);
+                nextId = Math.max(nextId, r.nextId);
+            }
+        }
+        runs.sort(Comparator.comparingLong(r -> r.generation));
+
+        List<Task> loaded = new ArrayList<>();
+        SortedRun.merge(runs, (key, value) -> {
+            nextKey = Math.max(nextKey, key + 1);
+            Task t = value == null ? null : Storage.parseLine(value);
+            if (t == null) return;
+            loaded.add(t);
+            appendKey(key);
+        });
+        tasks = isColumnar ? TaskList.columnar(loaded) : new TaskList(loaded);
+        tasks.reserveIds(nextId);
+        journal.replay(seq, this::replay);
+        maybeFreeze();
+        return tasks;
+    }
+
+    private void replay(String op, String arg) {
+        try {
+            if (Journal.ADD.equals(op)) {
+                Task t = Storage.parseLine(arg);
+                if (t == null) return;
+                tasks.add(t);
+                recordAdd(t);
+                return;
+            }
+            if (Journal.INSERT.equals(op)) {
+                int bar = arg.indexOf('|');
+                int idx = Integer.parseInt(arg.substring(0, bar).trim());
+                Task t = Storage.parseLine(arg.substring(bar + 1).trim());
+                if (t == null || idx < 1 || idx > tasks.size() + 1) return;
+                tasks.insert(idx, t);
+                recordInsert(idx, t);
+                return;
+            }
+            if (Journal.isIndexList(arg)) {
+                int[] indexes = Parser.parseIndexList(arg, tasks.size());
+                if (indexes == null) return;
+                if (Journal.DELETE.equals(op)) {
+                    tasks.deleteAll(indexes);
+                    recordDeleteAll(indexes);
+                } else if (Journal.MARK.equals(op) || Journal.UNMARK.equals(op)) {
+                    tasks.markAll(indexes, Journal.MARK.equals(op));
+                    for (int idx : indexes) recordMark(idx);
+                }
+                return;
+            }
+            int idx = Integer.parseInt(arg);
+            if (idx < 1 || idx > tasks.size()) return;
+            switch (op) {
+            case Journal.MARK:
+            case Journal.UNMARK:
+                tasks.mark(idx, Journal.MARK.equals(op));
+                recordMark(idx);
+                break;
+            case Journal.DELETE:
+                tasks.delete(idx);
+                recordDelete(idx);
+                break;
+            default:
+                break;
+            }
+        } catch (RuntimeException ignore) {
+            // a record that no longer applies is skipped rather than aborting the replay
+        }
+    }
+
+    @Override
+    public synchronized void added(Task task) throws IOException {
+        recordAdd(task);
+        journal.appendAdd(task);
+        afterChange();
+    }
+
+    @Override
+    public synchronized void inserted(int oneBasedIndex, Task task) throws IOException {
+        recordInsert(oneBasedIndex, task);
+        journal.appendInsert(oneBasedIndex, task);
+        afterChange();
+    }
+
+    @Override
+    public synchronized void marked(int oneBasedIndex, boolean done) throws IOException {
+        recordMark(oneBasedIndex);
+        journal.append(done ? Journal.MARK : Journal.UNMARK, oneBasedIndex);
+        afterChange();
+    }
+
+    @Override
+    public synchronized void deleted(int oneBasedIndex) throws IOException {
+        recordDelete(oneBasedIndex);
+        journal.append(Journal.DELETE, oneBasedIndex);
+        afterChange();
+    }
+
+    @Override
+    public synchronized void markedAll(int[] oneBasedIndexes, boolean done) throws IOException {
+        for (int idx : oneBasedIndexes) recordMark(idx);
+        journal.append(done ? Journal.MARK : Journal.UNMARK, oneBasedIndexes);
+        afterChange();
+    }
+
+    @Override
+    public synchronized void deletedAll(int[] oneBasedIndexes) throws IOException {
+        recordDeleteAll(oneBasedIndexes);
+        journal.append(Journal.DELETE, oneBasedIndexes);
+        afterChange();
+    }
+
+    private void recordAdd(Task task) {
+        long key = nextKey;
+        nextKey += KEY_GAP;
+        appendKey(key);
+        memtable.put(key, Storage.serialise(task));
+    }
+
+    /** Gives a task inserted at a position, already in {@link #tasks}, a key between its neighbours'. */
+    private void recordInsert(int oneBasedIndex, Task task) {
+        if (oneBasedIndex > keyCount) {
+            recordAdd(task);
+            return;
+        }
+        long before = oneBasedIndex > 1 ? keys[oneBasedIndex - 2] : 0;
+        long after = keys[oneBasedIndex - 1];
+        appendKey(0);
+        System.arraycopy(keys, oneBasedIndex - 1, keys, oneBasedIndex, keyCount - oneBasedIndex);
+        if (after - before > 1) {
+            keys[oneBasedIndex - 1] = before + (after - before) / 2;
+            memtable.put(keys[oneBasedIndex - 1], Storage.serialise(task));
+            return;
+        }
+        for (int i = oneBasedIndex - 1; i < keyCount; i++) {
+            if (i >= oneBasedIndex) memtable.put(keys[i], null);
+            keys[i] = nextKey;
+            nextKey += KEY_GAP;
+            memtable.put(keys[i], Storage.serialise(tasks.get(i + 1)));
+        }
+    }
+
+    private void recordMark(int oneBasedIndex) {
+        memtable.put(keys[oneBasedIndex - 1], Storage.serialise(tasks.get(oneBasedIndex)));
+    }
+
+    private void recordDelete(int oneBasedIndex) {
+        long key = keys[oneBasedIndex - 1];
+        System.arraycopy(keys, oneBasedIndex, keys, oneBasedIndex - 1, keyCount - oneBasedIndex);
+        keyCount--;
+        memtable.put(key, null);
+    }
+
+    /** Writes a tombstone for each deleted task and compacts the key array in one sweep. */
+    private void recordDeleteAll(int[] oneBasedIndexes) {
+        int w = oneBasedIndexes[0] - 1;
+        int k = 0;
+        for (int r = w; r < keyCount; r++) {
+            if (k < oneBasedIndexes.length && r == oneBasedIndexes[k] - 1) {
+                memtable.put(keys[r], null);
+                k++;
+            } else {
+                keys[w++] = keys[r];
+            }
+        }
+        keyCount = w;
+    }
+
+    private void appendKey(long key) {
+        if (keyCount == keys.length) keys = Arrays.copyOf(keys, keys.length * 2);
+        keys[keyCount++] = key;
+    }
+
+    /** Freezes a full memtable, then reports a background failure so the caller can warn. */
+    private void afterChange() throws IOException {
+        maybeFreeze();
+        if (failure != null) throw failure;
+    }
+
+    /**
+     * Hands a full memtable to the background thread. After a failed write the
+     * memtable just keeps growing: the journal still holds every change, and
+     * nothing is trimmed from it until a run covering them is on disk.
+     */
+    private void maybeFreeze() {
+        if (memtable.size() >= memtableLimit && failure == null) freeze(tasks.nextId());
+    }
+
+    private void freeze(long nextId) {
+        TreeMap<Long, String> frozen = memtable;
+        memtable = new TreeMap<>();
+        long seq = journal.lastSeq();
+        background.execute(() -> flushMemtable(frozen, seq, nextId));
+    }
+
+    /** Writes a frozen memtable as a new run, trims the journal behind it, and merges if needed. */
+    private void flushMemtable(TreeMap<Long, String> frozen, long seq, long nextId) {
+        try {
+            long generation;
+            synchronized (this) {
+                generation = nextGeneration++;
+            }
+            SortedRun run;
+            try (SortedRun.Writer w = SortedRun.create(runPath(generation), generation, seq, nextId, new long[0])) {
+                for (Map.Entry<Long, String> e : frozen.entrySet()) w.put(e.getKey(), e.getValue());
+                run = w.finish();
+            }
+            int count;
+            synchronized (this) {
+                runs.add(run);
+                count = runs.size();
+            }
+            journal.truncateThrough(seq);
+            if (count >= maxRuns) mergeRuns();
+        } catch (IOException e) {
+            synchronized (this) {
+                failure = e;
+            }
+            System.err.println("Error writing tasks: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Merges every run into one. Runs only on the background thread, so no
+     * new run appears while the merge is in progress.
+     */
+    private void mergeRuns() throws IOException {
+        List<SortedRun> inputs;
+        long generation;
+        synchronized (this) {
+            inputs = new ArrayList<>(runs);
+            generation = nextGeneration++;
+        }
+        long seq = 0;
+        long nextId = 0;
+        long[] supersedes = new long[inputs.size()];
+        for (int i = 0; i < inputs.size(); i++) {
+            seq = Math.max(seq, inputs.get(i).seq);
+            nextId = Math.max(nextId, inputs.get(i).nextId);
+            supersedes[i] = inputs.get(i).generation;
+        }
+        SortedRun merged;
+        try (SortedRun.Writer w = SortedRun.create(runPath(generation), generation, seq, nextId, supersedes)) {
+            SortedRun.merge(inputs, (key, value) -> {
+                if (value != null) w.put(key, value);
+            });
+            merged = w.finish();
+        }
+        synchronized (this) {
+            runs.removeAll(inputs);
+            runs.add(0, merged);
+        }
+        for (SortedRun r : inputs) Files.deleteIfExists(r.path);
+    }
+
+    private Path runPath(long generation) {
+        return dir.resolve(RUN_PREFIX + generation + RUN_SUFFIX);
+    }
+
+    /** @return the number of runs on disk, for tests and diagnostics */
+    public synchronized int runCount() {
+        return runs.size();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        journal.flush();
+    }
+
+    /**
+     * Writes out the memtable, waits for background writes and merges to
+     * finish, and closes the journal.
+     */
+    @Override
+    public void close() throws IOException {
+        // read before taking this engine's lock, which changes take after the list's
+        long nextId = tasks == null ? 0 : tasks.nextId();
+        synchronized (this) {
+            if (!memtable.isEmpty() && failure == null && tasks != null) freeze(nextId);
+        }
+        background.shutdown();
+        try {
+            background.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        journal.close();
+        synchronized (this) {
+            if (failure != null) throw failure;
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package seedu.rex.utils;
+
+import seedu.rex.tasks.Task;
+import seedu.rex.tasks.TaskList;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * A memory-mapped, pipe-delimited task file with a line-offset index.
+ * <p>
+ * Opening the file maps it with {@link FileChannel#map} and records where each
+ * task record starts; no {@link Task} is created until {@link #parse(int)} is
+ * called for that record. Headers and lines {@link Storage#parseLine} would
+ * reject (wrong type letter, too few fields or an unreadable date) are left
+ * out of the index, matching what {@link Storage#load} skips. The highest id
+ * seen is kept so that new ids can be handed out without creating any task.
+ * <p>
+ * The mapping stays valid after the file is replaced by a later save on POSIX
+ * systems, since the old file is only unlinked.
+ */
+final class MappedTaskFile {
+    private static final long REGION_SIZE = 1L << 30;
+    /** Pipes whose positions are kept per line; enough to reach an event's id field. */
+    private static final int MAX_FIELDS = 6;
+
+    private final MappedByteBuffer[] regions;
+    private final long length;
+    private long[] starts;
+    private int count;
+    private long maxId;
+    /** Positions of the first pipes of the line being indexed. */
+    private final long[] pipeAt = new long[MAX_FIELDS];
+
+    private MappedTaskFile(MappedByteBuffer[] regions, long length) {
+        this.regions = regions;
+        this.length = length;
+        this.starts = new long[1024];
+    }
+
+    /**
+     * Maps a task file and indexes its records.
+     *
+     * @param path the text task file
+     * @return the indexed file
+     */
+    static MappedTaskFile open(Path path) throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            long length = ch.size();
+            int n = (int) ((length + REGION_SIZE - 1) / REGION_SIZE);
+            MappedByteBuffer[] regions = new MappedByteBuffer[n];
+            for (int i = 0; i < n; i++) {
+                long pos = i * REGION_SIZE;
+                regions[i] = ch.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(REGION_SIZE, length - pos));
+            }
+            MappedTaskFile file = new MappedTaskFile(regions, length);
+            file.index();
+            return file;
+        }
+    }
+
+    /** @return the number of task records in the file */
+    int size() {
+        return count;
+    }
+
+    /** @return the highest id any record carries, or 0 if none has one */
+    long maxId() {
+        return maxId;
+    }
+
+    /**
+     * Parses one record. Records were checked when the file was indexed, so
+     * this only fails if the file has been changed in place since.
+     *
+     * @param i the zero-based record number
+     * @return a new task for that record
+     * @throws IllegalStateException if the record is corrupt
+     */
+    Task parse(int i) {
+        long start = starts[i];
+        long end = start;
+        while (end < length && byteAt(end) != '\n') end++;
+        if (end > start && byteAt(end - 1) == '\r') end--;
+        String line = new String(bytes(start, (int) (end - start)), StandardCharsets.UTF_8);
+        Task t;
+        try {
+            t = Storage.parseLine(line);
+        } catch (RuntimeException e) {
+            t = null;
+        }
+        if (t == null) throw new IllegalStateException("Corrupt task record: " + line);
+        return t;
+    }
+
+    /**
+     * Reads a record's dates without creating its task, from the bytes
+     * alone. Safe to call from several threads at once.
+     *
+     * @param i   the zero-based record number
+     * @param out receives a deadline's or event's dates; not called for todos
+     */
+    void scanDue(int i, TaskList.DateSink out) {
+        long start = starts[i];
+        byte type = byteAt(start);
+        while (isBlank(type)) type = byteAt(++start);
+        if (type != 'D' && type != 'E') return;
+        long[] pipes = new long[MAX_FIELDS];
+        int n = 0;
+        long end = start;
+        for (; end < length && byteAt(end) != '\n'; end++) {
+            if (byteAt(end) == '|' && n < MAX_FIELDS) pipes[n++] = end;
+        }
+        int idField = type == 'D' ? 4 : 5;
+        LocalDateTime at = dateAt(pipes[2] + 1, 3 < n ? pipes[3] : end);
+        LocalDateTime until = type == 'E' ? dateAt(pipes[3] + 1, 4 < n ? pipes[4] : end) : null;
+        long id = idField <= n ? idAt(pipes[idField - 1] + 1, idField < n ? pipes[idField] : end) : 0;
+        out.accept(id, isDoneAt(pipes[0] + 1, pipes[1]), at, until);
+    }
+
+    private void index() {
+        long lineStart = 0;
+        int first = -1;
+        int typeChars = 0;
+        int pipes = 0;
+        int lastFilled = -1;
+        for (int r = 0; r < regions.length; r++) {
+            MappedByteBuffer region = regions[r];
+            long base = r * REGION_SIZE;
+            int limit = region.limit();
+            for (int i = 0; i < limit; i++) {
+                byte b = region.get(i);
+                if (b == '\n') {
+                    addIfRecord(lineStart, base + i, first, typeChars, pipes, lastFilled);
+                    lineStart = base + i + 1;
+                    first = -1;
+                    typeChars = 0;
+                    pipes = 0;
+                    lastFilled = -1;
+                } else if (b == '|') {
+                    if (pipes < MAX_FIELDS) pipeAt[pipes] = base + i;
+                    pipes++;
+                } else if (b != '\r') {
+                    lastFilled = pipes;
+                    if (pipes == 0 && !isBlank(b)) {
+                        if (first == -1) first = b;
+                        typeChars++;
+                    }
+                }
+            }
+        }
+        addIfRecord(lineStart, length, first, typeChars, pipes, lastFilled);
+    }
+
+    /**
+     * Indexes a line if {@link Storage#parseLine} would accept it. Splitting
+     * drops trailing empty fields, so the last field a task needs must be
+     * followed by something or be non-empty itself.
+     *
+     * @param lastFilled the last field holding any character, or -1
+     */
+    private void addIfRecord(long start, long end, int first, int typeChars, int pipes, int lastFilled) {
+        int idField = first == 'T' ? 3 : first == 'D' ? 4 : first == 'E' ? 5 : -1;
+        if (idField < 0 || typeChars != 1 || lastFilled < idField - 1) return;
+        if (first != 'T' && dateAt(fieldStart(3, start), fieldEnd(3, pipes, end)) == null) return;
+        if (first == 'E' && dateAt(fieldStart(4, start), fieldEnd(4, pipes, end)) == null) return;
+        if (pipes >= idField) maxId = Math.max(maxId, idAt(fieldStart(idField, start), fieldEnd(idField, pipes, end)));
+        if (count == starts.length) starts = Arrays.copyOf(starts, count * 2);
+        starts[count++] = start;
+    }
+
+    private long fieldStart(int field, long lineStart) {
+        return field == 0 ? lineStart : pipeAt[field - 1] + 1;
+    }
+
+    private long fieldEnd(int field, int pipes, long lineEnd) {
+        return field < pipes ? pipeAt[field] : lineEnd;
+    }
+
+    /**
+     * Reads a stored date-time. The ISO form Rex writes is read from the bytes
+     * directly; anything else goes through {@link Storage#tryParse}.
+     *
+     * @return the date-time, or {@code null} if it cannot be read
+     */
+    private LocalDateTime dateAt(long from, long to) {
+        while (from < to && isBlank(byteAt(from))) from++;
+        while (to > from && isBlank(byteAt(to - 1))) to--;
+        if (to - from == 16 && byteAt(from + 4) == '-' && byteAt(from + 7) == '-'
+                && byteAt(from + 10) == 'T' && byteAt(from + 13) == ':') {
+            int year = digitsAt(from, 4);
+            int month = digitsAt(from + 5, 2);
+            int day = digitsAt(from + 8, 2);
+            int hour = digitsAt(from + 11, 2);
+            int minute = digitsAt(from + 14, 2);
+            if ((year | month | day | hour | minute) >= 0) {
+                try {
+                    return LocalDateTime.of(year, month, day, hour, minute);
+                } catch (DateTimeException e) {
+                    return null;
+                }
+            }
+        }
+        return Storage.tryParse(new String(bytes(from, (int) (to - from)), StandardCharsets.UTF_8).trim());
+    }
+
+    /** @return the number in a record's id field, or 0 if it is not a positive number */
+    private long idAt(long from, long to) {
+        while (from < to && isBlank(byteAt(from))) from++;
+        while (to > from && isBlank(byteAt(to - 1))) to--;
+        if (to == from || to - from > 18) return 0;
+        long id = 0;
+        for (long pos = from; pos < to; pos++) {
+            byte b = byteAt(pos);
+            if (b < '0' || b > '9') return 0;
+            id = id * 10 + (b - '0');
+        }
+        return id;
+    }
+
+    /** @return true if a status field holds exactly {@code 1}, as {@link Storage#parseLine} requires */
+    private boolean isDoneAt(long from, long to) {
+        while (from < to && isBlank(byteAt(from))) from++;
+        while (to > from && isBlank(byteAt(to - 1))) to--;
+        return to - from == 1 && byteAt(from) == '1';
+    }
+
+    /** @return the value of {@code len} decimal digits, or -1 if any is not a digit */
+    private int digitsAt(long pos, int len) {
+        int n = 0;
+        for (int i = 0; i < len; i++) {
+            byte b = byteAt(pos + i);
+            if (b < '0' || b > '9') return -1;
+            n = n * 10 + (b - '0');
+        }
+        return n;
+    }
+
+    private static boolean isBlank(byte b) {
+        return b == ' ' || b == '\t' || b == '\r';
+    }
+
+    private byte byteAt(long pos) {
+        return regions[(int) (pos / REGION_SIZE)].get((int) (pos % REGION_SIZE));
+    }
+
+    private byte[] bytes(long start, int len) {
+        byte[] out = new byte[len];
+        int copied = 0;
+        while (copied < len) {
+            long pos = start + copied;
+            MappedByteBuffer region = regions[(int) (pos / REGION_SIZE)];
+            int offset = (int) (pos % REGION_SIZE);
+            int n = Math.min(len - copied, region.limit() - offset);
+            region.get(offset, out, copied, n);
+            copied += n;
+        }
+        return out;
+    }
+}
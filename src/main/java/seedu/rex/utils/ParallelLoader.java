@@ -0,0 +1,124 @@
+package seedu.rex.utils;
+
+import seedu.rex.tasks.Task;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Parses a pipe-delimited task file on the common {@link ForkJoinPool}.
+ * <p>
+ * The file is split into byte ranges that end on a newline, each range is
+ * parsed with {@link Storage#parseLine} on its own worker, and the results are
+ * joined in file order. The loaded list is therefore identical to what a
+ * sequential load produces, and so are the 1-based indices users see.
+ */
+final class ParallelLoader {
+    private static final int MIN_CHUNK_BYTES = 1 << 20;
+    private static final int MAX_CHUNK_BYTES = 64 << 20;
+    private static final int CHUNKS_PER_WORKER = 4;
+
+    private ParallelLoader() {
+    }
+
+    /**
+     * Loads every task in a text snapshot.
+     *
+     * @param path the snapshot file
+     * @return the tasks in file order
+     */
+    static List<Task> load(Path path) throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            long length = ch.size();
+            int workers = ForkJoinPool.commonPool().getParallelism() * CHUNKS_PER_WORKER;
+            long target = Math.max(MIN_CHUNK_BYTES, Math.min(MAX_CHUNK_BYTES, length / Math.max(1, workers)));
+
+            List<ChunkParser> chunks = new ArrayList<>();
+            long start = 0;
+            while (start < length) {
+                long end = nextLineStart(ch, Math.min(length, start + target), length);
+                chunks.add(new ChunkParser(ch, start, (int) (end - start)));
+                start = end;
+            }
+
+            try {
+                ForkJoinTask.invokeAll(chunks);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            int total = 0;
+            for (ChunkParser c : chunks) total += c.join().size();
+            List<Task> tasks = new ArrayList<>(total);
+            for (ChunkParser c : chunks) tasks.addAll(c.join());
+            return tasks;
+        }
+    }
+
+    /** @return the offset just past the first newline at or after {@code pos}, or {@code length} */
+    private static long nextLineStart(FileChannel ch, long pos, long length) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(4096);
+        while (pos < length) {
+            buf.clear();
+            int n = ch.read(buf, pos);
+            if (n <= 0) break;
+            for (int i = 0; i < n; i++) {
+                if (buf.get(i) == '\n') return pos + i + 1;
+            }
+            pos += n;
+        }
+        return length;
+    }
+
+    /** Reads one newline-aligned byte range and parses the records in it. */
+    private static final class ChunkParser extends RecursiveTask<List<Task>> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient FileChannel ch;
+        private final long offset;
+        private final int length;
+
+        ChunkParser(FileChannel ch, long offset, int length) {
+            this.ch = ch;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        protected List<Task> compute() {
+            byte[] bytes = new byte[length];
+            ByteBuffer buf = ByteBuffer.wrap(bytes);
+            try {
+                while (buf.hasRemaining()) {
+                    if (ch.read(buf, offset + buf.position()) < 0) break;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            List<Task> tasks = new ArrayList<>();
+            int lineStart = 0;
+            for (int i = 0; i <= length; i++) {
+                if (i < length && bytes[i] != '\n') continue;
+                int lineEnd = i;
+                if (lineEnd > lineStart && bytes[lineEnd - 1] == '\r') lineEnd--;
+                if (lineEnd > lineStart) {
+                    String line = new String(bytes, lineStart, lineEnd - lineStart, StandardCharsets.UTF_8);
+                    Task t = Storage.parseLine(line);
+                    if (t != null) tasks.add(t);
+                }
+                lineStart = i + 1;
+            }
+            return tasks;
+        }
+    }
+}
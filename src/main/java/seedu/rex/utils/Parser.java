@@ -2,6 +2,8 @@ package seedu.rex.utils;
 
 import seedu.rex.ui.Rex;
 
+import java.util.BitSet;
+
 /**
  * The {@code Parser} class handles parsing of user input for the Rex chatbot.
  * <p>
@@ -101,4 +103,81 @@ public class Parser {
 
         return new String[]{desc, from, to};
     }
+
+    /**
+     * Parses a list of task numbers and ranges, such as {@code 3,7,9-20}.
+     *
+     * @param spec the list, with ranges written {@code from-to}
+     * @param max  the highest valid task number
+     * @return the task numbers, ascending and without repeats, or {@code null}
+     *         if the list is malformed or names a number outside 1 to {@code max}
+     */
+    public static int[] parseIndexList(String spec, int max) {
+        BitSet picked = new BitSet(max + 1);
+        for (String part : spec.split(",")) {
+            String[] ends = part.split("-", -1);
+            if (ends.length > 2) return null;
+            int from;
+            int to;
+            try {
+                from = Integer.parseInt(ends[0].trim());
+                to = ends.length == 2 ? Integer.parseInt(ends[1].trim()) : from;
+            } catch (NumberFormatException e) {
+                return null;
+            }
+            if (from < 1 || to > max || from > to) return null;
+            picked.set(from, to + 1);
+        }
+        return picked.stream().toArray();
+    }
+
+    /**
+     * Parses the arguments for an {@code on} command.
+     * <p>
+     * Expected format:
+     * <pre>
+     *   yyyy-MM-dd[ HHmm] [/to yyyy-MM-dd[ HHmm]]
+     * </pre>
+     *
+     * @param args the argument string after the "on" keyword
+     * @return a two-element array: [start, end], where end is the start if no
+     *         {@code /to} is given
+     * @throws IllegalArgumentException if the start or the end is missing
+     */
+    public static String[] parseRange(String args) {
+        int toIdx = args.indexOf("/to");
+        String from = (toIdx == -1 ? args : args.substring(0, toIdx)).trim();
+        String to = toIdx == -1 ? from : args.substring(toIdx + 3).trim();
+        if (from.isEmpty() || to.isEmpty()) {
+            throw new IllegalArgumentException("Usage: on <yyyy-MM-dd[ HHmm]> [/to <yyyy-MM-dd[ HHmm]>]");
+        }
+        return new String[]{from, to};
+    }
+
+    /**
+     * Parses the arguments for a {@code list} command.
+     * <p>
+     * Expected format:
+     * <pre>
+     *   [start] [/size n]
+     * </pre>
+     *
+     * @param args        the argument string after the "list" keyword
+     * @param defaultSize the page size if no {@code /size} is given
+     * @return a two-element array: [start, size], where start is 1 if not given
+     * @throws IllegalArgumentException if the start or the size is not a positive number
+     */
+    public static int[] parsePage(String args, int defaultSize) {
+        int sizeIdx = args.indexOf("/size");
+        String start = (sizeIdx == -1 ? args : args.substring(0, sizeIdx)).trim();
+        String size = sizeIdx == -1 ? "" : args.substring(sizeIdx + 5).trim();
+        try {
+            int[] page = {start.isEmpty() ? 1 : Integer.parseInt(start),
+                    sizeIdx == -1 ? defaultSize : Integer.parseInt(size)};
+            if (page[0] >= 1 && page[1] >= 1) return page;
+        } catch (NumberFormatException e) {
+            // fall through to the usage message
+        }
+        throw new IllegalArgumentException("Usage: list [start] [/size <n>]");
+    }
 }
@@ -0,0 +1,189 @@
+package seedu.rex.utils;
+
+import seedu.rex.tasks.Deadline;
+import seedu.rex.tasks.Event;
+import seedu.rex.tasks.LongObjectMap;
+import seedu.rex.tasks.Task;
+import seedu.rex.tasks.TaskList;
+
+import java.io.Closeable;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Reminds the user of deadlines and events shortly before they come up.
+ * <p>
+ * Each deadline or event that is not done and not yet past gets a timer on a
+ * {@link TimingWheel} with a tick of one minute, set {@code lead} before its
+ * due date or start. Adding, cancelling and rescheduling a reminder are O(1),
+ * and {@link #rebuild} schedules a whole task list in one pass without sorting
+ * it. A timer holds only the task's id and a way to get the task, so a list
+ * still in storage is scheduled from its stored dates and a task is only read
+ * when its reminder fires. A background thread turns the wheel every second
+ * and hands the text of each reminder that comes up to the listener, on that
+ * thread.
+ */
+public final class Reminders implements Closeable {
+    public static final Duration DEFAULT_LEAD = Duration.ofMinutes(30);
+    private static final long TICK_MILLIS = 1_000;
+
+    private final Duration lead;
+    private final Clock clock;
+    private final Consumer<String> listener;
+    private final TimingWheel<Due> wheel;
+    /** The pending timer of each task, by id; unboxed, so a timer costs no map entry object. */
+    private final LongObjectMap<TimingWheel.Timer<Due>> timers = new LongObjectMap<>();
+    private ScheduledExecutorService executor;
+
+    /**
+     * Creates a reminder service with no reminders. Nothing fires until
+     * {@link #start()} is called or {@link #tick()} is called by hand.
+     *
+     * @param lead     how long before a deadline or event to remind the user
+     * @param clock    the clock that says what time it is
+     * @param listener receives the text of each reminder
+     */
+    public Reminders(Duration lead, Clock clock, Consumer<String> listener) {
+        this.lead = lead;
+        this.clock = clock;
+        this.listener = listener;
+        this.wheel = new TimingWheel<>(nowMinute());
+    }
+
+    /** A task waiting on the wheel. */
+    private static final class Due {
+        final long id;
+        /** Gets the task as it is now, or {@code null} once it has been deleted. */
+        final Supplier<Task> task;
+
+        Due(long id, Supplier<Task> task) {
+            this.id = id;
+            this.task = task;
+        }
+    }
+
+    /**
+     * Schedules a reminder for every deadline and event in a list, e.g. one
+     * just loaded from storage, without reading tasks still in storage.
+     *
+     * @param tasks the task list
+     */
+    public void rebuild(TaskList tasks) {
+        tasks.forEachDue(this::schedule);
+    }
+
+    /**
+     * Schedules, or reschedules, the reminder for a task that was added or
+     * marked as not done. Tasks that are done, past, have no date or have no
+     * id yet are ignored.
+     *
+     * @param t the task
+     */
+    public synchronized void scheduled(Task t) {
+        cancel(t.getId());
+        LocalDateTime at = timeOf(t);
+        if (at != null && !t.isDone()) schedule(t.getId(), at, () -> t);
+    }
+
+    /**
+     * Cancels the reminder for a task that was deleted or marked as done.
+     *
+     * @param t the task
+     */
+    public synchronized void cancelled(Task t) {
+        cancel(t.getId());
+    }
+
+    /** @return the number of reminders waiting to fire */
+    public synchronized int pending() {
+        return wheel.size();
+    }
+
+    /**
+     * Fires every reminder that has come up by now. Called every second once
+     * {@link #start()} has been called.
+     */
+    public void tick() {
+        List<Due> due = new ArrayList<>();
+        synchronized (this) {
+            wheel.advanceTo(nowMinute(), d -> {
+                timers.remove(d.id);
+                due.add(d);
+            });
+        }
+        for (Due d : due) {
+            Task t;
+            try {
+                t = d.task.get();
+            } catch (RuntimeException e) {
+                System.err.println("Error reading task for reminder: " + e.getMessage());
+                continue;
+            }
+            if (t != null && !t.isDone()) listener.accept(describe(t));
+        }
+    }
+
+    /** Starts turning the wheel in the background. */
+    public synchronized void start() {
+        if (executor != null) return;
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "rex-reminders");
+            t.setDaemon(true);
+            return t;
+        });
+        executor.scheduleWithFixedDelay(this::tick, 0, TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /** Stops turning the wheel; pending reminders never fire. */
+    @Override
+    public synchronized void close() {
+        if (executor != null) executor.shutdownNow();
+    }
+
+    /**
+     * Schedules a reminder {@code lead} before {@code at}, unless {@code at}
+     * has passed or the task has no id yet and so could never be cancelled,
+     * replacing any reminder the task already has.
+     */
+    private synchronized void schedule(long id, LocalDateTime at, Supplier<Task> task) {
+        if (id == 0) return;
+        cancel(id);
+        if (toMinute(at) <= nowMinute()) return;
+        timers.put(id, wheel.schedule(toMinute(at.minus(lead)), new Due(id, task)));
+    }
+
+    private void cancel(long id) {
+        if (id == 0) return;
+        TimingWheel.Timer<Due> timer = timers.get(id);
+        if (timer == null) return;
+        timers.remove(id);
+        wheel.cancel(timer);
+    }
+
+    /** @return the time a task is reminded of: a deadline's due date or an event's start */
+    private static LocalDateTime timeOf(Task t) {
+        if (t instanceof Deadline) return ((Deadline) t).getBy();
+        if (t instanceof Event) return ((Event) t).getFrom();
+        return null;
+    }
+
+    private static String describe(Task t) {
+        return (t instanceof Event ? "Reminder, starting soon:\n  " : "Reminder, due soon:\n  ") + t;
+    }
+
+    private long nowMinute() {
+        return Math.floorDiv(clock.millis(), 60_000);
+    }
+
+    private long toMinute(LocalDateTime dt) {
+        return Math.floorDiv(dt.atZone(clock.getZone()).toEpochSecond(), 60);
+    }
+}
@@ -0,0 +1,298 @@
+package seedu.rex.utils;
+
+import seedu.rex.tasks.Task;
+import seedu.rex.tasks.TaskList;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Stores a task list as a directory of segment files listed by a manifest.
+ * <p>
+ * Each segment file holds up to {@link TaskList#SEGMENT_CAPACITY} tasks in the
+ * pipe-delimited text format. The {@code manifest} names the segment files in
+ * order with their task counts and highest task ids, plus the journal sequence
+ * number the store includes and the list's next id:
+ * <pre>
+ * rex-segments 2
+ * seq 42
+ * next 4600
+ * 7 4096 4180
+ * 9 311 4577
+ * </pre>
+ * The highest id lets new tasks get ids without reading every segment. It is
+ * left out for a segment holding tasks that have no id yet. The next id keeps
+ * the ids of deleted tasks from being handed out again; version 1 manifests,
+ * written without it, are still read.
+ * A save writes only the segments that changed, each to a new file, and then
+ * replaces the manifest atomically. Files the new manifest no longer lists are
+ * deleted afterwards, so a crash at any point leaves a consistent store.
+ */
+public final class SegmentedStorage {
+    static final String MANIFEST = "manifest";
+    private static final String FORMAT_LINE = "rex-segments 2";
+    private static final String V1_FORMAT_LINE = "rex-segments 1";
+    private static final String SEQ_PREFIX = "seq ";
+    private static final String NEXT_ID_PREFIX = "next ";
+    private static final String SEGMENT_PREFIX = "seg-";
+    private static final String SEGMENT_SUFFIX = ".txt";
+
+    private SegmentedStorage() {
+    }
+
+    /** @return true if {@code path} is a segment directory with a manifest */
+    public static boolean isSegmented(Path path) {
+        return Files.isDirectory(path) && Files.exists(path.resolve(MANIFEST));
+    }
+
+    /**
+     * Opens a segmented store. Only the manifest is read; each segment file is
+     * read the first time one of its tasks is used.
+     *
+     * @param dir the segment directory
+     * @return the task list, with no segment marked dirty
+     */
+    public static TaskList load(Path dir) throws IOException {
+        List<TaskList.Segment> segments = new ArrayList<>();
+        for (long[] entry : readManifest(dir).entries) {
+            Path file = segmentFile(dir, entry[0]);
+            segments.add(TaskList.Segment.stored(entry[0], (int) entry[1], entry[2], () -> readSegment(file),
+                    (from, to, out) -> scanSegment(file, out)));
+        }
+        return TaskList.fromSegments(segments);
+    }
+
+    /**
+     * Reads the journal sequence number recorded in the manifest.
+     *
+     * @param dir the segment directory
+     * @return the sequence number, or 0 if the manifest has none
+     */
+    public static long loadSeq(Path dir) throws IOException {
+        return readManifest(dir).seq;
+    }
+
+    /**
+     * Reads the list's next id recorded in the manifest.
+     *
+     * @param dir the segment directory
+     * @return the next id, or 0 if the manifest has none
+     */
+    public static long loadNextId(Path dir) throws IOException {
+        return readManifest(dir).nextId;
+    }
+
+    /**
+     * Writes the segments that changed and a manifest listing all of them.
+     *
+     * @param dir    the segment directory, created if missing
+     * @param states the segment layout from {@link TaskList#segmentStates()}
+     * @param seq    the last journal sequence number the store includes
+     * @return the file id each changed segment was written to, or -1 for unchanged ones
+     */
+    public static long[] save(Path dir, List<TaskList.SegmentState> states, long seq) throws IOException {
+        return save(dir, states, seq, 0);
+    }
+
+    /**
+     * Writes the segments that changed and a manifest listing all of them and
+     * the list's next id.
+     *
+     * @param dir    the segment directory, created if missing
+     * @param states the segment layout from {@link TaskList#segmentStates()}
+     * @param seq    the last journal sequence number the store includes
+     * @param nextId the list's {@link TaskList#nextId()}, or 0 if unknown
+     * @return the file id each changed segment was written to, or -1 for unchanged ones
+     */
+    public static long[] save(Path dir, List<TaskList.SegmentState> states, long seq, long nextId)
+            throws IOException {
+        Files.createDirectories(dir);
+        long nextFile = firstFreeId(dir);
+        for (TaskList.SegmentState s : states) nextFile = Math.max(nextFile, s.fileId() + 1);
+
+        long[] ids = new long[states.size()];
+        List<long[]> entries = new ArrayList<>(states.size());
+        for (int i = 0; i < states.size(); i++) {
+            TaskList.SegmentState s = states.get(i);
+            long id = s.fileId();
+            ids[i] = -1;
+            if (s.needsWrite() || id < 0) {
+                id = nextFile++;
+                writeSegment(segmentFile(dir, id), s.tasks());
+                ids[i] = id;
+            }
+            entries.add(new long[] {id, s.count(), s.maxTaskId()});
+        }
+        commit(dir, entries, seq, nextId);
+        return ids;
+    }
+
+    /**
+     * Writes tasks as a fresh segmented store as they are produced, holding
+     * at most one segment in memory.
+     *
+     * @param dir    the segment directory, created if missing
+     * @param tasks  the tasks to write
+     * @param seq    the last journal sequence number the store includes
+     * @param nextId the list's next id, or 0 if unknown
+     */
+    static void saveAll(Path dir, Iterator<Task> tasks, long seq, long nextId) throws IOException {
+        Files.createDirectories(dir);
+        long nextFile = firstFreeId(dir);
+        List<long[]> entries = new ArrayList<>();
+        List<Task> segment = new ArrayList<>(TaskList.SEGMENT_CAPACITY);
+        while (tasks.hasNext()) {
+            segment.add(tasks.next());
+            if (segment.size() == TaskList.SEGMENT_CAPACITY || !tasks.hasNext()) {
+                long id = nextFile++;
+                writeSegment(segmentFile(dir, id), segment);
+                entries.add(new long[] {id, segment.size(), maxTaskId(segment)});
+                segment.clear();
+            }
+        }
+        commit(dir, entries, seq, nextId);
+    }
+
+    /**
+     * Reads every task in the store, one segment file at a time.
+     * The returned stream must be closed.
+     *
+     * @param dir the segment directory
+     * @return the tasks in order
+     */
+    static Stream<Task> stream(Path dir) throws IOException {
+        return readManifest(dir).entries.stream().flatMap(entry -> {
+            try {
+                return Storage.parseLines(Files.lines(segmentFile(dir, entry[0]), StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /** @return the highest task id among {@code tasks}, or -1 if any task has no id */
+    private static long maxTaskId(List<Task> tasks) {
+        long max = 0;
+        for (Task t : tasks) {
+            if (t.getId() == 0) return -1;
+            max = Math.max(max, t.getId());
+        }
+        return max;
+    }
+
+    /** @return an id above every segment file the current manifest lists, so none is overwritten */
+    private static long firstFreeId(Path dir) throws IOException {
+        long nextId = 0;
+        if (Files.exists(dir.resolve(MANIFEST))) {
+            for (long[] entry : readManifest(dir).entries) nextId = Math.max(nextId, entry[0] + 1);
+        }
+        return nextId;
+    }
+
+    /** Replaces the manifest with one listing {@code entries}, then deletes unlisted segment files. */
+    private static void commit(Path dir, List<long[]> entries, long seq, long nextId) throws IOException {
+        List<String> manifest = new ArrayList<>(entries.size() + 3);
+        manifest.add(FORMAT_LINE);
+        manifest.add(SEQ_PREFIX + seq);
+        if (nextId > 0) manifest.add(NEXT_ID_PREFIX + nextId);
+        Set<String> live = new HashSet<>();
+        for (long[] entry : entries) {
+            manifest.add(entry[0] + " " + entry[1] + (entry[2] >= 0 ? " " + entry[2] : ""));
+            live.add(segmentFile(dir, entry[0]).getFileName().toString());
+        }
+
+        Path tmp = dir.resolve(MANIFEST + ".tmp");
+        Files.write(tmp, manifest, StandardCharsets.UTF_8);
+        Storage.replace(tmp, dir.resolve(MANIFEST));
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, SEGMENT_PREFIX + "*")) {
+            for (Path f : files) {
+                if (!live.contains(f.getFileName().toString())) Files.deleteIfExists(f);
+            }
+        }
+    }
+
+    /** @return the total size of the manifest and segment files */
+    static long sizeBytes(Path dir) throws IOException {
+        long total = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path f : files) total += Files.size(f);
+        }
+        return total;
+    }
+
+    private static Path segmentFile(Path dir, long id) {
+        return dir.resolve(SEGMENT_PREFIX + id + SEGMENT_SUFFIX);
+    }
+
+    private static void writeSegment(Path file, List<Task> tasks) throws IOException {
+        List<String> lines = new ArrayList<>(tasks.size());
+        for (Task t : tasks) lines.add(Storage.serialise(t));
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(tmp, lines, StandardCharsets.UTF_8);
+        Storage.replace(tmp, file);
+    }
+
+    private static List<Task> readSegment(Path file) {
+        try (Stream<Task> tasks = Storage.parseLines(Files.lines(file, StandardCharsets.UTF_8))) {
+            return tasks.collect(Collectors.toCollection(ArrayList::new));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Reads the dates in a whole segment file; a segment is always scanned in full. */
+    private static void scanSegment(Path file, TaskList.DateSink out) {
+        try (Stream<String> lines = Files.lines(file, StandardCharsets.UTF_8)) {
+            lines.forEach(line -> Storage.scanDue(line, out));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Manifest readManifest(Path dir) throws IOException {
+        List<String> lines = Files.readAllLines(dir.resolve(MANIFEST), StandardCharsets.UTF_8);
+        String format = lines.isEmpty() ? "" : lines.get(0).trim();
+        if (!FORMAT_LINE.equals(format) && !V1_FORMAT_LINE.equals(format)) {
+            throw new IOException("Not a segment manifest: " + dir.resolve(MANIFEST));
+        }
+        Manifest m = new Manifest();
+        for (String line : lines.subList(1, lines.size())) {
+            String s = line.trim();
+            if (s.isEmpty()) continue;
+            try {
+                if (s.startsWith(SEQ_PREFIX)) {
+                    m.seq = Long.parseLong(s.substring(SEQ_PREFIX.length()).trim());
+                    continue;
+                }
+                if (s.startsWith(NEXT_ID_PREFIX)) {
+                    m.nextId = Long.parseLong(s.substring(NEXT_ID_PREFIX.length()).trim());
+                    continue;
+                }
+                String[] parts = s.split("\\s+");
+                long maxTaskId = parts.length > 2 ? Long.parseLong(parts[2]) : -1;
+                m.entries.add(new long[] {Long.parseLong(parts[0]), Integer.parseInt(parts[1]), maxTaskId});
+            } catch (RuntimeException e) {
+                throw new IOException("Corrupt segment manifest line: " + line, e);
+            }
+        }
+        return m;
+    }
+
+    private static final class Manifest {
+        private long seq;
+        private long nextId;
+        private final List<long[]> entries = new ArrayList<>();
+    }
+}
@@ -0,0 +1,157 @@
+package seedu.rex.utils;
+
+import seedu.rex.tasks.Task;
+import seedu.rex.tasks.TaskList;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * The default {@link StorageEngine}: a snapshot file kept up to date by a
+ * {@link Journal} of changes and a {@link CompactionScheduler}.
+ * <p>
+ * The snapshot is pipe-delimited text unless it has been migrated to another
+ * format through {@link Storage}, whose format detection this engine relies on.
+ */
+public final class SnapshotStorageEngine implements StorageEngine {
+    /** Snapshots at least this large are memory-mapped and their tasks created on first use. */
+    private static final long LAZY_LOAD_BYTES = 16L * 1024 * 1024;
+
+    private final Path path;
+    private final StorageOptions options;
+    private final Journal journal;
+    private CompactionScheduler compactor;
+    private TaskList tasks;
+
+    /**
+     * Creates an engine for a snapshot file. Nothing is read until {@link #open()}.
+     *
+     * @param path    the snapshot file
+     * @param options journal and compaction settings
+     */
+    public SnapshotStorageEngine(Path path, StorageOptions options) {
+        this.path = path;
+        this.options = options;
+        this.journal = new Journal(Journal.pathFor(path), options.flushIntervalMillis(), options.maxBatch());
+    }
+
+    /**
+     * Loads the last snapshot, replays the journal on top and starts background
+     * compaction. New ids continue from the snapshot's next id, so ids of tasks
+     * deleted before it was written are not reused. An unreadable snapshot or
+     * journal leaves whatever could be read.
+     */
+    @Override
+    public TaskList open() {
+        long seq = 0;
+        try {
+            tasks = loadTasks();
+            seq = Storage.loadSeq(path);
+            tasks.reserveIds(Storage.loadNextId(path));
+        } catch (Exception e) {
+            tasks = new TaskList();
+        }
+        try {
+            journal.replay(tasks, seq);
+        } catch (IOException e) {
+            // an unreadable journal leaves us with the snapshot alone
+        }
+        compactor = new CompactionScheduler(path, journal, this::checkpoint,
+                options.compactionPeriodMillis(), options.maxLogBytes(), options.maxLogRatio());
+        compactor.start();
+        return tasks;
+    }
+
+    /**
+     * Loads the snapshot, lazily if it is large enough for eager parsing to delay startup.
+     * Segmented stores always read each segment on first use. Eagerly loaded
+     * tasks are stored column by column if the options ask for it.
+     */
+    private TaskList loadTasks() throws IOException {
+        if (SegmentedStorage.isSegmented(path)) return SegmentedStorage.load(path);
+        if (Files.isRegularFile(path) && Files.size(path) >= LAZY_LOAD_BYTES) {
+            List<Task> lazy = Storage.loadLazy(path);
+            return TaskList.wrap(lazy, Storage.maxId(lazy), Storage.dueScan(lazy));
+        }
+        List<Task> loaded = Storage.load(path);
+        return options.isColumnar() ? TaskList.columnar(loaded) : new TaskList(loaded);
+    }
+
+    /**
+     * Takes a point-in-time copy of the task list for the compactor. The list
+     * captures it under the lock every change is made and journaled under, so
+     * the copy and the journal sequence number are in step. A segmented store
+     * only copies, and later writes, the segments that changed. The list counts
+     * as saved only once the write has succeeded.
+     *
+     * @return the checkpoint to write
+     */
+    private CompactionScheduler.Checkpoint checkpoint() {
+        boolean isSegmented = SegmentedStorage.isSegmented(path);
+        TaskList.Capture capture = tasks.capture(isSegmented, journal::lastSeq);
+        long seq = capture.recorded();
+        if (!isSegmented) {
+            return new CompactionScheduler.Checkpoint(seq, () -> {
+                Storage.save(path, capture.tasks(), seq, capture.nextId());
+                tasks.markSaved(capture.version());
+            });
+        }
+        return new CompactionScheduler.Checkpoint(seq, () -> {
+            long[] fileIds = SegmentedStorage.save(path, capture.segments(), seq, capture.nextId());
+            tasks.segmentsSaved(capture.segments(), fileIds);
+            tasks.markSaved(capture.version());
+        });
+    }
+
+    @Override
+    public void added(Task task) throws IOException {
+        journal.appendAdd(task);
+    }
+
+    @Override
+    public void inserted(int oneBasedIndex, Task task) throws IOException {
+        journal.appendInsert(oneBasedIndex, task);
+    }
+
+    @Override
+    public void marked(int oneBasedIndex, boolean done) throws IOException {
+        journal.append(done ? Journal.MARK : Journal.UNMARK, oneBasedIndex);
+    }
+
+    @Override
+    public void deleted(int oneBasedIndex) throws IOException {
+        journal.append(Journal.DELETE, oneBasedIndex);
+    }
+
+    @Override
+    public void markedAll(int[] oneBasedIndexes, boolean done) throws IOException {
+        journal.append(done ? Journal.MARK : Journal.UNMARK, oneBasedIndexes);
+    }
+
+    @Override
+    public void deletedAll(int[] oneBasedIndexes) throws IOException {
+        journal.append(Journal.DELETE, oneBasedIndexes);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        journal.flush();
+    }
+
+    /**
+     * Stops background compaction, waits for the last journal flush, and
+     * compacts only if the journal has outgrown its thresholds.
+     */
+    @Override
+    public void close() throws IOException {
+        if (compactor != null) compactor.close();
+        try {
+            journal.flush();
+            if (tasks != null && tasks.isDirty() && compactor != null) compactor.compactIfNeeded();
+        } finally {
+            journal.close();
+        }
+    }
+}
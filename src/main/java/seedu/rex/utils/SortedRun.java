@@ -0,0 +1,239 @@
+package seedu.rex.utils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * An immutable file of key-ordered entries written by {@link LsmStorageEngine}.
+ * <p>
+ * Layout (all multi-byte numbers big-endian):
+ * <pre>
+ *   header : "REXL" | version (1 byte) | generation (8) | journal seq (8) | next id (8)
+ *            | superseded count (4) | superseded generations (8 each)
+ *   entry  : key (8) | kind (1 byte: 0 put, 1 delete) | for puts, length (4) and UTF-8 task line
+ *   end    : key 0 | kind 2
+ * </pre>
+ * A run written by a merge lists the generations it replaces, so inputs left
+ * behind by a crash mid-merge are recognised and removed on the next open.
+ * The next id is the task list's as of the run, so that ids of tasks the run
+ * deletes are not handed out again; version 1 runs, written without it, are
+ * still read.
+ */
+final class SortedRun {
+    static final byte[] MAGIC = {'R', 'E', 'X', 'L'};
+    static final int VERSION = 2;
+    private static final int PUT = 0;
+    private static final int DELETE = 1;
+    private static final int END = 2;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    final Path path;
+    final long generation;
+    final long seq;
+    final long nextId;
+    final long[] supersedes;
+
+    private SortedRun(Path path, long generation, long seq, long nextId, long[] supersedes) {
+        this.path = path;
+        this.generation = generation;
+        this.seq = seq;
+        this.nextId = nextId;
+        this.supersedes = supersedes;
+    }
+
+    /**
+     * Reads a run's header.
+     *
+     * @param path the run file
+     * @return the run, whose entries are read through {@link #cursor()}
+     */
+    static SortedRun open(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            return readHeader(in, path);
+        }
+    }
+
+    private static SortedRun readHeader(DataInputStream in, Path path) throws IOException {
+        byte[] magic = new byte[MAGIC.length];
+        in.readFully(magic);
+        if (!Arrays.equals(magic, MAGIC)) throw new IOException("Not a Rex run file: " + path);
+        int version = in.readUnsignedByte();
+        if (version < 1 || version > VERSION) throw new IOException("Unsupported Rex run version " + version);
+        long generation = in.readLong();
+        long seq = in.readLong();
+        long nextId = version > 1 ? in.readLong() : 0;
+        long[] supersedes = new long[in.readInt()];
+        for (int i = 0; i < supersedes.length; i++) supersedes[i] = in.readLong();
+        return new SortedRun(path, generation, seq, nextId, supersedes);
+    }
+
+    /** @return a reader positioned before the first entry */
+    Cursor cursor() throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), BUFFER_SIZE));
+        try {
+            readHeader(in, path);
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+        return new Cursor(this, in);
+    }
+
+    /**
+     * Starts writing a run. Entries must be put in ascending key order;
+     * the file appears under {@code path} only once {@link Writer#finish()} succeeds.
+     */
+    static Writer create(Path path, long generation, long seq, long nextId, long[] supersedes)
+            throws IOException {
+        return new Writer(path, generation, seq, nextId, supersedes);
+    }
+
+    /**
+     * Walks several runs in key order, yielding only the newest entry for each key.
+     *
+     * @param runs the runs to merge, in any order
+     * @param sink receives each key with its newest value, or {@code null} for a deletion
+     */
+    static void merge(List<SortedRun> runs, EntrySink sink) throws IOException {
+        PriorityQueue<Cursor> queue = new PriorityQueue<>((a, b) -> a.key != b.key
+                ? Long.compare(a.key, b.key) : Long.compare(b.run.generation, a.run.generation));
+        List<Cursor> open = new ArrayList<>();
+        try {
+            for (SortedRun r : runs) {
+                Cursor c = r.cursor();
+                open.add(c);
+                if (c.advance()) queue.add(c);
+            }
+            while (!queue.isEmpty()) {
+                Cursor newest = queue.poll();
+                long key = newest.key;
+                sink.accept(key, newest.value);
+                if (newest.advance()) queue.add(newest);
+                while (!queue.isEmpty() && queue.peek().key == key) {
+                    Cursor older = queue.poll();
+                    if (older.advance()) queue.add(older);
+                }
+            }
+        } finally {
+            for (Cursor c : open) c.close();
+        }
+    }
+
+    /** Receives merged entries. */
+    @FunctionalInterface
+    interface EntrySink {
+        void accept(long key, String value) throws IOException;
+    }
+
+    /** Sequential reader over one run's entries. */
+    static final class Cursor implements Closeable {
+        private final SortedRun run;
+        private final DataInputStream in;
+        private long key;
+        private String value;
+
+        private Cursor(SortedRun run, DataInputStream in) {
+            this.run = run;
+            this.in = in;
+        }
+
+        /** @return true if another entry was read, false at the end of the run */
+        boolean advance() throws IOException {
+            try {
+                long k = in.readLong();
+                int kind = in.readUnsignedByte();
+                if (kind == END) return false;
+                if (kind == PUT) {
+                    byte[] bytes = new byte[in.readInt()];
+                    in.readFully(bytes);
+                    value = new String(bytes, StandardCharsets.UTF_8);
+                } else if (kind == DELETE) {
+                    value = null;
+                } else {
+                    throw new IOException("Corrupt Rex run file: " + run.path);
+                }
+                key = k;
+                return true;
+            } catch (EOFException e) {
+                throw new IOException("Truncated Rex run file: " + run.path, e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /** Writes a run beside its final name and moves it into place when finished. */
+    static final class Writer implements Closeable {
+        private final SortedRun run;
+        private final Path tmp;
+        private final DataOutputStream out;
+        private long lastKey = Long.MIN_VALUE;
+        private boolean finished;
+
+        private Writer(Path path, long generation, long seq, long nextId, long[] supersedes) throws IOException {
+            this.run = new SortedRun(path, generation, seq, nextId, supersedes);
+            this.tmp = path.resolveSibling(path.getFileName() + ".tmp");
+            this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), BUFFER_SIZE));
+            out.write(MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(generation);
+            out.writeLong(seq);
+            out.writeLong(nextId);
+            out.writeInt(supersedes.length);
+            for (long g : supersedes) out.writeLong(g);
+        }
+
+        /**
+         * Appends an entry.
+         *
+         * @param key   a key greater than every key put before
+         * @param value the stored task line, or {@code null} to record a deletion
+         */
+        void put(long key, String value) throws IOException {
+            if (key <= lastKey) throw new IllegalArgumentException("Keys must ascend: " + key + " after " + lastKey);
+            lastKey = key;
+            out.writeLong(key);
+            if (value == null) {
+                out.writeByte(DELETE);
+            } else {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                out.writeByte(PUT);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+        }
+
+        /** @return the finished run, now visible under its final name */
+        SortedRun finish() throws IOException {
+            out.writeLong(0);
+            out.writeByte(END);
+            out.close();
+            Storage.replace(tmp, run.path);
+            finished = true;
+            return run;
+        }
+
+        /** Discards the file if {@link #finish()} was not reached. */
+        @Override
+        public void close() throws IOException {
+            if (finished) return;
+            out.close();
+            Files.deleteIfExists(tmp);
+        }
+    }
+}
@@ -3,86 +3,454 @@ package seedu.rex.utils;
 import seedu.rex.tasks.Deadline;
 import seedu.rex.tasks.Event;
 import seedu.rex.tasks.Task;
+import seedu.rex.tasks.TaskList;
 import seedu.rex.tasks.Todo;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardCopyOption;
+import java.time.DateTimeException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+/**
+ * Loads and saves task snapshots.
+ * <p>
+ * Snapshots are pipe-delimited text by default. A file that has been
+ * converted with {@link #migrateToBinary(Path)} is recognised by its header
+ * and keeps being written in the {@link BinaryStorage} format. Likewise a
+ * file converted with {@link #migrateToCompressed(Path)} stays a
+ * {@link CompressedStorage} archive, and one converted with
+ * {@link #migrateToSegments(Path)} becomes a {@link SegmentedStorage} directory.
+ * <p>
+ * Every loader builds tasks through their constructors, so repeated
+ * descriptions share one string via {@link seedu.rex.tasks.DescriptionPool}.
+ */
 public final class Storage {
+    /**
+     * Prefix of the optional first line recording the journal sequence number
+     * a snapshot includes, optionally followed by {@link #NEXT_ID_FIELD} and
+     * the list's next id, e.g. {@code # seq 42 next 108}.
+     */
+    static final String SEQ_HEADER = "# seq ";
+    static final String NEXT_ID_FIELD = "next";
+    /** Text snapshots at least this large are parsed in parallel by {@link ParallelLoader}. */
+    static final long PARALLEL_LOAD_BYTES = 4L * 1024 * 1024;
+
     private Storage() {
     }
 
     public static List<Task> load(Path path) throws IOException {
+        if (SegmentedStorage.isSegmented(path)) return new ArrayList<>(SegmentedStorage.load(path).asList());
         if (!Files.exists(path)) {
             Path dir = path.getParent();
             if (dir != null && !Files.exists(dir)) Files.createDirectories(dir);
             Files.createFile(path);
             return new ArrayList<>();
         }
+        if (BinaryStorage.isBinary(path)) return BinaryStorage.load(path);
+        if (CompressedStorage.isCompressed(path)) return CompressedStorage.load(path);
+        if (Files.size(path) >= PARALLEL_LOAD_BYTES) return ParallelLoader.load(path);
 
-        List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
-        List<Task> tasks = new ArrayList<>();
-        for (String line : lines) {
-            String[] parts = Arrays.stream(line.split("\\|"))
-                    .map(String::trim).toArray(String[]::new);
-            if (parts.length < 3) continue;
-            String type = parts[0];
-            boolean done = "1".equals(parts[1]);
-
-            switch (type) {
-                case "T": {
-                    Task t = new Todo(parts[2]);
-                    if (done) t.markDone();
-                    tasks.add(t);
-                    break;
-                }
-                case "D": {
-                    if (parts.length < 4) break;
-                    LocalDateTime by = tryParse(parts[3]);
-                    Task t = new Deadline(parts[2], by);
-                    if (done) t.markDone();
-                    tasks.add(t);
-                    break;
-                }
-                case "E": {
-                    if (parts.length < 5) break;
-                    LocalDateTime from = tryParse(parts[3]);
-                    LocalDateTime to = tryParse(parts[4]);
-                    Task t = new Event(parts[2], from, to);
-                    if (done) t.markDone();
-                    tasks.add(t);
-                    break;
-                }
+        try (Stream<Task> tasks = stream(path)) {
+            return tasks.collect(Collectors.toCollection(ArrayList::new));
+        }
+    }
+
+    /**
+     * Reads a snapshot one task at a time, so files larger than the heap can
+     * be processed. Text is parsed line by line from a buffered reader, binary
+     * files record by record, and segmented stores segment by segment.
+     * <p>
+     * The returned stream holds the file open and must be closed, e.g. with
+     * try-with-resources. Read errors surface as {@link UncheckedIOException}.
+     *
+     * @param path the snapshot file
+     * @return the tasks in file order, or an empty stream if the file is missing
+     */
+    public static Stream<Task> stream(Path path) throws IOException {
+        if (SegmentedStorage.isSegmented(path)) return SegmentedStorage.stream(path);
+        if (!Files.exists(path)) return Stream.empty();
+        if (BinaryStorage.isBinary(path)) return BinaryStorage.stream(path);
+        if (CompressedStorage.isCompressed(path)) return CompressedStorage.stream(path);
+        return parseLines(Files.lines(path, StandardCharsets.UTF_8));
+    }
+
+    /** @return the tasks parsed from {@code lines}, skipping headers and malformed lines */
+    static Stream<Task> parseLines(Stream<String> lines) {
+        return lines.map(Storage::parseLine).filter(Objects::nonNull);
+    }
+
+    /**
+     * Opens a snapshot without creating its tasks up front.
+     * <p>
+     * A text snapshot is memory-mapped and only a line-offset index is built;
+     * each task is created the first time it is read from the returned list.
+     * Binary snapshots are cheap to decode and compressed archives cannot be
+     * indexed by line, so both are loaded eagerly.
+     *
+     * @param path the snapshot file
+     * @return a mutable list of the snapshot's tasks
+     */
+    public static List<Task> loadLazy(Path path) throws IOException {
+        if (!Files.isRegularFile(path) || BinaryStorage.isBinary(path) || CompressedStorage.isCompressed(path)) {
+            return load(path);
+        }
+        return new LazyTaskList(MappedTaskFile.open(path));
+    }
+
+    /**
+     * Returns the highest task id in a list from {@link #loadLazy}, without
+     * creating the tasks a lazy list has not read yet.
+     *
+     * @param tasks a list returned by {@link #loadLazy}
+     * @return the highest id, or 0 if no task has one
+     */
+    public static long maxId(List<Task> tasks) {
+        if (tasks instanceof LazyTaskList) return ((LazyTaskList) tasks).maxFileId();
+        long max = 0;
+        for (Task t : tasks) max = Math.max(max, t.getId());
+        return max;
+    }
+
+    /**
+     * Returns a reader of the due dates in a list from {@link #loadLazy}, for
+     * {@link TaskList#wrap}. Only a lazy list can read them without creating tasks.
+     *
+     * @param tasks a list returned by {@link #loadLazy}
+     * @return the reader, or {@code null} if the list cannot skip creating tasks
+     */
+    public static TaskList.DueScan dueScan(List<Task> tasks) {
+        if (!(tasks instanceof LazyTaskList)) return null;
+        LazyTaskList lazy = (LazyTaskList) tasks;
+        return lazy::scanDue;
+    }
+
+    /**
+     * Reads the journal sequence number recorded in a snapshot's header.
+     *
+     * @param path the snapshot file
+     * @return the sequence number, or 0 if the file is missing or has no header
+     */
+    public static long loadSeq(Path path) throws IOException {
+        if (!Files.exists(path)) return 0;
+        if (SegmentedStorage.isSegmented(path)) return SegmentedStorage.loadSeq(path);
+        if (BinaryStorage.isBinary(path)) return BinaryStorage.loadSeq(path);
+        if (CompressedStorage.isCompressed(path)) return CompressedStorage.loadSeq(path);
+        return readTextHeader(path)[0];
+    }
+
+    /**
+     * Reads the next id recorded in a snapshot's header, for
+     * {@link TaskList#reserveIds}: ids below it may have belonged to tasks
+     * deleted before the snapshot was written.
+     *
+     * @param path the snapshot file
+     * @return the next id, or 0 if the file is missing or was written without one
+     */
+    public static long loadNextId(Path path) throws IOException {
+        if (!Files.exists(path)) return 0;
+        if (SegmentedStorage.isSegmented(path)) return SegmentedStorage.loadNextId(path);
+        if (BinaryStorage.isBinary(path)) return BinaryStorage.loadNextId(path);
+        if (CompressedStorage.isCompressed(path)) return CompressedStorage.loadNextId(path);
+        return readTextHeader(path)[1];
+    }
+
+    /** @return the sequence number and next id in a text snapshot's header, each 0 if absent or malformed */
+    private static long[] readTextHeader(Path path) throws IOException {
+        long[] header = new long[2];
+        try (BufferedReader in = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String first = in.readLine();
+            if (first == null || !first.startsWith(SEQ_HEADER)) return header;
+            String[] fields = first.substring(SEQ_HEADER.length()).trim().split("\\s+");
+            try {
+                header[0] = Long.parseLong(fields[0]);
+                if (fields.length > 2 && NEXT_ID_FIELD.equals(fields[1])) header[1] = Long.parseLong(fields[2]);
+            } catch (NumberFormatException e) {
+                // a malformed header counts as no header
             }
         }
-        return tasks;
+        return header;
+    }
+
+    /**
+     * Parses one stored line into a task.
+     *
+     * @param line a line in {@code T | 0 | desc}, {@code D | 0 | desc | by}
+     *             or {@code E | 0 | desc | from | to} form, optionally
+     *             followed by {@code | id}
+     * @return the task, or {@code null} if the line is a header or malformed
+     */
+    static Task parseLine(String line) {
+        if (line.startsWith("#")) return null;
+        String[] parts = Arrays.stream(line.split("\\|"))
+                .map(String::trim).toArray(String[]::new);
+        if (parts.length < 3) return null;
+        String type = parts[0];
+        boolean done = "1".equals(parts[1]);
+
+        Task t;
+        int idField;
+        switch (type) {
+            case "T":
+                t = new Todo(parts[2]);
+                idField = 3;
+                break;
+            case "D":
+                if (parts.length < 4) return null;
+                LocalDateTime by = tryParse(parts[3]);
+                if (by == null) return null;
+                t = new Deadline(parts[2], by);
+                idField = 4;
+                break;
+            case "E":
+                if (parts.length < 5) return null;
+                LocalDateTime from = tryParse(parts[3]);
+                LocalDateTime to = tryParse(parts[4]);
+                if (from == null || to == null) return null;
+                t = new Event(parts[2], from, to);
+                idField = 5;
+                break;
+            default:
+                return null;
+        }
+        if (done) t.markDone();
+        if (parts.length > idField) t.setId(tryParseId(parts[idField]));
+        return t;
+    }
+
+    /**
+     * Reads the dates of one stored line without creating its task. Lines
+     * {@link #parseLine} would reject and todos are skipped.
+     *
+     * @param line a stored line
+     * @param out  receives a deadline's or event's dates
+     */
+    static void scanDue(String line, TaskList.DateSink out) {
+        if (line.startsWith("#")) return;
+        String[] parts = Arrays.stream(line.split("\\|"))
+                .map(String::trim).toArray(String[]::new);
+        if (parts.length < 4) return;
+        int idField;
+        LocalDateTime end = null;
+        switch (parts[0]) {
+            case "D":
+                idField = 4;
+                break;
+            case "E":
+                if (parts.length < 5) return;
+                end = tryParse(parts[4]);
+                if (end == null) return;
+                idField = 5;
+                break;
+            default:
+                return;
+        }
+        LocalDateTime at = tryParse(parts[3]);
+        if (at == null) return;
+        out.accept(parts.length > idField ? tryParseId(parts[idField]) : 0, "1".equals(parts[1]), at, end);
+    }
+
+    /** @return the id in a line's optional last field, or 0 (no id yet) if it is not a positive number */
+    private static long tryParseId(String s) {
+        try {
+            return Math.max(0, Long.parseLong(s));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
     }
 
-    private static LocalDateTime tryParse(String s) {
+    /** @return the stored date-time, or {@code null} if it is in no format Rex reads */
+    static LocalDateTime tryParse(String s) {
         try {
             return LocalDateTime.parse(s);
-        } catch (Exception ignore) {
+        } catch (DateTimeException ignore) {
+            // fall through to the formats users type
+        }
+        try {
             return DateTimeUtil.parseFlexible(s);
+        } catch (DateTimeException e) {
+            return null;
         }
     }
 
     public static void save(Path path, List<Task> tasks) throws IOException {
+        save(path, tasks, 0);
+    }
+
+    /**
+     * Writes a full snapshot of the task list.
+     * <p>
+     * The file is written beside the target and moved into place, so a crash
+     * mid-save leaves the previous snapshot intact. The existing file's format
+     * (text, binary, compressed or segmented) is kept; a segmented store is rewritten in
+     * full, so callers that track dirty segments use {@link SegmentedStorage#save}.
+     *
+     * @param path  the snapshot file
+     * @param tasks the tasks to write
+     * @param seq   the last journal sequence number the snapshot includes, or 0 for none
+     */
+    public static void save(Path path, List<Task> tasks, long seq) throws IOException {
+        save(path, tasks.iterator(), seq, 0);
+    }
+
+    /**
+     * Writes a full snapshot that also records the list's next id, so that
+     * ids of tasks deleted before the save are not handed out again after
+     * it is loaded. Otherwise behaves like {@link #save(Path, List, long)}.
+     *
+     * @param path   the snapshot file
+     * @param tasks  the tasks to write
+     * @param seq    the last journal sequence number the snapshot includes, or 0 for none
+     * @param nextId the list's {@link TaskList#nextId()}, or 0 if unknown
+     */
+    public static void save(Path path, List<Task> tasks, long seq, long nextId) throws IOException {
+        save(path, tasks.iterator(), seq, nextId);
+    }
+
+    /**
+     * Writes a full snapshot from tasks produced one at a time, without
+     * holding them or their serialised lines in memory. Otherwise behaves
+     * like {@link #save(Path, List, long)}.
+     *
+     * @param path  the snapshot file
+     * @param tasks the tasks to write
+     * @param seq   the last journal sequence number the snapshot includes, or 0 for none
+     */
+    public static void save(Path path, Iterator<Task> tasks, long seq) throws IOException {
+        save(path, tasks, seq, 0);
+    }
+
+    /**
+     * Writes a full snapshot from tasks produced one at a time, recording the
+     * list's next id. Otherwise behaves like {@link #save(Path, List, long, long)}.
+     *
+     * @param path   the snapshot file
+     * @param tasks  the tasks to write
+     * @param seq    the last journal sequence number the snapshot includes, or 0 for none
+     * @param nextId the list's {@link TaskList#nextId()}, or 0 if unknown
+     */
+    public static void save(Path path, Iterator<Task> tasks, long seq, long nextId) throws IOException {
+        if (SegmentedStorage.isSegmented(path)) {
+            SegmentedStorage.saveAll(path, tasks, seq, nextId);
+            return;
+        }
         Path dir = path.getParent();
         if (dir != null && !Files.exists(dir)) Files.createDirectories(dir);
-        List<String> lines = new ArrayList<>(tasks.size());
-        for (Task t : tasks) lines.add(serialise(t));
-        Files.write(path, lines, StandardCharsets.UTF_8,
-                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        if (BinaryStorage.isBinary(path)) {
+            BinaryStorage.save(tmp, tasks, seq, nextId);
+        } else if (CompressedStorage.isCompressed(path)) {
+            CompressedStorage.save(tmp, tasks, seq, nextId);
+        } else {
+            try (BufferedWriter out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                if (seq > 0 || nextId > 0) {
+                    out.write(SEQ_HEADER + seq + (nextId > 0 ? " " + NEXT_ID_FIELD + " " + nextId : ""));
+                    out.newLine();
+                }
+                while (tasks.hasNext()) {
+                    out.write(serialise(tasks.next()));
+                    out.newLine();
+                }
+            }
+        }
+        replace(tmp, path);
+    }
+
+    /**
+     * Converts a pipe-delimited snapshot to the binary format in place.
+     * The original text is kept beside it with a {@code .bak} suffix, and
+     * later saves to the same path stay binary.
+     *
+     * @param path the snapshot file
+     * @return true if the file was converted, false if it was already binary or missing
+     */
+    public static boolean migrateToBinary(Path path) throws IOException {
+        if (!Files.isRegularFile(path) || BinaryStorage.isBinary(path)) return false;
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        BinaryStorage.migrate(path, tmp);
+        Files.copy(path, path.resolveSibling(path.getFileName() + ".bak"), StandardCopyOption.REPLACE_EXISTING);
+        replace(tmp, path);
+        return true;
+    }
+
+    /**
+     * Converts a snapshot to a block-compressed {@link CompressedStorage}
+     * archive in place. The original is kept beside it with a {@code .bak}
+     * suffix, and later saves to the same path stay compressed.
+     *
+     * @param path the snapshot file
+     * @return true if the file was converted, false if it was already compressed or missing
+     */
+    public static boolean migrateToCompressed(Path path) throws IOException {
+        if (!Files.isRegularFile(path) || CompressedStorage.isCompressed(path)) return false;
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (Stream<Task> tasks = stream(path)) {
+            CompressedStorage.save(tmp, tasks.iterator(), loadSeq(path), loadNextId(path));
+        }
+        Files.copy(path, path.resolveSibling(path.getFileName() + ".bak"), StandardCopyOption.REPLACE_EXISTING);
+        replace(tmp, path);
+        return true;
+    }
+
+    /**
+     * Converts a single-file snapshot into a {@link SegmentedStorage} directory
+     * at the same path. The original file is kept beside it with a {@code .bak}
+     * suffix.
+     *
+     * @param path the snapshot file
+     * @return true if the file was converted, false if it was already segmented
+     */
+    public static boolean migrateToSegments(Path path) throws IOException {
+        if (SegmentedStorage.isSegmented(path)) return false;
+        Path tmp = path.resolveSibling(path.getFileName() + ".segments");
+        try (Stream<Task> tasks = stream(path)) {
+            SegmentedStorage.saveAll(tmp, tasks.iterator(), loadSeq(path), loadNextId(path));
+        }
+        if (Files.exists(path)) {
+            Files.move(path, path.resolveSibling(path.getFileName() + ".bak"), StandardCopyOption.REPLACE_EXISTING);
+        }
+        Files.move(tmp, path);
+        return true;
+    }
+
+    /** @return the size of a snapshot file, or of all files in a segmented store */
+    static long sizeBytes(Path path) throws IOException {
+        if (!Files.exists(path)) return 0;
+        return Files.isDirectory(path) ? SegmentedStorage.sizeBytes(path) : Files.size(path);
+    }
+
+    /** Moves {@code source} over {@code target}, atomically where the file system allows it. */
+    static void replace(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Formats a task as one line of the text format. A task with an id gets it
+     * as an extra last field, which readers that predate ids ignore.
+     */
+    static String serialise(Task t) {
+        String line = serialiseFields(t);
+        return t.getId() == 0 ? line : line + " | " + t.getId();
     }
 
-    private static String serialise(Task t) {
+    private static String serialiseFields(Task t) {
         if (t instanceof Todo) {
             return String.join(" | ", "T", t.isDone() ? "1" : "0", t.getDescription());
         } else if (t instanceof Deadline) {
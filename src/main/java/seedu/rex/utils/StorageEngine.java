@@ -0,0 +1,34 @@
+package seedu.rex.utils;
+
+import seedu.rex.tasks.TaskList;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Persists a task list on behalf of {@link seedu.rex.ui.Rex}.
+ * <p>
+ * {@link #open()} loads the stored tasks once. After that the engine is the
+ * returned list's {@link TaskList.Recorder}: the list tells it about every
+ * change under the list's write lock, so the engine may read the list while
+ * recording and may take a consistent {@link TaskList#capture} from its own
+ * background threads. Implementations decide how and when changes reach the
+ * disk; {@link #flush()} and {@link #close()} wait until they have.
+ */
+public interface StorageEngine extends Closeable, TaskList.Recorder {
+
+    /**
+     * Loads the stored tasks and starts any background work. The caller
+     * hands the engine to the returned list's {@link TaskList#recordTo}.
+     *
+     * @return the task list later changes are made to
+     */
+    TaskList open() throws IOException;
+
+    /** Blocks until every change recorded so far is on disk. */
+    void flush() throws IOException;
+
+    /** Flushes, stops background work and releases files. */
+    @Override
+    void close() throws IOException;
+}
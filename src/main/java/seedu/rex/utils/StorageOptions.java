@@ -0,0 +1,109 @@
+package seedu.rex.utils;
+
+/**
+ * Tuning knobs for the {@link StorageEngine} implementations.
+ * <p>
+ * Start from {@link #defaults()} and override what is needed, e.g.
+ * {@code StorageOptions.defaults().flushIntervalMillis(5).maxLogBytes(1 << 20)}.
+ */
+public final class StorageOptions {
+    private long flushIntervalMillis = Journal.DEFAULT_FLUSH_INTERVAL_MILLIS;
+    private int maxBatch = Journal.DEFAULT_MAX_BATCH;
+    private long compactionPeriodMillis = CompactionScheduler.DEFAULT_PERIOD_MILLIS;
+    private long maxLogBytes = CompactionScheduler.DEFAULT_MAX_LOG_BYTES;
+    private double maxLogRatio = CompactionScheduler.DEFAULT_MAX_LOG_RATIO;
+    private int memtableLimit = LsmStorageEngine.DEFAULT_MEMTABLE_LIMIT;
+    private int maxRuns = LsmStorageEngine.DEFAULT_MAX_RUNS;
+    private boolean isColumnar;
+
+    private StorageOptions() {
+    }
+
+    /** @return a new set of options holding the defaults */
+    public static StorageOptions defaults() {
+        return new StorageOptions();
+    }
+
+    /** Sets how long the journal writer gathers changes before writing them. */
+    public StorageOptions flushIntervalMillis(long millis) {
+        this.flushIntervalMillis = millis;
+        return this;
+    }
+
+    /** Sets the most changes the journal writer writes at once. */
+    public StorageOptions maxBatch(int records) {
+        this.maxBatch = records;
+        return this;
+    }
+
+    /** Sets how often the compaction thresholds are checked. */
+    public StorageOptions compactionPeriodMillis(long millis) {
+        this.compactionPeriodMillis = millis;
+        return this;
+    }
+
+    /** Sets the journal size that triggers a compaction. */
+    public StorageOptions maxLogBytes(long bytes) {
+        this.maxLogBytes = bytes;
+        return this;
+    }
+
+    /** Sets the journal-to-snapshot size ratio that triggers a compaction. */
+    public StorageOptions maxLogRatio(double ratio) {
+        this.maxLogRatio = ratio;
+        return this;
+    }
+
+    /** Sets how many changed tasks the LSM engine buffers before writing a run. */
+    public StorageOptions memtableLimit(int entries) {
+        this.memtableLimit = entries;
+        return this;
+    }
+
+    /** Sets how many runs the LSM engine keeps before merging them into one. */
+    public StorageOptions maxRuns(int runs) {
+        this.maxRuns = runs;
+        return this;
+    }
+
+    /**
+     * Sets whether loaded tasks are kept in a {@link seedu.rex.tasks.ColumnarTaskList},
+     * which needs far less memory for large lists.
+     */
+    public StorageOptions columnar(boolean columnar) {
+        this.isColumnar = columnar;
+        return this;
+    }
+
+    public long flushIntervalMillis() {
+        return flushIntervalMillis;
+    }
+
+    public int maxBatch() {
+        return maxBatch;
+    }
+
+    public long compactionPeriodMillis() {
+        return compactionPeriodMillis;
+    }
+
+    public long maxLogBytes() {
+        return maxLogBytes;
+    }
+
+    public double maxLogRatio() {
+        return maxLogRatio;
+    }
+
+    public int memtableLimit() {
+        return memtableLimit;
+    }
+
+    public int maxRuns() {
+        return maxRuns;
+    }
+
+    public boolean isColumnar() {
+        return isColumnar;
+    }
+}
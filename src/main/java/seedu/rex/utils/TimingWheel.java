@@ -0,0 +1,183 @@
+package seedu.rex.utils;
+
+import java.util.function.Consumer;
+
+/**
+ * A hierarchical timing wheel: timers that fire at a given tick, scheduled and
+ * cancelled in O(1) however many are pending.
+ * <p>
+ * Level 0 has one slot per tick for the next 64 ticks, level 1 one slot per
+ * 64 ticks for the next 64 squared, and so on for six levels. Each slot is a
+ * doubly linked list, so a timer is added or unlinked without searching. When
+ * the wheel turns past the end of a slot at one level, the next slot of the
+ * level above is emptied into the finer levels, and each timer moves down a
+ * level at most five times before it fires. Nothing is ever sorted.
+ * <p>
+ * A tick can stand for any unit; {@link Reminders} uses minutes. The wheel is
+ * not thread-safe.
+ *
+ * @param <T> the payload handed back when a timer fires
+ */
+public final class TimingWheel<T> {
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int LEVELS = 6;
+    private static final int MASK = SLOTS - 1;
+
+    /** A scheduled timer, used to cancel it. */
+    public static final class Timer<T> {
+        private final long due;
+        private final T payload;
+        private Timer<T> prev;
+        private Timer<T> next;
+        /** The list the timer is on: a slot's index, {@link #EXPIRED}, or -1 once fired or cancelled. */
+        private int list = -1;
+
+        private Timer(long due, T payload) {
+            this.due = due;
+            this.payload = payload;
+        }
+
+        /** @return the tick the timer fires at */
+        public long due() {
+            return due;
+        }
+
+        /** @return the payload */
+        public T payload() {
+            return payload;
+        }
+    }
+
+    /** Index of the list of timers already due, which fire on the next {@link #advanceTo}. */
+    private static final int EXPIRED = LEVELS * SLOTS;
+
+    @SuppressWarnings("unchecked")
+    private final Timer<T>[] heads = (Timer<T>[]) new Timer<?>[LEVELS * SLOTS + 1];
+    private long now;
+    private int size;
+
+    /**
+     * Creates an empty wheel.
+     *
+     * @param now the current tick
+     */
+    public TimingWheel(long now) {
+        this.now = now;
+    }
+
+    /**
+     * Schedules a timer. A timer due now or earlier fires on the next {@link #advanceTo}.
+     *
+     * @param due     the tick to fire at
+     * @param payload what to hand back when it fires
+     * @return the timer, to cancel it with
+     */
+    public Timer<T> schedule(long due, T payload) {
+        Timer<T> t = new Timer<>(due, payload);
+        place(t);
+        size++;
+        return t;
+    }
+
+    /**
+     * Cancels a timer. Cancelling one that has fired or been cancelled does nothing.
+     *
+     * @param t the timer
+     */
+    public void cancel(Timer<T> t) {
+        if (t.list < 0) return;
+        unlink(t);
+        size--;
+    }
+
+    /**
+     * Turns the wheel up to the given tick and fires every timer due by then.
+     * Timers fire tick by tick; those that were already due when scheduled
+     * fire first.
+     *
+     * @param tick the new current tick; earlier ticks only fire timers already due
+     * @param fire receives the payload of each timer that fires
+     */
+    public void advanceTo(long tick, Consumer<T> fire) {
+        fireAll(EXPIRED, fire);
+        while (now < tick) {
+            now++;
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((now & ((1L << (BITS * level)) - 1)) == 0) cascade(level);
+            }
+            fireAll(EXPIRED, fire);
+            fireAll((int) (now & MASK), fire);
+        }
+    }
+
+    /** @return the current tick */
+    public long now() {
+        return now;
+    }
+
+    /** @return the number of timers waiting to fire */
+    public int size() {
+        return size;
+    }
+
+    /** Puts a timer on the slot of the coarsest level it needs, or on the expired list. */
+    private void place(Timer<T> t) {
+        long delta = t.due - now;
+        if (delta <= 0) {
+            link(t, EXPIRED);
+            return;
+        }
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (BITS * (level + 1))) level++;
+        link(t, level * SLOTS + (int) ((t.due >>> (BITS * level)) & MASK));
+    }
+
+    /** Moves every timer in the current slot of {@code level} to the finer levels. */
+    private void cascade(int level) {
+        int list = level * SLOTS + (int) ((now >>> (BITS * level)) & MASK);
+        Timer<T> t = heads[list];
+        heads[list] = null;
+        while (t != null) {
+            Timer<T> next = t.next;
+            t.prev = null;
+            t.next = null;
+            place(t);
+            t = next;
+        }
+    }
+
+    private void fireAll(int list, Consumer<T> fire) {
+        Timer<T> t = heads[list];
+        heads[list] = null;
+        while (t != null) {
+            Timer<T> next = t.next;
+            t.prev = null;
+            t.next = null;
+            t.list = -1;
+            size--;
+            fire.accept(t.payload);
+            t = next;
+        }
+    }
+
+    private void link(Timer<T> t, int list) {
+        t.list = list;
+        t.prev = null;
+        t.next = heads[list];
+        if (t.next != null) t.next.prev = t;
+        heads[list] = t;
+    }
+
+    private void unlink(Timer<T> t) {
+        if (t.prev != null) {
+            t.prev.next = t.next;
+        } else {
+            heads[t.list] = t.next;
+        }
+        if (t.next != null) t.next.prev = t.prev;
+        t.prev = null;
+        t.next = null;
+        t.list = -1;
+    }
+}
@@ -0,0 +1,108 @@
+package rex.tasks;
+
+import org.junit.jupiter.api.Test;
+import seedu.rex.tasks.ColumnarTaskList;
+import seedu.rex.tasks.Deadline;
+import seedu.rex.tasks.Event;
+import seedu.rex.tasks.Task;
+import seedu.rex.tasks.TaskList;
+import seedu.rex.tasks.Todo;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the {@link seedu.rex.tasks.ColumnarTaskList} class.
+ */
+public class ColumnarTaskListTest {
+
+    /**
+     * Tests that every task type reads back as it was stored,
+     * across inserts and removals in the middle of the list.
+     */
+    @Test
+    public void addRemove_keepsTasksInOrder() {
+        ColumnarTaskList tasks = new ColumnarTaskList(1);
+        Deadline deadline = new Deadline("submit r\u00e9sum\u00e9", LocalDateTime.of(2024, 12, 25, 23, 59));
+        deadline.markDone();
+        tasks.add(new Todo("read book"));
+        tasks.add(new Event("meeting", LocalDateTime.of(2024, 12, 20, 14, 0), LocalDateTime.of(2024, 12, 20, 16, 0)));
+        tasks.add(1, deadline);
+        tasks.add(0, new Todo("first"));
+        tasks.remove(1);
+
+        List<String> expected = new ArrayList<>();
+        expected.add(new Todo("first").toString());
+        expected.add(deadline.toString());
+        expected.add(new Event("meeting", LocalDateTime.of(2024, 12, 20, 14, 0),
+                LocalDateTime.of(2024, 12, 20, 16, 0)).toString());
+        List<String> actual = new ArrayList<>();
+        for (Task t : tasks) actual.add(t.toString());
+        assertEquals(expected, actual);
+        assertTrue(tasks.isDone(1));
+        assertEquals("submit r\u00e9sum\u00e9", tasks.description(1));
+    }
+
+    /**
+     * Tests that marking through a columnar {@link TaskList} is kept,
+     * even though each read returns a fresh view.
+     */
+    @Test
+    public void columnarTaskList_keepsMarks() {
+        List<Task> initial = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) initial.add(new Todo("task " + i));
+        TaskList tasks = TaskList.columnar(initial);
+        tasks.mark(5000, true);
+        tasks.delete(1);
+        assertTrue(tasks.get(4999).isDone());
+        assertFalse(tasks.get(5000).isDone());
+        assertEquals("task 5000", tasks.get(5000).getDescription());
+        assertEquals(9_999, tasks.size());
+    }
+
+    /**
+     * Tests that reading a row again hands out the same view, that marking a
+     * view does not change the list, and that writing a row back replaces it.
+     */
+    @Test
+    public void get_cachesViewsAsCopies() {
+        ColumnarTaskList tasks = new ColumnarTaskList();
+        Task stored = new Todo("read book");
+        stored.setId(7);
+        tasks.add(stored);
+        Task view = tasks.get(0);
+        assertSame(view, tasks.get(0));
+
+        view.markDone();
+        assertFalse(tasks.isDone(0));
+        assertFalse(tasks.get(0).isDone());
+
+        tasks.set(0, view);
+        assertTrue(tasks.isDone(0));
+        assertTrue(tasks.get(0).isDone());
+        tasks.remove(0);
+        tasks.add(new Todo("write report"));
+        assertEquals("write report", tasks.get(0).getDescription());
+    }
+
+    /**
+     * Tests that the description arena is compacted without losing
+     * the descriptions still in use.
+     */
+    @Test
+    public void remove_manyTasks_keepsRemainingDescriptions() {
+        ColumnarTaskList tasks = new ColumnarTaskList();
+        for (int i = 0; i < 20_000; i++) tasks.add(new Todo("a fairly long description " + i));
+        for (int i = 19_999; i >= 0; i -= 2) tasks.remove(i);
+        assertEquals(10_000, tasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            assertEquals("a fairly long description " + (2 * i), tasks.description(i));
+        }
+    }
+}
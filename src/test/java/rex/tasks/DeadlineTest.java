@@ -2,8 +2,11 @@ package rex.tasks;
 
 import org.junit.jupiter.api.Test;
 import seedu.rex.tasks.Deadline;
+import seedu.rex.utils.DateTimeUtil;
 import java.time.LocalDateTime;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * Used ChatGPT to generate JavaDocs.
@@ -34,4 +37,18 @@ public class DeadlineTest {
         d.markDone();
         assertEquals("[D][X] return book (by: Dec 2 2019, 6:00pm)", d.toString());
     }
+
+    /**
+     * Tests that deadlines due at the same time share one formatted
+     * date string, and that marking re-renders the deadline.
+     */
+    @Test
+    public void sameTime_sharesFormattedDate() {
+        LocalDateTime by = LocalDateTime.of(2019, 12, 2, 18, 0);
+        assertSame(DateTimeUtil.readable(by), DateTimeUtil.readable(LocalDateTime.of(2019, 12, 2, 18, 0)));
+        Deadline d = new Deadline("return book", by);
+        assertSame(d.toString(), d.toString());
+        d.markDone();
+        assertTrue(d.toString().startsWith("[D][X] return book (by: " + DateTimeUtil.readable(by)));
+    }
 }
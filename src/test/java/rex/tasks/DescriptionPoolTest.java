@@ -0,0 +1,52 @@
+package rex.tasks;
+
+import org.junit.jupiter.api.Test;
+import seedu.rex.tasks.DescriptionPool;
+import seedu.rex.tasks.Todo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the {@link seedu.rex.tasks.DescriptionPool} class.
+ */
+public class DescriptionPoolTest {
+
+    /**
+     * Tests that equal descriptions are shared and the saving is counted.
+     */
+    @Test
+    public void intern_sharesEqualDescriptions() {
+        DescriptionPool pool = new DescriptionPool(64);
+        String first = pool.intern(new String("read book"));
+        String second = pool.intern(new String("read book"));
+        assertSame(first, second);
+        assertEquals(1, pool.hits());
+        assertEquals(40 + "read book".length(), pool.bytesSaved());
+    }
+
+    /**
+     * Tests that the pool stays within its capacity by evicting old entries.
+     */
+    @Test
+    public void intern_evictsBeyondCapacity() {
+        DescriptionPool pool = new DescriptionPool(16);
+        String early = pool.intern(new String("task 0"));
+        for (int i = 1; i < 1000; i++) {
+            pool.intern("task " + i);
+        }
+        assertTrue(pool.size() <= 16);
+        assertNotSame(early, pool.intern(new String("task 0")));
+    }
+
+    /**
+     * Tests that tasks created separately share their description.
+     */
+    @Test
+    public void tasks_shareDescriptions() {
+        assertSame(new Todo(new String("read book")).getDescription(),
+                new Todo(new String("read book")).getDescription());
+    }
+}
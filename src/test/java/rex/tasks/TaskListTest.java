@@ -0,0 +1,473 @@
+package rex.tasks;
+
+import org.junit.jupiter.api.Test;
+import seedu.rex.tasks.Deadline;
+import seedu.rex.tasks.Event;
+import seedu.rex.tasks.Task;
+import seedu.rex.tasks.TaskChange;
+import seedu.rex.tasks.TaskList;
+import seedu.rex.tasks.TaskPage;
+import seedu.rex.tasks.TaskStats;
+import seedu.rex.tasks.Todo;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the {@link seedu.rex.tasks.TaskList} class.
+ */
+public class TaskListTest {
+
+    /**
+     * Applies the same random inserts, deletes and marks to a task list and a
+     * plain list, finding a task by id now and then as its position shifts.
+     */
+    private static void assertMatchesArrayList(TaskList tasks, List<Task> expected) {
+        Random random = new Random(42);
+        for (int i = 0; i < 30_000; i++) {
+            int op = random.nextInt(10);
+            if (op < 5 || expected.isEmpty()) {
+                int idx = 1 + random.nextInt(expected.size() + 1);
+                Todo t = new Todo("task " + i);
+                tasks.insert(idx, t);
+                expected.add(idx - 1, t);
+            } else if (op < 8) {
+                int idx = 1 + random.nextInt(expected.size());
+                assertEquals(expected.remove(idx - 1).toString(), tasks.delete(idx).task().toString());
+            } else {
+                int idx = 1 + random.nextInt(expected.size());
+                tasks.mark(idx, true);
+                expected.get(idx - 1).markDone();
+            }
+            if (i % 7 == 0 && !expected.isEmpty()) {
+                int idx = random.nextInt(expected.size());
+                assertEquals(idx + 1, tasks.positionOf(expected.get(idx).getId()));
+            }
+        }
+        assertEquals(expected.size(), tasks.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).toString(), tasks.get(i + 1).toString());
+        }
+    }
+
+    /**
+     * Tests that positional inserts, deletes and marks spread over many
+     * segments, with splits and merges, agree with a plain list.
+     */
+    @Test
+    public void insertDeleteMark_matchArrayList() {
+        assertMatchesArrayList(new TaskList(), new ArrayList<>());
+    }
+
+    /**
+     * Tests the same operations on a columnar task list.
+     */
+    @Test
+    public void insertDeleteMark_columnar_matchArrayList() {
+        assertMatchesArrayList(TaskList.columnar(new ArrayList<>()), new ArrayList<>());
+    }
+
+    /**
+     * Tests that deleting every task from the front of a large list
+     * leaves it empty and that positions outside the list are rejected.
+     */
+    @Test
+    public void delete_fromFront_emptiesList() {
+        List<Task> initial = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) initial.add(new Todo("task " + i));
+        TaskList tasks = TaskList.wrap(initial);
+        for (int i = 0; i < 50_000; i++) {
+            assertEquals("task " + i, tasks.delete(1).task().getDescription());
+        }
+        assertEquals(0, tasks.size());
+        assertThrows(IndexOutOfBoundsException.class, () -> tasks.get(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> tasks.insert(2, new Todo("late")));
+    }
+
+    /**
+     * Tests that a save only clears the dirty flag for the changes it
+     * captured, so a change made while it was written is not lost.
+     */
+    @Test
+    public void markSaved_keepsLaterChangesDirty() {
+        TaskList tasks = new TaskList();
+        tasks.add(new Todo("read book"));
+        long saved = tasks.version();
+        tasks.add(new Todo("write report"));
+        tasks.markSaved(saved);
+        assertTrue(tasks.isDirty());
+        tasks.markSaved(tasks.version());
+        assertFalse(tasks.isDirty());
+    }
+
+    /**
+     * Tests that ids stay with their tasks as positions shift, and that
+     * tasks loaded without an id are given one above every existing id.
+     */
+    @Test
+    public void positionOf_followsTasksAcrossShifts() {
+        List<Task> initial = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            Todo t = new Todo("task " + i);
+            if (i % 2 == 0) t.setId(i + 1);
+            initial.add(t);
+        }
+        TaskList tasks = new TaskList(initial);
+        assertEquals(10_000, tasks.get(2).getId());
+        Task target = tasks.get(9_000);
+        long id = target.getId();
+
+        for (int i = 0; i < 5_000; i++) tasks.delete(1);
+        tasks.insert(1, new Todo("front"));
+        assertEquals(4_001, tasks.positionOf(id));
+        assertEquals(target.getDescription(), tasks.get(tasks.positionOf(id)).getDescription());
+        assertEquals(-1, tasks.positionOf(1));
+        assertEquals(15_000, tasks.get(1).getId());
+    }
+
+    /**
+     * Tests that readers see whole, ordered snapshots and pages, matching
+     * search results and valid tasks while a writer keeps adding, marking
+     * and deleting.
+     */
+    @Test
+    public void concurrentReads_seeConsistentLists() throws Exception {
+        TaskList tasks = new TaskList();
+        for (int i = 0; i < 20_000; i++) tasks.add(new Todo("task " + i));
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> readers = new ArrayList<>();
+            for (int r = 0; r < 3; r++) {
+                readers.add(pool.submit(() -> {
+                    for (int round = 0; round < 200; round++) {
+                        List<Task> snapshot = tasks.snapshot();
+                        for (int i = 1; i < snapshot.size(); i++) {
+                            assertTrue(snapshot.get(i - 1).getId() < snapshot.get(i).getId());
+                        }
+                        int n = tasks.size();
+                        if (n > 0) assertTrue(tasks.get(1 + round % n).getDescription().startsWith("task "));
+                        List<Task> page = tasks.page(1 + round * 50, 50).tasks();
+                        for (int i = 1; i < page.size(); i++) {
+                            assertTrue(page.get(i - 1).getId() < page.get(i).getId());
+                        }
+                        for (Task t : tasks.find("more 1")) assertTrue(t.getDescription().contains("more 1"));
+                        assertTrue(tasks.positionOf(snapshot.get(snapshot.size() - 1).getId()) >= -1);
+                    }
+                }));
+            }
+            Future<?> writer = pool.submit(() -> {
+                for (int i = 0; i < 20_000; i++) {
+                    tasks.add(new Todo("task more " + i));
+                    tasks.mark(1 + i % tasks.size(), true);
+                    if (i % 3 == 0) tasks.delete(1);
+                }
+            });
+            writer.get();
+            for (Future<?> reader : readers) reader.get();
+        } finally {
+            pool.shutdown();
+            assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        }
+        assertEquals(20_000 + 20_000 - 6_667, tasks.size());
+        assertEquals(tasks.size(), tasks.snapshot().size());
+    }
+
+    /**
+     * Tests that when several threads mark and delete the same tasks by id,
+     * each change reports the status it found and each task is deleted once.
+     */
+    @Test
+    public void concurrentChangesById_reportWhatTheyFound() throws Exception {
+        TaskList tasks = new TaskList();
+        long[] ids = new long[2_000];
+        for (int i = 0; i < ids.length; i++) ids[i] = tasks.add(new Todo("task " + i)).task().getId();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<int[]>> workers = new ArrayList<>();
+            for (int w = 0; w < 4; w++) {
+                workers.add(pool.submit(() -> {
+                    int[] firsts = new int[2];
+                    for (long id : ids) {
+                        TaskChange marked = tasks.markById(id, true);
+                        if (marked != null && !marked.wasDone()[0]) firsts[0]++;
+                        TaskChange deleted = tasks.deleteById(id);
+                        if (deleted != null) {
+                            assertEquals(id, deleted.task().getId());
+                            firsts[1]++;
+                        }
+                        if (tasks.markById(id, true) != null) firsts[1] = -1;
+                    }
+                    return firsts;
+                }));
+            }
+            int marked = 0;
+            int deleted = 0;
+            for (Future<int[]> worker : workers) {
+                int[] firsts = worker.get();
+                marked += firsts[0];
+                deleted += firsts[1];
+            }
+            assertEquals(ids.length, marked);
+            assertEquals(ids.length, deleted);
+        } finally {
+            pool.shutdown();
+            assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        }
+        assertEquals(0, tasks.size());
+    }
+
+    /**
+     * Tests that date queries and clash checks agree with a scan of the
+     * list while deadlines and events are added and deleted.
+     */
+    @Test
+    public void occurringBetween_matchesScan() {
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        Random random = new Random(7);
+        TaskList tasks = new TaskList();
+        List<Task> expected = new ArrayList<>();
+        for (int i = 0; i < 6_000; i++) {
+            if (i % 1_000 == 0) tasks.occurringBetween(base, base);
+            if (random.nextInt(4) == 0 && !expected.isEmpty()) {
+                int idx = 1 + random.nextInt(expected.size());
+                expected.remove(idx - 1);
+                tasks.delete(idx);
+                continue;
+            }
+            LocalDateTime start = base.plusHours(random.nextInt(2_000));
+            Task t = random.nextBoolean()
+                    ? new Deadline("d" + i, start)
+                    : new Event("e" + i, start, start.plusHours(random.nextInt(48)));
+            tasks.add(t);
+            expected.add(t);
+        }
+        for (int q = 0; q < 200; q++) {
+            LocalDateTime from = base.plusHours(random.nextInt(2_000));
+            LocalDateTime to = from.plusHours(random.nextInt(24));
+            List<String> scan = new ArrayList<>();
+            for (Task t : expected) {
+                boolean isMatch = t instanceof Deadline
+                        ? !((Deadline) t).getBy().isBefore(from) && !((Deadline) t).getBy().isAfter(to)
+                        : !((Event) t).getFrom().isAfter(to) && !((Event) t).getTo().isBefore(from);
+                if (isMatch) scan.add(t.getDescription());
+            }
+            List<String> found = new ArrayList<>();
+            for (Task t : tasks.occurringBetween(from, to)) found.add(t.getDescription());
+            scan.sort(null);
+            found.sort(null);
+            assertEquals(scan, found);
+        }
+        Event probe = new Event("probe", base.plusHours(100), base.plusHours(110));
+        long scanned = expected.stream().filter(t -> t instanceof Event
+                && ((Event) t).getFrom().isBefore(probe.getTo())
+                && ((Event) t).getTo().isAfter(probe.getFrom())).count();
+        assertEquals(scanned, tasks.clashesWith(probe).size());
+    }
+
+    /**
+     * Tests that adding an event to a list still in storage finds its clashes
+     * from the stored dates, reading only the segments a clash or the new
+     * event is in.
+     */
+    @Test
+    public void addEvent_storedList_readsOnlyClashingSegments() {
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 9, 0);
+        int[] loads = new int[3];
+        List<TaskList.Segment> stored = new ArrayList<>();
+        long id = 1;
+        for (int seg = 0; seg < loads.length; seg++) {
+            List<Task> tasks = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                LocalDateTime from = base.plusDays(seg * 100 + i);
+                Task t = i % 2 == 0 ? new Event("event " + seg + "." + i, from, from.plusHours(1))
+                        : new Deadline("deadline " + seg + "." + i, from);
+                t.setId(id++);
+                tasks.add(t);
+            }
+            int n = seg;
+            stored.add(TaskList.Segment.stored(seg, tasks.size(), id - 1, () -> {
+                loads[n]++;
+                return tasks;
+            }, (lo, hi, out) -> {
+                for (Task t : tasks.subList(lo, hi)) {
+                    if (t instanceof Event) {
+                        out.accept(t.getId(), t.isDone(), ((Event) t).getFrom(), ((Event) t).getTo());
+                    } else {
+                        out.accept(t.getId(), t.isDone(), ((Deadline) t).getBy(), null);
+                    }
+                }
+            }));
+        }
+        TaskList tasks = TaskList.fromSegments(stored);
+
+        LocalDateTime clashing = base.plusDays(150).plusMinutes(30);
+        List<Event> clashes = tasks.add(new Event("clash", clashing, clashing.plusHours(1))).clashes();
+        assertEquals(1, clashes.size());
+        assertEquals("event 1.50", clashes.get(0).getDescription());
+        assertEquals(List.of(0, 1, 1), List.of(loads[0], loads[1], loads[2]));
+
+        LocalDateTime free = base.plusDays(10).plusHours(5);
+        assertTrue(tasks.add(new Event("free", free, free.plusHours(1))).clashes().isEmpty());
+        assertEquals(0, loads[0]);
+
+        assertEquals(302, tasks.occurringBetween(base, base.plusDays(400)).size());
+        assertEquals(List.of(1, 1, 1), List.of(loads[0], loads[1], loads[2]));
+    }
+
+    /**
+     * Tests that pages read across segment boundaries match the list, and
+     * that paging on from a cursor neither skips nor repeats tasks when tasks
+     * before it are deleted in between.
+     */
+    @Test
+    public void pages_matchSnapshot() {
+        TaskList tasks = new TaskList();
+        for (int i = 0; i < 3 * TaskList.SEGMENT_CAPACITY; i++) tasks.add(new Todo("task " + i));
+        List<Task> all = tasks.snapshot();
+        TaskPage page = tasks.page(TaskList.SEGMENT_CAPACITY - 10, 1_000);
+        assertEquals(all.subList(TaskList.SEGMENT_CAPACITY - 11, TaskList.SEGMENT_CAPACITY + 989), page.tasks());
+        assertTrue(page.hasMore());
+        assertTrue(tasks.page(all.size() + 1, 10).tasks().isEmpty());
+
+        List<Task> seen = new ArrayList<>();
+        page = tasks.page(1, 700);
+        seen.addAll(page.tasks());
+        while (page.hasMore()) {
+            tasks.delete(1);
+            page = tasks.nextPage(page);
+            seen.addAll(page.tasks());
+        }
+        assertEquals(all, seen);
+        assertThrows(IllegalArgumentException.class, () -> tasks.page(0, 10));
+    }
+
+    /**
+     * Tests that find agrees with a scan for whole words, phrases, parts of
+     * words and text shorter than a trigram while tasks are added and deleted.
+     */
+    @Test
+    public void find_matchesScan() {
+        String[] words = {"read", "book", "bookshelf", "reread", "buy", "milk", "Report", "write"};
+        Random random = new Random(3);
+        TaskList tasks = new TaskList();
+        List<Task> expected = new ArrayList<>();
+        for (int i = 0; i < 6_000; i++) {
+            if (i == 100) {
+                tasks.find("book");
+                tasks.find("e");
+            }
+            if (random.nextInt(4) == 0 && !expected.isEmpty()) {
+                int idx = 1 + random.nextInt(expected.size());
+                expected.remove(idx - 1);
+                tasks.delete(idx);
+                continue;
+            }
+            StringBuilder d = new StringBuilder(words[random.nextInt(words.length)]);
+            for (int w = random.nextInt(4); w > 0; w--) d.append(' ').append(words[random.nextInt(words.length)]);
+            Task t = new Todo(d.toString());
+            int at = 1 + random.nextInt(expected.size() + 1);
+            tasks.insert(at, t);
+            expected.add(at - 1, t);
+        }
+        for (String q : new String[]{"book", "read book", "ad boo", "REPORT", "e", "bo", "milk write re", "nothing",
+                "k b", "okshel", "xyz"}) {
+            List<Task> scan = new ArrayList<>();
+            for (Task t : expected) {
+                if (t.getDescription().toLowerCase().contains(q.toLowerCase())) scan.add(t);
+            }
+            assertEquals(scan, tasks.find(q), q);
+        }
+    }
+
+    /**
+     * Tests that the running stats agree with a scan of the list after
+     * random adds, inserts, marks and deletes, one at a time and in bulk.
+     */
+    @Test
+    public void stats_matchScan() {
+        LocalDateTime now = LocalDateTime.of(2024, 6, 1, 12, 0);
+        for (TaskList tasks : List.of(new TaskList(), TaskList.columnar(new ArrayList<>()))) {
+            Random random = new Random(5);
+            for (int i = 0; i < 8_000; i++) {
+                if (i == 500) tasks.stats(now);
+                int size = tasks.size();
+                int op = random.nextInt(10);
+                if (op < 2 && size > 0) {
+                    tasks.mark(1 + random.nextInt(size), random.nextBoolean());
+                } else if (op == 2 && size > 0) {
+                    tasks.delete(1 + random.nextInt(size));
+                } else if (op == 3 && size > 10) {
+                    int[] picked = random.ints(5, 1, size + 1).distinct().sorted().toArray();
+                    if (random.nextBoolean()) {
+                        tasks.markAll(picked, random.nextBoolean());
+                    } else {
+                        tasks.deleteAll(picked);
+                    }
+                } else {
+                    LocalDateTime at = now.plusHours(random.nextInt(2_000) - 1_000);
+                    int type = random.nextInt(3);
+                    Task t = type == 0 ? new Todo("t" + i)
+                            : type == 1 ? new Deadline("d" + i, at)
+                            : new Event("e" + i, at, at.plusHours(2));
+                    tasks.insert(1 + random.nextInt(size + 1), t);
+                }
+            }
+            List<Task> all = tasks.snapshot();
+            TaskStats stats = tasks.stats(now);
+            assertEquals(all.size(), stats.total());
+            assertEquals(all.stream().filter(Task::isDone).count(), stats.done());
+            assertEquals(all.stream().filter(t -> !t.isDone()).count(), stats.pending());
+            assertEquals(all.stream().filter(t -> t instanceof Todo).count(), stats.todos());
+            assertEquals(all.stream().filter(t -> t instanceof Deadline).count(), stats.deadlines());
+            assertEquals(all.stream().filter(t -> t instanceof Event).count(), stats.events());
+            assertEquals(all.stream().filter(t -> t instanceof Deadline && !t.isDone()
+                    && ((Deadline) t).getBy().isBefore(now)).count(), stats.overdue());
+        }
+    }
+
+    /**
+     * Tests that bulk marks and deletes over many segments agree with
+     * the same changes made one task at a time to a plain list.
+     */
+    @Test
+    public void markAllDeleteAll_matchArrayList() {
+        for (TaskList tasks : List.of(new TaskList(), TaskList.columnar(new ArrayList<>()))) {
+            List<Task> expected = new ArrayList<>();
+            for (int i = 0; i < 20_000; i++) {
+                Todo t = new Todo("task " + i);
+                tasks.add(t);
+                expected.add(new Todo("task " + i));
+            }
+            Random random = new Random(11);
+            for (int round = 0; round < 20; round++) {
+                int[] picked = random.ints(1 + random.nextInt(3_000), 1, expected.size() + 1)
+                        .distinct().sorted().toArray();
+                if (round % 2 == 0) {
+                    tasks.markAll(picked, true);
+                    for (int idx : picked) expected.get(idx - 1).markDone();
+                } else {
+                    List<Task> removed = tasks.deleteAll(picked).tasks();
+                    for (int j = picked.length - 1; j >= 0; j--) {
+                        assertEquals(expected.remove(picked[j] - 1).toString(), removed.get(j).toString());
+                    }
+                }
+            }
+            assertEquals(expected.size(), tasks.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i).toString(), tasks.get(i + 1).toString());
+            }
+            assertThrows(IndexOutOfBoundsException.class, () -> tasks.deleteAll(new int[]{2, 1}));
+        }
+    }
+}
@@ -4,6 +4,7 @@ import org.junit.jupiter.api.Test;
 import seedu.rex.tasks.Task;
 import seedu.rex.tasks.Todo;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 /**
  * Used ChatGPT to generate JavaDocs.
@@ -31,4 +32,19 @@ public class TodoTest {
         testToDo.markDone();
         assertEquals("[T][X] read book", testToDo.toString());
     }
+
+    /**
+     * Tests that the rendered string is reused until the task is
+     * marked or unmarked, and then reflects the new status.
+     */
+    @Test
+    public void rendering_keptUntilMarked() {
+        Task testToDo = new Todo("read book");
+        String first = testToDo.toString();
+        assertSame(first, testToDo.toString());
+        testToDo.markDone();
+        assertEquals("[T][X] read book", testToDo.toString());
+        testToDo.markUndone();
+        assertEquals(first, testToDo.toString());
+    }
 }
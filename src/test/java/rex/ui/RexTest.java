@@ -2,6 +2,9 @@ package rex.ui;
 
 import org.junit.jupiter.api.*;
 import seedu.rex.ui.Rex;
+import seedu.rex.utils.Journal;
+import seedu.rex.utils.LsmStorageEngine;
+import seedu.rex.utils.StorageOptions;
 import java.io.*;
 import java.nio.file.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -16,6 +19,7 @@ import static org.junit.jupiter.api.Assertions.*;
 class RexTest {
     private static String originalUserDir;
     private Path tempDir;
+    private Path dataPath;
     private Rex rex;
 
     @BeforeAll
@@ -32,8 +36,9 @@ class RexTest {
         // Create data directory
         Files.createDirectories(tempDir.resolve("data"));
 
-        // Create fresh Rex instance for each test
-        rex = new Rex();
+        // Create fresh Rex instance for each test, backed by the temp directory
+        dataPath = tempDir.resolve("data").resolve("rex.txt");
+        rex = new Rex(dataPath);
     }
 
     @AfterEach
@@ -193,6 +198,263 @@ class RexTest {
         assertFalse(rex.isRunning());
     }
 
+    /**
+     * Tests that changes are recovered from the journal when
+     * Rex is restarted without a "bye".
+     */
+    @Test
+    void journal_replayed_after_restart_without_bye() {
+        rex.getResponse("todo read book");
+        rex.getResponse("todo write report");
+        rex.getResponse("todo buy groceries");
+        rex.getResponse("mark 3");
+        rex.getResponse("delete 1");
+        rex.flush();
+
+        Rex restarted = new Rex(dataPath);
+        String listResponse = restarted.getResponse("list");
+        assertTrue(listResponse.contains("1.[T][ ] write report"));
+        assertTrue(listResponse.contains("2.[T][X] buy groceries"));
+        assertFalse(listResponse.contains("read book"));
+    }
+
+    /**
+     * Tests that tasks changed before "bye" are there on the next start.
+     */
+    @Test
+    void bye_then_restart_keeps_tasks() {
+        rex.getResponse("todo read book");
+        rex.getResponse("mark 1");
+        rex.getResponse("bye");
+
+        Rex restarted = new Rex(dataPath);
+        assertTrue(restarted.getResponse("list").contains("1.[T][X] read book"));
+    }
+
+    /**
+     * Tests that Rex backed by the LSM storage engine keeps
+     * adds, marks and deletes across a restart.
+     */
+    @Test
+    void lsm_engine_keeps_tasks_across_restart() {
+        Path store = tempDir.resolve("data").resolve("rex.lsm");
+        Rex lsm = new Rex(new LsmStorageEngine(store, StorageOptions.defaults().memtableLimit(2)));
+        lsm.getResponse("todo read book");
+        lsm.getResponse("todo write report");
+        lsm.getResponse("todo buy milk");
+        lsm.getResponse("mark 2");
+        lsm.getResponse("delete 1");
+        lsm.getResponse("bye");
+
+        Rex restarted = new Rex(new LsmStorageEngine(store, StorageOptions.defaults()));
+        String list = restarted.getResponse("list");
+        assertTrue(list.contains("1.[T][X] write report"));
+        assertTrue(list.contains("2.[T][ ] buy milk"));
+        assertFalse(list.contains("read book"));
+    }
+
+    /**
+     * Tests that the id of the newest task is not handed out again after it
+     * is deleted and the journal is compacted away before a restart.
+     */
+    @Test
+    void deleted_newest_id_not_reused_after_compaction() throws IOException {
+        Rex compacting = new Rex(tempDir.resolve("data").resolve("ids.txt"),
+                StorageOptions.defaults().maxLogBytes(1));
+        compacting.getResponse("todo read book");
+        assertTrue(compacting.getResponse("todo write report").contains("Its id is #2."));
+        compacting.getResponse("delete #2");
+        compacting.getResponse("bye");
+        assertEquals(0, Files.size(Journal.pathFor(tempDir.resolve("data").resolve("ids.txt"))));
+
+        Rex restarted = new Rex(tempDir.resolve("data").resolve("ids.txt"));
+        assertTrue(restarted.getResponse("todo buy milk").contains("Its id is #3."));
+    }
+
+    /**
+     * Tests that the LSM engine does not hand out the id of the newest task
+     * again once a merge has dropped it.
+     */
+    @Test
+    void lsm_deleted_newest_id_not_reused_after_merge() {
+        Path store = tempDir.resolve("data").resolve("ids.lsm");
+        Rex lsm = new Rex(new LsmStorageEngine(store, StorageOptions.defaults().memtableLimit(1).maxRuns(2)));
+        lsm.getResponse("todo read book");
+        assertTrue(lsm.getResponse("todo write report").contains("Its id is #2."));
+        lsm.getResponse("delete #2");
+        lsm.getResponse("bye");
+
+        Rex restarted = new Rex(new LsmStorageEngine(store, StorageOptions.defaults()));
+        assertTrue(restarted.getResponse("todo buy milk").contains("Its id is #3."));
+    }
+
+    /**
+     * Tests that Rex starts with an empty list, rather than failing,
+     * when its storage engine cannot load the stored tasks.
+     */
+    @Test
+    void unreadable_store_starts_empty() throws IOException {
+        Path store = tempDir.resolve("not-a-directory");
+        Files.writeString(store, "x");
+        Rex unreadable = new Rex(new LsmStorageEngine(store, StorageOptions.defaults()));
+        assertTrue(unreadable.getResponse("todo read book").contains("Now you have 1 task in the list"));
+    }
+
+    /**
+     * Tests that mark and delete accept a task's id, which stays
+     * valid after the tasks before it are deleted.
+     */
+    @Test
+    void mark_and_delete_by_id() {
+        rex.getResponse("todo read book");
+        assertTrue(rex.getResponse("todo write report").contains("Its id is #2."));
+        rex.getResponse("delete 1");
+
+        assertTrue(rex.getResponse("mark #2").contains("[T][X] write report"));
+        assertTrue(rex.getResponse("delete #1").contains("Invalid task number for delete"));
+        assertTrue(rex.getResponse("delete #2").contains("write report"));
+        assertTrue(rex.getResponse("list").contains("empty"));
+    }
+
+    /**
+     * Tests that "on" lists what falls in a period in time order and that
+     * adding an overlapping event comes with a warning.
+     */
+    @Test
+    void on_lists_period_and_event_clash_is_flagged() {
+        rex.getResponse("event meeting /from 2024-12-20 1400 /to 2024-12-20 1600");
+        rex.getResponse("deadline report /by 2024-12-20 0900");
+        rex.getResponse("deadline taxes /by 2024-12-21 0900");
+        assertFalse(rex.getResponse("event lunch /from 2024-12-20 1200 /to 2024-12-20 1400")
+                .contains("overlaps"));
+        String clash = rex.getResponse("event call /from 2024-12-20 1500 /to 2024-12-20 1700");
+        assertTrue(clash.contains("Heads up, it overlaps with:\n  [E][ ] meeting"));
+
+        String day = rex.getResponse("on 2024-12-20");
+        assertTrue(day.contains("1.[D][ ] report"));
+        assertTrue(day.contains("2.[E][ ] lunch"));
+        assertTrue(day.contains("3.[E][ ] meeting"));
+        assertFalse(day.contains("taxes"));
+        assertTrue(rex.getResponse("on 2024-12-21 1000 /to 2024-12-22").contains("Nothing is due"));
+    }
+
+    /**
+     * Tests that ranges, lists and filters act on several tasks at once
+     * and that the batch survives a restart.
+     */
+    @Test
+    void bulk_mark_and_delete() {
+        for (int i = 1; i <= 12; i++) rex.getResponse("todo task " + i);
+
+        String marked = rex.getResponse("mark 1-4,6");
+        assertTrue(marked.startsWith("Nice! I've marked these 5 tasks as done:\n  [T][X] task 1"));
+        String removed = rex.getResponse("delete done");
+        assertTrue(removed.contains("these 5 tasks:"));
+        assertTrue(removed.contains("Now you have 7 tasks in the list."));
+        assertTrue(rex.getResponse("delete 2,4-5").contains("[T][ ] task 7"));
+        assertTrue(rex.getResponse("mark 3-9").contains("Invalid task number for mark."));
+        assertTrue(rex.getResponse("unmark done").contains("No tasks match"));
+        rex.getResponse("bye");
+
+        String list = new Rex(dataPath).getResponse("list");
+        assertTrue(list.contains("1.[T][ ] task 5"));
+        assertTrue(list.contains("4.[T][ ] task 12"));
+        assertFalse(list.contains("5."));
+    }
+
+    /**
+     * Tests that undo and redo step back and forth through adds, marks
+     * and deletes, and that the result survives a restart.
+     */
+    @Test
+    void undo_and_redo() {
+        rex.getResponse("todo read book");
+        rex.getResponse("todo write report");
+        rex.getResponse("todo buy milk");
+        rex.getResponse("mark 1-2");
+        rex.getResponse("delete 1,3");
+
+        assertTrue(rex.getResponse("undo").startsWith("Undid: delete 1,3\nNow you have 3 tasks"));
+        assertTrue(rex.getResponse("undo").contains("Undid: mark 1-2"));
+        assertTrue(rex.getResponse("list").contains("1.[T][ ] read book\n2.[T][ ] write report\n3.[T][ ] buy milk"));
+        assertTrue(rex.getResponse("redo").contains("Redid: mark 1-2"));
+        assertTrue(rex.getResponse("undo").contains("Undid: mark 1-2"));
+        assertTrue(rex.getResponse("undo").contains("Undid: add buy milk"));
+        assertTrue(rex.getResponse("redo").contains("Redid: add buy milk"));
+
+        rex.getResponse("delete 2");
+        assertTrue(rex.getResponse("redo").contains("Nothing to redo."));
+        rex.getResponse("undo");
+        rex.getResponse("bye");
+
+        String list = new Rex(dataPath).getResponse("list");
+        assertTrue(list.contains("1.[T][ ] read book\n2.[T][ ] write report\n3.[T][ ] buy milk"));
+    }
+
+    /**
+     * Tests that "list" shows one page at a time and that "more"
+     * or an empty input continues after the last task shown.
+     */
+    @Test
+    void list_pages_and_more_goes_on() {
+        for (int i = 1; i <= 120; i++) rex.getResponse("todo task " + i);
+
+        String first = rex.getResponse("list");
+        assertTrue(first.contains("50.[T][ ] task 50\n(1-50 of 120. Type 'more'"));
+        assertFalse(first.contains("51."));
+        rex.getResponse("delete 1");
+        String second = rex.getResponse("more");
+        assertTrue(second.startsWith("Here are more tasks in your list:\n50.[T][ ] task 51"));
+        assertTrue(rex.getResponse("").contains("119.[T][ ] task 120"));
+        assertTrue(rex.getResponse("more").startsWith("There are no more tasks"));
+
+        assertEquals("Here are more tasks in your list:\n10.[T][ ] task 11\n11.[T][ ] task 12\n"
+                + "(10-11 of 119. Type 'more' for the next page.)", rex.getResponse("list 10 /size 2"));
+        assertTrue(rex.getResponse("list 0").startsWith("Usage: list"));
+    }
+
+    /**
+     * Tests that "stats" counts tasks by status and type, and follows
+     * marks, undos and deletes.
+     */
+    @Test
+    void stats_counts_by_status_and_type() {
+        rex.getResponse("todo read book");
+        rex.getResponse("deadline return book /by 2001-01-01 1200");
+        rex.getResponse("deadline file taxes /by 2999-01-01 1200");
+        rex.getResponse("event meeting /from 2001-01-01 1000 /to 2001-01-01 1100");
+        rex.getResponse("mark 1");
+
+        assertEquals("Here are your task stats:\n"
+                + "  Total: 4 (1 done, 3 pending)\n"
+                + "  Todos: 1, deadlines: 2, events: 1\n"
+                + "  Overdue deadlines: 1", rex.getResponse("stats"));
+        rex.getResponse("mark 2");
+        assertTrue(rex.getResponse("stats").endsWith("Overdue deadlines: 0"));
+        rex.getResponse("undo");
+        rex.getResponse("delete 2");
+        assertTrue(rex.getResponse("stats").contains("Total: 3 (1 done, 2 pending)"));
+    }
+
+    /**
+     * Tests that "find~" matches words within the allowed number
+     * of edits while "find" does not.
+     */
+    @Test
+    void fuzzy_find_tolerates_typos() {
+        rex.getResponse("todo read book");
+        rex.getResponse("todo return library book");
+        rex.getResponse("todo buy groceries");
+        rex.getResponse("delete 2");
+
+        assertEquals("Here are the matching tasks in your list:\n1.[T][ ] read book", rex.getResponse("find~ raed bok"));
+        assertEquals("No matching tasks found.", rex.getResponse("find raed"));
+        assertEquals("No matching tasks found.", rex.getResponse("find~1 raed"));
+        assertTrue(rex.getResponse("find~1 groceris").contains("buy groceries"));
+        assertFalse(rex.getResponse("find~ library").contains("return"));
+        assertTrue(rex.getResponse("find~x book").startsWith("Usage: find~"));
+    }
+
     @Test
     void unknown_command_shows_help() {
         String response = rex.getResponse("invalidcommand");
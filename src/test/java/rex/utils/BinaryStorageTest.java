@@ -0,0 +1,99 @@
+package rex.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import seedu.rex.tasks.Deadline;
+import seedu.rex.tasks.Event;
+import seedu.rex.tasks.Task;
+import seedu.rex.tasks.Todo;
+import seedu.rex.utils.BinaryStorage;
+import seedu.rex.utils.Storage;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the {@link seedu.rex.utils.BinaryStorage} format
+ * and the text-to-binary migration in {@link seedu.rex.utils.Storage}.
+ */
+class BinaryStorageTest {
+    private Path tempDir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("rex-binary-test");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(tempDir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    /**
+     * Tests that every task type, its done status, its dates and its id
+     * survive a save and load in the binary format.
+     */
+    @Test
+    void roundTrip_keepsEveryField() throws IOException {
+        Task todo = new Todo("read book \u2014 caf\u00e9");
+        todo.setId(5);
+        Task deadline = new Deadline("return book", LocalDateTime.of(2019, 12, 2, 18, 0));
+        deadline.markDone();
+        deadline.setId(1L << 40);
+        Task event = new Event("project meeting",
+                LocalDateTime.of(2019, 12, 2, 14, 0), LocalDateTime.of(2019, 12, 2, 16, 0));
+        Path file = tempDir.resolve("rex.bin");
+
+        BinaryStorage.save(file, List.of(todo, deadline, event), 42);
+        List<Task> loaded = BinaryStorage.load(file);
+
+        assertTrue(BinaryStorage.isBinary(file));
+        assertEquals(42, BinaryStorage.loadSeq(file));
+        assertEquals(3, loaded.size());
+        assertEquals(todo.toString(), loaded.get(0).toString());
+        assertEquals(deadline.toString(), loaded.get(1).toString());
+        assertEquals(event.toString(), loaded.get(2).toString());
+        assertEquals(5, loaded.get(0).getId());
+        assertEquals(1L << 40, loaded.get(1).getId());
+        assertEquals(0, loaded.get(2).getId());
+    }
+
+    /**
+     * Tests that migrating a text snapshot converts it in place,
+     * keeps a backup, and that later saves stay binary.
+     */
+    @Test
+    void migrateToBinary_convertsInPlace() throws IOException {
+        Path file = tempDir.resolve("rex.txt");
+        Files.writeString(file, "# seq 7\nT | 1 | read book\nD | 0 | return book | 2019-12-02T18:00\n",
+                StandardCharsets.UTF_8);
+
+        assertTrue(Storage.migrateToBinary(file));
+        assertFalse(Storage.migrateToBinary(file));
+        assertTrue(BinaryStorage.isBinary(file));
+        assertTrue(Files.exists(tempDir.resolve("rex.txt.bak")));
+        assertEquals(7, Storage.loadSeq(file));
+
+        List<Task> loaded = Storage.load(file);
+        assertEquals("[T][X] read book", loaded.get(0).toString());
+        loaded.add(new Todo("write report"));
+        Storage.save(file, loaded, 8);
+
+        assertTrue(BinaryStorage.isBinary(file));
+        assertEquals(3, Storage.load(file).size());
+        assertEquals(8, Storage.loadSeq(file));
+    }
+}
@@ -0,0 +1,65 @@
+package rex.utils;
+
+import org.junit.jupiter.api.Test;
+import seedu.rex.utils.BkTree;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Unit tests for the {@link BkTree} class.
+ */
+public class BkTreeTest {
+
+    /**
+     * Tests that searches find exactly the words a brute-force check of
+     * every word finds, for several distances.
+     */
+    @Test
+    public void search_matchesBruteForce() {
+        Random random = new Random(13);
+        BkTree tree = new BkTree();
+        TreeSet<String> words = new TreeSet<>();
+        for (int i = 0; i < 3_000; i++) {
+            String w = randomWord(random);
+            tree.add(w);
+            words.add(w);
+        }
+        assertEquals(words.size(), tree.size());
+        for (int q = 0; q < 100; q++) {
+            String query = randomWord(random);
+            for (int k = 0; k <= 2; k++) {
+                List<String> expected = new ArrayList<>();
+                for (String w : words) {
+                    if (levenshtein(query, w) <= k) expected.add(w);
+                }
+                TreeSet<String> found = new TreeSet<>();
+                tree.search(query, k, found::add);
+                assertEquals(expected, new ArrayList<>(found));
+            }
+        }
+    }
+
+    private static String randomWord(Random random) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 2 + random.nextInt(5); i > 0; i--) sb.append((char) ('a' + random.nextInt(6)));
+        return sb.toString();
+    }
+
+    private static int levenshtein(String a, String b) {
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) d[i][0] = i;
+        for (int j = 0; j <= b.length(); j++) d[0][j] = j;
+        for (int i = 1; i <= a.length(); i++) {
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                d[i][j] = Math.min(Math.min(d[i - 1][j], d[i][j - 1]) + 1, d[i - 1][j - 1] + cost);
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+}
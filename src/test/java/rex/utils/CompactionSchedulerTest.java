@@ -0,0 +1,93 @@
+package rex.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import seedu.rex.tasks.TaskList;
+import seedu.rex.tasks.Todo;
+import seedu.rex.utils.CompactionScheduler;
+import seedu.rex.utils.Journal;
+import seedu.rex.utils.Storage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for {@link seedu.rex.utils.CompactionScheduler}.
+ */
+class CompactionSchedulerTest {
+    private Path tempDir;
+    private Path snapshot;
+    private Journal journal;
+    private TaskList tasks;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("rex-compaction-test");
+        snapshot = tempDir.resolve("rex.txt");
+        journal = new Journal(Journal.pathFor(snapshot), 0, 64);
+        tasks = new TaskList();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        journal.close();
+        try (Stream<Path> paths = Files.walk(tempDir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    private void add(String description) throws IOException {
+        Todo t = new Todo(description);
+        tasks.add(t);
+        journal.appendAdd(t);
+    }
+
+    private CompactionScheduler scheduler(long maxLogBytes) {
+        return new CompactionScheduler(snapshot, journal,
+                () -> new CompactionScheduler.Checkpoint(new ArrayList<>(tasks.asList()), journal.lastSeq()),
+                60_000, maxLogBytes, 1.0);
+    }
+
+    /**
+     * Tests that compaction writes a snapshot, drops the journal records
+     * it covers, and keeps records appended afterwards.
+     */
+    @Test
+    void compact_trimsJournalBehindSnapshot() throws IOException {
+        add("read book");
+        add("write report");
+        journal.flush();
+        scheduler(1).compact();
+
+        assertEquals(2, Storage.loadSeq(snapshot));
+        assertEquals(0, journal.sizeBytes());
+
+        add("buy groceries");
+        journal.flush();
+        TaskList restored = new TaskList(Storage.load(snapshot));
+        new Journal(Journal.pathFor(snapshot)).replay(restored, Storage.loadSeq(snapshot));
+        assertEquals(3, restored.size());
+        assertEquals("[T][ ] buy groceries", restored.get(3).toString());
+    }
+
+    /**
+     * Tests that the size threshold decides whether a compaction is due.
+     */
+    @Test
+    void shouldCompact_followsLogSizeThreshold() throws IOException {
+        add("read book");
+        journal.flush();
+
+        assertTrue(scheduler(1).shouldCompact());
+        assertFalse(scheduler(1 << 20).shouldCompact());
+    }
+}
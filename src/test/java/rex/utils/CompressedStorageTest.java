@@ -0,0 +1,89 @@
+package rex.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import seedu.rex.tasks.Deadline;
+import seedu.rex.tasks.Task;
+import seedu.rex.tasks.Todo;
+import seedu.rex.utils.CompressedStorage;
+import seedu.rex.utils.Storage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the {@link seedu.rex.utils.CompressedStorage} archive format
+ * and the migration to it in {@link seedu.rex.utils.Storage}.
+ */
+class CompressedStorageTest {
+    private Path tempDir;
+    private Path file;
+    private List<Task> tasks;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("rex-compressed-test");
+        file = tempDir.resolve("rex.txt");
+        tasks = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            Task t = i % 3 == 0
+                    ? new Deadline("return book " + i, LocalDateTime.of(2019, 12, 2, 18, 0))
+                    : new Todo("read book " + i);
+            if (i % 2 == 0) t.markDone();
+            tasks.add(t);
+        }
+        Storage.save(file, tasks, 9);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(tempDir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    /**
+     * Tests that a migrated archive is much smaller than the text,
+     * loads back the same tasks and keeps being written compressed.
+     */
+    @Test
+    void migrate_shrinksFileAndRoundTrips() throws IOException {
+        long textBytes = Files.size(file);
+        assertTrue(Storage.migrateToCompressed(file));
+        assertTrue(CompressedStorage.isCompressed(file));
+        assertTrue(Files.size(file) * 3 < textBytes);
+        assertEquals(9, Storage.loadSeq(file));
+
+        List<Task> loaded = Storage.load(file);
+        assertEquals(tasks.size(), loaded.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            assertEquals(tasks.get(i).toString(), loaded.get(i).toString());
+        }
+
+        Storage.save(file, loaded.subList(0, 10), 10);
+        assertTrue(CompressedStorage.isCompressed(file));
+        assertEquals(10, Storage.load(file).size());
+    }
+
+    /**
+     * Tests that single reads return the task at each position,
+     * including the first and last task of the archive.
+     */
+    @Test
+    void read_returnsTaskAtPosition() throws IOException {
+        Storage.migrateToCompressed(file);
+        for (int i : new int[] {0, 1, 4_321, 12_345, tasks.size() - 1}) {
+            assertEquals(tasks.get(i).toString(), CompressedStorage.read(file, i).toString());
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package rex.utils;
+
+import org.junit.jupiter.api.Test;
+import seedu.rex.utils.History;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Unit tests for the {@link History} class.
+ */
+public class HistoryTest {
+
+    /**
+     * Tests that only the last {@code depth} changes can be undone and
+     * that recording a change drops the redo history.
+     */
+    @Test
+    public void undoRedo_boundedByDepth() {
+        History<String> history = new History<>(3);
+        for (int i = 1; i <= 5; i++) history.record("change " + i);
+
+        assertEquals("change 5", history.undo());
+        assertEquals("change 4", history.undo());
+        assertEquals("change 3", history.undo());
+        assertNull(history.undo());
+        assertEquals("change 3", history.redo());
+
+        history.record("change 6");
+        assertNull(history.redo());
+        assertEquals("change 6", history.undo());
+        assertEquals("change 3", history.undo());
+    }
+}
@@ -0,0 +1,83 @@
+package rex.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import seedu.rex.tasks.TaskList;
+import seedu.rex.tasks.Todo;
+import seedu.rex.utils.Journal;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the group-committing {@link seedu.rex.utils.Journal}.
+ */
+class JournalTest {
+    private Path tempDir;
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("rex-journal-test");
+        file = tempDir.resolve("rex.txt.journal");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(tempDir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    /**
+     * Tests that appends return before the write happens, and that
+     * flush() waits for the whole batch to reach the file.
+     */
+    @Test
+    void flush_waitsForQueuedRecords() throws IOException {
+        Journal journal = new Journal(file, 60_000, 1_000);
+        for (int i = 1; i <= 100; i++) {
+            journal.appendAdd(new Todo("task " + i));
+        }
+        assertFalse(Files.exists(file));
+
+        journal.flush();
+        assertEquals(100, Files.readAllLines(file, StandardCharsets.UTF_8).size());
+        journal.close();
+    }
+
+    /**
+     * Tests that records survive a close and are replayed in order,
+     * skipping any already folded into the snapshot.
+     */
+    @Test
+    void replay_appliesRecordsAfterSnapshotSeq() throws IOException {
+        Journal journal = new Journal(file, 0, 2);
+        journal.appendAdd(new Todo("read book"));
+        journal.appendAdd(new Todo("write report"));
+        journal.append(Journal.MARK, 2);
+        journal.append(Journal.DELETE, 1);
+        journal.close();
+
+        TaskList fromScratch = new TaskList();
+        assertEquals(4, new Journal(file).replay(fromScratch, 0));
+        assertEquals(1, fromScratch.size());
+        assertEquals("[T][X] write report", fromScratch.get(1).toString());
+
+        TaskList fromSnapshot = new TaskList();
+        fromSnapshot.add(new Todo("read book"));
+        fromSnapshot.add(new Todo("write report"));
+        new Journal(file).replay(fromSnapshot, 2);
+        assertEquals(1, fromSnapshot.size());
+        assertTrue(fromSnapshot.get(1).isDone());
+    }
+}
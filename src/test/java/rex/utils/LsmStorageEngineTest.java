@@ -0,0 +1,136 @@
+package rex.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import seedu.rex.tasks.TaskList;
+import seedu.rex.tasks.Todo;
+import seedu.rex.utils.LsmStorageEngine;
+import seedu.rex.utils.StorageOptions;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for {@link seedu.rex.utils.LsmStorageEngine}.
+ */
+class LsmStorageEngineTest {
+    private Path tempDir;
+    private Path store;
+    private StorageOptions options;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("rex-lsm-test");
+        store = tempDir.resolve("rex.lsm");
+        options = StorageOptions.defaults().flushIntervalMillis(0).memtableLimit(8).maxRuns(3);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(tempDir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    /** Applies a fixed mix of changes through the engine, mirroring them in {@code expected}. */
+    private static void mutate(LsmStorageEngine engine, TaskList tasks, List<String> expected) throws IOException {
+        for (int i = 0; i < 100; i++) {
+            Todo t = new Todo("task " + i);
+            tasks.add(t);
+            engine.added(t);
+            expected.add("[T][ ] task " + i);
+        }
+        for (int idx = 1; idx <= 100; idx += 7) {
+            tasks.mark(idx, true);
+            engine.marked(idx, true);
+            expected.set(idx - 1, expected.get(idx - 1).replace("[ ]", "[X]"));
+        }
+        for (int idx = 90; idx >= 1; idx -= 9) {
+            tasks.delete(idx);
+            engine.deleted(idx);
+            expected.remove(idx - 1);
+        }
+    }
+
+    private static void assertTasks(List<String> expected, TaskList actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i), actual.get(i + 1).toString());
+        }
+    }
+
+    /**
+     * Tests that changes spread over several flushed and merged runs
+     * load back in list order after a clean close.
+     */
+    @Test
+    void reopen_afterClose_restoresTasks() throws IOException {
+        LsmStorageEngine engine = new LsmStorageEngine(store, options);
+        TaskList tasks = engine.open();
+        List<String> expected = new ArrayList<>();
+        mutate(engine, tasks, expected);
+        engine.close();
+
+        LsmStorageEngine reopened = new LsmStorageEngine(store, options);
+        assertTasks(expected, reopened.open());
+        assertTrue(reopened.runCount() < 3);
+        reopened.close();
+    }
+
+    /**
+     * Tests that changes still only in the memtable are recovered
+     * from the journal when the engine was never closed.
+     */
+    @Test
+    void reopen_withoutClose_replaysJournal() throws IOException {
+        LsmStorageEngine engine = new LsmStorageEngine(store, options.memtableLimit(1_000));
+        TaskList tasks = engine.open();
+        List<String> expected = new ArrayList<>();
+        mutate(engine, tasks, expected);
+        engine.flush();
+        assertEquals(0, engine.runCount());
+
+        LsmStorageEngine reopened = new LsmStorageEngine(store, options);
+        assertTasks(expected, reopened.open());
+        reopened.close();
+    }
+
+    /**
+     * Tests that tasks inserted between others, often enough to use up the
+     * gap between their keys, keep their places across a reopen.
+     */
+    @Test
+    void inserted_keepsPositionAcrossReopen() throws IOException {
+        LsmStorageEngine engine = new LsmStorageEngine(store, options.memtableLimit(1_000));
+        TaskList tasks = engine.open();
+        List<String> expected = new ArrayList<>();
+        mutate(engine, tasks, expected);
+        for (int i = 0; i < 20; i++) {
+            Todo t = new Todo("inserted " + i);
+            tasks.insert(5, t);
+            engine.inserted(5, t);
+            expected.add(4, "[T][ ] inserted " + i);
+        }
+        Todo first = new Todo("first");
+        tasks.insert(1, first);
+        engine.inserted(1, first);
+        expected.add(0, "[T][ ] first");
+        engine.flush();
+
+        LsmStorageEngine replayed = new LsmStorageEngine(store, options);
+        assertTasks(expected, replayed.open());
+        replayed.close();
+        LsmStorageEngine reopened = new LsmStorageEngine(store, options);
+        assertTasks(expected, reopened.open());
+        reopened.close();
+    }
+}
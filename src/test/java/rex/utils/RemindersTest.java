@@ -0,0 +1,151 @@
+package rex.utils;
+
+import org.junit.jupiter.api.Test;
+import seedu.rex.tasks.Deadline;
+import seedu.rex.tasks.Event;
+import seedu.rex.tasks.Task;
+import seedu.rex.tasks.TaskList;
+import seedu.rex.tasks.Todo;
+import seedu.rex.utils.Reminders;
+import seedu.rex.utils.SegmentedStorage;
+import seedu.rex.utils.Storage;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the {@link Reminders} class.
+ */
+public class RemindersTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 12, 20, 9, 0);
+
+    /** A clock that only moves when told to. */
+    private static final class ManualClock extends Clock {
+        private Instant instant = NOW.toInstant(ZoneOffset.UTC);
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+
+        void advance(Duration d) {
+            instant = instant.plus(d);
+        }
+    }
+
+    /**
+     * Tests that reminders fire their lead time ahead, skip tasks that are
+     * done, past or undated, and follow marks and deletes.
+     */
+    @Test
+    public void reminders_fireAheadAndFollowChanges() {
+        ManualClock clock = new ManualClock();
+        List<String> fired = new ArrayList<>();
+        Reminders reminders = new Reminders(Duration.ofMinutes(30), clock, fired::add);
+
+        Task done = new Deadline("done", NOW.plusHours(1));
+        done.markDone();
+        Task taxes = new Deadline("taxes", NOW.plusHours(3));
+        TaskList tasks = new TaskList();
+        for (Task t : List.of(new Deadline("report", NOW.plusHours(2)),
+                new Event("meeting", NOW.plusHours(1), NOW.plusHours(2)), done,
+                new Deadline("past", NOW.minusHours(1)), taxes, new Todo("todo"))) {
+            tasks.add(t);
+        }
+        reminders.rebuild(tasks);
+        assertEquals(3, reminders.pending());
+        reminders.cancelled(taxes);
+
+        clock.advance(Duration.ofMinutes(29));
+        reminders.tick();
+        assertTrue(fired.isEmpty());
+
+        clock.advance(Duration.ofMinutes(1));
+        reminders.tick();
+        assertEquals(1, fired.size());
+        assertTrue(fired.get(0).startsWith("Reminder, starting soon:\n  [E][ ] meeting"));
+
+        clock.advance(Duration.ofHours(3));
+        reminders.tick();
+        assertEquals(2, fired.size());
+        assertTrue(fired.get(1).startsWith("Reminder, due soon:\n  [D][ ] report"));
+        assertEquals(0, reminders.pending());
+    }
+
+    /**
+     * Tests that a list still in storage is scheduled from its stored dates,
+     * whether it is one lazily read file or a segmented store, and that a
+     * task deleted before its reminder fires is not reminded of.
+     */
+    @Test
+    public void rebuild_schedulesStoredLists() throws IOException {
+        Path dir = Files.createTempDirectory("rex-reminders-test");
+        try {
+            Path file = dir.resolve("rex.txt");
+            Files.writeString(file, String.join("\n",
+                    "D | 0 | report | 2024-12-20T11:00 | 1",
+                    "E | 0 | meeting | 2024-12-20T10:00 | 2024-12-20T11:00 | 2",
+                    "D | 1 | done | 2024-12-20T10:00 | 3",
+                    "D | 0 | past | 2024-12-20T08:00 | 4",
+                    "T | 0 | todo | 5") + "\n", StandardCharsets.UTF_8);
+            List<Task> lazy = Storage.loadLazy(file);
+            assertStoredListReminded(TaskList.wrap(lazy, Storage.maxId(lazy), Storage.dueScan(lazy)));
+
+            Storage.migrateToSegments(file);
+            assertStoredListReminded(SegmentedStorage.load(file));
+
+            Path old = dir.resolve("old.txt");
+            Files.writeString(old, "D | 0 | report | 2024-12-20T11:00\n", StandardCharsets.UTF_8);
+            lazy = Storage.loadLazy(old);
+            Reminders reminders = new Reminders(Duration.ofMinutes(30), new ManualClock(), s -> { });
+            reminders.rebuild(TaskList.wrap(lazy, Storage.maxId(lazy), Storage.dueScan(lazy)));
+            assertEquals(1, reminders.pending());
+        } finally {
+            try (Stream<Path> paths = Files.walk(dir)) {
+                paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            }
+        }
+    }
+
+    private static void assertStoredListReminded(TaskList tasks) {
+        ManualClock clock = new ManualClock();
+        List<String> fired = new ArrayList<>();
+        Reminders reminders = new Reminders(Duration.ofMinutes(30), clock, fired::add);
+        reminders.rebuild(tasks);
+        assertEquals(2, reminders.pending());
+
+        tasks.delete(2);
+        clock.advance(Duration.ofHours(1));
+        reminders.tick();
+        assertTrue(fired.isEmpty());
+
+        clock.advance(Duration.ofMinutes(30));
+        reminders.tick();
+        assertEquals(List.of("Reminder, due soon:\n  " + tasks.get(1)), fired);
+    }
+}
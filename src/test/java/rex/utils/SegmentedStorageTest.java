@@ -0,0 +1,134 @@
+package rex.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import seedu.rex.tasks.Task;
+import seedu.rex.tasks.TaskList;
+import seedu.rex.tasks.Todo;
+import seedu.rex.utils.SegmentedStorage;
+import seedu.rex.utils.Storage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for {@link seedu.rex.utils.SegmentedStorage}.
+ */
+class SegmentedStorageTest {
+    private Path tempDir;
+    private Path store;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("rex-segments-test");
+        store = tempDir.resolve("rex.txt");
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 1; i <= TaskList.SEGMENT_CAPACITY * 3; i++) {
+            Todo t = new Todo("task " + i);
+            t.setId(i);
+            tasks.add(t);
+        }
+        Storage.save(store, tasks);
+        assertTrue(Storage.migrateToSegments(store));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(tempDir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    private Set<String> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(store)) {
+            return files.map(p -> p.getFileName().toString())
+                    .filter(n -> n.startsWith("seg-"))
+                    .collect(Collectors.toSet());
+        }
+    }
+
+    /**
+     * Tests that a mark rewrites only the segment holding the task,
+     * and that the change survives a reload.
+     */
+    @Test
+    void save_rewritesOnlyDirtySegment() throws IOException {
+        TaskList tasks = SegmentedStorage.load(store);
+        assertEquals(TaskList.SEGMENT_CAPACITY * 3, tasks.size());
+        Set<String> before = segmentFiles();
+        assertEquals(3, before.size());
+
+        int idx = TaskList.SEGMENT_CAPACITY + 5;
+        tasks.mark(idx, true);
+        List<TaskList.SegmentState> states = tasks.segmentStates();
+        long[] written = SegmentedStorage.save(store, states, 7);
+        tasks.segmentsSaved(states, written);
+
+        Set<String> after = segmentFiles();
+        assertEquals(3, after.size());
+        after.retainAll(before);
+        assertEquals(2, after.size());
+
+        TaskList reloaded = SegmentedStorage.load(store);
+        assertEquals(7, SegmentedStorage.loadSeq(store));
+        assertTrue(reloaded.get(idx).isDone());
+        assertEquals("task " + idx, reloaded.get(idx).getDescription());
+        assertEquals("task " + reloaded.size(), reloaded.get(reloaded.size()).getDescription());
+    }
+
+    /**
+     * Tests that deleting across a segment and appending keep positions
+     * consistent with a plain list.
+     */
+    @Test
+    void deleteAndAdd_keepPositions() throws IOException {
+        TaskList tasks = SegmentedStorage.load(store);
+        for (int i = 0; i < TaskList.SEGMENT_CAPACITY; i++) {
+            tasks.delete(TaskList.SEGMENT_CAPACITY + 1);
+        }
+        tasks.add(new Todo("appended"));
+        List<TaskList.SegmentState> states = tasks.segmentStates();
+        tasks.segmentsSaved(states, SegmentedStorage.save(store, states, 0));
+
+        TaskList reloaded = SegmentedStorage.load(store);
+        assertEquals(TaskList.SEGMENT_CAPACITY * 2 + 1, reloaded.size());
+        assertEquals("task " + TaskList.SEGMENT_CAPACITY, reloaded.get(TaskList.SEGMENT_CAPACITY).getDescription());
+        assertEquals("task " + (TaskList.SEGMENT_CAPACITY * 2 + 1),
+                reloaded.get(TaskList.SEGMENT_CAPACITY + 1).getDescription());
+        assertEquals("appended", reloaded.get(reloaded.size()).getDescription());
+    }
+
+    /**
+     * Tests that a reloaded store hands out fresh ids and finds tasks by id
+     * without reading segments that were never used.
+     */
+    @Test
+    void ids_surviveReloadWithoutReadingSegments() throws IOException {
+        TaskList tasks = SegmentedStorage.load(store);
+        Todo added = new Todo("appended");
+        tasks.add(added);
+        assertEquals(TaskList.SEGMENT_CAPACITY * 3 + 1, added.getId());
+        tasks.delete(1);
+        List<TaskList.SegmentState> states = tasks.segmentStates();
+        tasks.segmentsSaved(states, SegmentedStorage.save(store, states, 0));
+
+        TaskList reloaded = SegmentedStorage.load(store);
+        Todo next = new Todo("next");
+        reloaded.add(next);
+        assertEquals(TaskList.SEGMENT_CAPACITY * 3 + 2, next.getId());
+        assertEquals(TaskList.SEGMENT_CAPACITY * 3, reloaded.positionOf(added.getId()));
+        assertEquals(1, reloaded.positionOf(2));
+        assertEquals(-1, reloaded.positionOf(1));
+    }
+}
@@ -0,0 +1,213 @@
+package rex.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import seedu.rex.tasks.Task;
+import seedu.rex.tasks.TaskList;
+import seedu.rex.tasks.Todo;
+import seedu.rex.utils.Storage;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the load modes of {@link seedu.rex.utils.Storage}.
+ * Each mode, including streaming, must produce the same tasks, in the same
+ * order, as {@link Storage#load}.
+ */
+class StorageTest {
+    private static final String SAMPLE = String.join("\n",
+            "# seq 3",
+            "T | 0 | read book",
+            "not a task",
+            "D | 1 | return book | 2019-12-02T18:00",
+            "E | 0 | project meeting | 2019-12-02T14:00 | 2019-12-02T16:00",
+            "T | 1 | write report") + "\n";
+
+    private Path tempDir;
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("rex-storage-test");
+        file = tempDir.resolve("rex.txt");
+        Files.writeString(file, SAMPLE, StandardCharsets.UTF_8);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(tempDir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    private static void assertSameTasks(List<Task> expected, List<Task> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).toString(), actual.get(i).toString());
+        }
+    }
+
+    /**
+     * Tests that a file large enough to be parsed in parallel chunks
+     * keeps its records in file order.
+     */
+    @Test
+    void load_largeFileKeepsOrder() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        int n = 0;
+        while (sb.length() < 6 * 1024 * 1024) {
+            sb.append(n % 2 == 0 ? "T | 0 | task " + n : "D | 1 | task " + n + " | 2019-12-02T18:00")
+                    .append('\n');
+            n++;
+        }
+        Files.writeString(file, sb.toString(), StandardCharsets.UTF_8);
+
+        List<Task> loaded = Storage.load(file);
+        assertEquals(n, loaded.size());
+        for (int i = 0; i < n; i++) {
+            assertEquals("task " + i, loaded.get(i).getDescription());
+        }
+    }
+
+    /**
+     * Tests that a lazily loaded list matches an eager load and
+     * supports the add and delete operations TaskList relies on.
+     */
+    @Test
+    void loadLazy_matchesEagerLoad() throws IOException {
+        List<Task> eager = Storage.load(file);
+        assertEquals(4, eager.size());
+        assertSameTasks(eager, Storage.loadLazy(file));
+
+        TaskList lazy = TaskList.wrap(Storage.loadLazy(file));
+        Task removed = lazy.delete(2).task();
+        assertEquals("return book", removed.getDescription());
+        assertTrue(removed.isDone());
+        lazy.add(new Todo("buy groceries"));
+        assertEquals(4, lazy.size());
+        assertEquals("[T][X] write report", lazy.get(3).toString());
+        assertEquals("[T][ ] buy groceries", lazy.get(4).toString());
+    }
+
+    /**
+     * Tests that a lazy load skips the same corrupt lines as an eager
+     * load, and hands out new ids above the highest stored one.
+     */
+    @Test
+    void loadLazy_skipsCorruptLinesAndKnowsMaxId() throws IOException {
+        Files.writeString(file, String.join("\n",
+                "T | 0 | read book | 7",
+                "D | 0 | return book | not a date | 40",
+                "E | 0 | meeting | 2019-02-30T14:00 | 2019-12-02T16:00 | 41",
+                "T | 0 |",
+                "Tx | 0 | typo",
+                "D | 1 | file taxes | 2019-12-02 1800 | 12",
+                "E | 0 | project meeting | 2019-12-02T14:00 | 2019-12-02T16:00") + "\n", StandardCharsets.UTF_8);
+        List<Task> eager = Storage.load(file);
+        assertEquals(3, eager.size());
+        List<Task> lazy = Storage.loadLazy(file);
+        assertSameTasks(eager, lazy);
+        assertEquals(12, Storage.maxId(Storage.loadLazy(file)));
+
+        TaskList tasks = TaskList.wrap(Storage.loadLazy(file), 12, null);
+        Task added = new Todo("buy groceries");
+        tasks.add(added);
+        assertEquals(13, added.getId());
+        assertEquals(7, tasks.get(1).getId());
+        assertTrue(tasks.get(3).getId() > 13);
+    }
+
+    /**
+     * Tests that the next id a snapshot is saved with survives in every
+     * format, including through migration, and that the sequence number
+     * beside it is still read.
+     */
+    @Test
+    void nextId_roundTripsInEveryFormat() throws IOException {
+        assertEquals(0, Storage.loadNextId(file));
+        List<Task> tasks = Storage.load(file);
+        Storage.save(file, tasks, 5, 40);
+        assertEquals(5, Storage.loadSeq(file));
+        assertEquals(40, Storage.loadNextId(file));
+        assertSameTasks(tasks, Storage.load(file));
+
+        assertTrue(Storage.migrateToBinary(file));
+        assertEquals(40, Storage.loadNextId(file));
+        Storage.save(file, tasks, 6, 41);
+        assertEquals(6, Storage.loadSeq(file));
+        assertEquals(41, Storage.loadNextId(file));
+        assertSameTasks(tasks, Storage.load(file));
+
+        assertTrue(Storage.migrateToCompressed(file));
+        assertEquals(41, Storage.loadNextId(file));
+        Storage.save(file, tasks, 7, 42);
+        assertEquals(7, Storage.loadSeq(file));
+        assertEquals(42, Storage.loadNextId(file));
+        assertSameTasks(tasks, Storage.load(file));
+
+        assertTrue(Storage.migrateToSegments(file));
+        assertEquals(42, Storage.loadNextId(file));
+        Storage.save(file, tasks, 8, 43);
+        assertEquals(8, Storage.loadSeq(file));
+        assertEquals(43, Storage.loadNextId(file));
+        assertSameTasks(tasks, Storage.load(file));
+    }
+
+    /**
+     * Tests that streaming reads match an eager load, and that a streamed
+     * write round-trips in both the text and binary formats.
+     */
+    @Test
+    void streamAndIteratorSave_roundTrip() throws IOException {
+        List<Task> eager = Storage.load(file);
+        try (Stream<Task> streamed = Storage.stream(file)) {
+            assertSameTasks(eager, streamed.collect(Collectors.toList()));
+        }
+
+        Path copy = tempDir.resolve("copy.txt");
+        try (Stream<Task> streamed = Storage.stream(file)) {
+            Storage.save(copy, streamed.iterator(), 3);
+        }
+        assertEquals(3, Storage.loadSeq(copy));
+        assertSameTasks(eager, Storage.load(copy));
+
+        assertTrue(Storage.migrateToBinary(copy));
+        try (Stream<Task> streamed = Storage.stream(file)) {
+            Storage.save(copy, streamed.filter(Task::isDone).iterator(), 4);
+        }
+        assertEquals(4, Storage.loadSeq(copy));
+        try (Stream<Task> streamed = Storage.stream(copy)) {
+            assertEquals(List.of("return book", "write report"),
+                    streamed.map(Task::getDescription).collect(Collectors.toList()));
+        }
+    }
+
+    /**
+     * Tests that ids in the optional last field are read and written back,
+     * and that lines without one load with no id.
+     */
+    @Test
+    void load_keepsIds() throws IOException {
+        Files.writeString(file, "T | 0 | read book | 7\nT | 0 | write report\n"
+                + "E | 1 | meeting | 2019-12-02T14:00 | 2019-12-02T16:00 | 9\n", StandardCharsets.UTF_8);
+        List<Task> loaded = Storage.load(file);
+        assertEquals(List.of(7L, 0L, 9L), loaded.stream().map(Task::getId).collect(Collectors.toList()));
+
+        TaskList tasks = new TaskList(loaded);
+        assertEquals(10, tasks.get(2).getId());
+        Storage.save(file, tasks.asList());
+        assertEquals(List.of(7L, 10L, 9L),
+                Storage.load(file).stream().map(Task::getId).collect(Collectors.toList()));
+    }
+}
@@ -0,0 +1,64 @@
+package rex.utils;
+
+import org.junit.jupiter.api.Test;
+import seedu.rex.utils.TimingWheel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Unit tests for the {@link TimingWheel} class.
+ */
+public class TimingWheelTest {
+
+    /**
+     * Tests that timers spread from the next tick to years ahead fire exactly
+     * at their tick, and that cancelled timers never fire.
+     */
+    @Test
+    public void timers_fireAtTheirTick() {
+        long start = 28_000_000;
+        TimingWheel<Long> wheel = new TimingWheel<>(start);
+        Random random = new Random(3);
+        List<TimingWheel.Timer<Long>> cancelled = new ArrayList<>();
+        int expected = 0;
+        for (int i = 0; i < 20_000; i++) {
+            long due = start + 1 + (long) Math.pow(random.nextDouble(), 4) * 2_000_000;
+            TimingWheel.Timer<Long> t = wheel.schedule(due, due);
+            if (i % 5 == 0) {
+                cancelled.add(t);
+            } else {
+                expected++;
+            }
+        }
+        cancelled.forEach(wheel::cancel);
+        assertEquals(expected, wheel.size());
+
+        int[] fired = {0};
+        for (long tick = start; tick <= start + 2_000_000; tick += 1 + random.nextInt(500)) {
+            long now = tick;
+            wheel.advanceTo(now, due -> {
+                assertEquals(wheel.now(), (long) due);
+                fired[0]++;
+            });
+        }
+        wheel.advanceTo(start + 2_000_001, due -> fired[0]++);
+        assertEquals(expected, fired[0]);
+        assertEquals(0, wheel.size());
+    }
+
+    /**
+     * Tests that a timer already due when it is scheduled fires on the next advance.
+     */
+    @Test
+    public void overdueTimer_firesOnNextAdvance() {
+        TimingWheel<String> wheel = new TimingWheel<>(100);
+        wheel.schedule(90, "late");
+        List<String> fired = new ArrayList<>();
+        wheel.advanceTo(100, fired::add);
+        assertEquals(List.of("late"), fired);
+    }
+}